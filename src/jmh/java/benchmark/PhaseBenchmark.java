@@ -0,0 +1,213 @@
+package benchmark;
+
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.analysis.liveness.LivenessAnalysis.Granularity;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.ParsingTableCache;
+import parser.StupsParser;
+import parser.ast.CompactSyntaxTree;
+import parser.ast.SyntaxTree;
+import typechecker.Type;
+import typechecker.TypeChecker;
+import util.IdAllocator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst jede Compilerphase einzeln, die Eingaben einer Phase werden im Setup mit den vorherigen Phasen erzeugt.
+ * <p>
+ * "examples" übersetzt alle Beispielprogramme aus den Tests, die Zahlen sind künstliche Programme mit so vielen
+ * Anweisungen (siehe {@link Programs#synthetic(int)}). Wächst die Zeit einer Phase mit der Programmgröße
+ * deutlich stärker als linear, ist das über die Zahlen direkt zu sehen.
+ * <p>
+ * Ausführen mit "./gradlew jmh", einzelne Phasen z.B. mit "./gradlew jmh -Pjmh.include=PhaseBenchmark.liveness",
+ * andere Programmgrößen z.B. mit "./gradlew jmh -Pjmh.args='-p program=100,10000'".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseBenchmark {
+
+    @Param({"examples", "100", "1000"})
+    public String program;
+
+    private StupsParser parser;
+    private Vocabulary vocabulary;
+
+    // The input of every phase, one entry per program
+
+    private final List<String> sources = new ArrayList<>();
+    private final List<List<? extends Token>> tokens = new ArrayList<>();
+    private final List<SyntaxTree> parseTrees = new ArrayList<>();
+    private final List<CompactSyntaxTree> compactTrees = new ArrayList<>();
+    private final List<Type[]> nodeTypes = new ArrayList<>();
+    private final List<FlowGraph> flowGraphs = new ArrayList<>();
+    private final List<Map<String, Integer>> varMaps = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        this.parser = new StupsParser(ParsingTableCache.fromGrammarFile(Paths.get("stups.grammar")));
+        this.vocabulary = StupsLexer.VOCABULARY;
+
+        final List<String> programs = "examples".equals(this.program)
+                                      ? Programs.examplePrograms()
+                                      : List.of(Programs.synthetic(Integer.parseInt(this.program)));
+
+        for (String source : programs) {
+            try {
+                this.prepare(source);
+            } catch (RuntimeException e) {
+                // Some examples are meant to fail, only programs reaching the flow graph are measured
+            }
+        }
+
+        if (this.sources.isEmpty()) {
+            throw new IllegalStateException("Keine übersetzbaren Programme für " + this.program);
+        }
+    }
+
+    private void prepare(String source) {
+        IdAllocator.reset();
+
+        final List<? extends Token> programTokens = lex(source);
+        final SyntaxTree parseTree = this.parser.parse(programTokens, this.vocabulary);
+        final CompactSyntaxTree compactTree = CompactSyntaxTree.fromSyntaxTree(
+                this.parser.parseAbstractSyntaxTree(programTokens, this.vocabulary));
+        final Type[] types = TypeChecker.validate(compactTree);
+        final FlowGraphGenerator generator = FlowGraphGenerator.fromAST(compactTree, types, "Benchmark.stups");
+        final FlowGraph flowGraph = generator.generateGraph();
+
+        // Only added once every phase succeeded, all lists stay aligned
+        this.sources.add(source);
+        this.tokens.add(programTokens);
+        this.parseTrees.add(parseTree);
+        this.compactTrees.add(compactTree);
+        this.nodeTypes.add(types);
+        this.flowGraphs.add(flowGraph);
+        this.varMaps.add(generator.getVarMap());
+    }
+
+    private static List<? extends Token> lex(String source) {
+        return new StupsLexer(CharStreams.fromString(source)).getAllTokens();
+    }
+
+    @Benchmark
+    public void lex(Blackhole blackhole) {
+        for (String source : this.sources) {
+            blackhole.consume(lex(source));
+        }
+    }
+
+    /**
+     * Nur die Ableitung, der konkrete Parsebaum wird vollständig aufgebaut.
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (List<? extends Token> programTokens : this.tokens) {
+            IdAllocator.reset();
+            blackhole.consume(this.parser.parse(programTokens, this.vocabulary));
+        }
+    }
+
+    /**
+     * Der Weg des Compilers: Der AST entsteht beim Parsen, danach wird rebalanciert.
+     */
+    @Benchmark
+    public void parseAbstractSyntaxTree(Blackhole blackhole) {
+        for (List<? extends Token> programTokens : this.tokens) {
+            IdAllocator.reset();
+            blackhole.consume(this.parser.parseAbstractSyntaxTree(programTokens, this.vocabulary));
+        }
+    }
+
+    /**
+     * Das Umformen eines fertigen Parsebaums, enthält die Kopie des Parsebaums.
+     */
+    @Benchmark
+    public void toAbstractSyntaxTree(Blackhole blackhole) {
+        for (SyntaxTree parseTree : this.parseTrees) {
+            IdAllocator.reset();
+            blackhole.consume(SyntaxTree.toAbstractSyntaxTree(parseTree, this.parser.getGrammar()));
+        }
+    }
+
+    @Benchmark
+    public void typeCheck(Blackhole blackhole) {
+        for (CompactSyntaxTree compactTree : this.compactTrees) {
+            blackhole.consume(TypeChecker.validate(compactTree));
+        }
+    }
+
+    /**
+     * Enthält {@link FlowGraphGenerator#fromAST}, da {@link FlowGraphGenerator#generateGraph()} den Generator verbraucht.
+     */
+    @Benchmark
+    public void generateGraph(Blackhole blackhole) {
+        for (int i = 0; i < this.compactTrees.size(); i++) {
+            IdAllocator.reset();
+            blackhole.consume(FlowGraphGenerator.fromAST(this.compactTrees.get(i), this.nodeTypes.get(i), "Benchmark.stups")
+                                                .generateGraph());
+        }
+    }
+
+    @Benchmark
+    public void dataFlowGraph(Blackhole blackhole) {
+        for (FlowGraph flowGraph : this.flowGraphs) {
+            IdAllocator.reset();
+            blackhole.consume(DataFlowGraph.fromFlowGraph(flowGraph));
+        }
+    }
+
+    /**
+     * In/Out-Mengen, Interferenzgraph und Färbung.
+     * Die Analyse schreibt die In/Out-Mengen in die Knoten des DataFlowGraphs, deshalb wird er jedes Mal neu erzeugt,
+     * die Zeit von {@link #dataFlowGraph(Blackhole)} ist hier also enthalten.
+     */
+    @Benchmark
+    public void liveness(Blackhole blackhole) {
+        for (int i = 0; i < this.flowGraphs.size(); i++) {
+            IdAllocator.reset();
+            final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(this.flowGraphs.get(i));
+            blackhole.consume(LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, this.varMaps.get(i)).doLivenessAnalysis());
+        }
+    }
+
+    /**
+     * Wie {@link #liveness(Blackhole)}, aber mit dem Fixpunkt über einzelnen Instruktionen statt über Basic Blocks.
+     */
+    @Benchmark
+    public void livenessInstructions(Blackhole blackhole) {
+        for (int i = 0; i < this.flowGraphs.size(); i++) {
+            IdAllocator.reset();
+            final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(this.flowGraphs.get(i));
+            blackhole.consume(LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, this.varMaps.get(i), Granularity.INSTRUCTION)
+                                              .doLivenessAnalysis());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Die Eingabeprogramme der Benchmarks: Die Beispielprogramme aus den Tests
+ * und künstlich erzeugte Programme mit vorgegebener Anzahl an Anweisungen.
+ */
+final class Programs {
+
+    /**
+     * Relativ zum Projektverzeichnis, der jmh-Task läuft dort.
+     */
+    private static final Path EXAMPLE_PROGRAMS = Paths.get("src/test/resources/examplePrograms");
+
+    private static final int VARIABLES = 8;
+
+    private Programs() {}
+
+    /**
+     * Alle Beispielprogramme, auch die fehlerhaften, sortiert nach Dateiname.
+     */
+    static List<String> examplePrograms() {
+        try (Stream<Path> files = Files.list(EXAMPLE_PROGRAMS)) {
+            return files.filter(file -> file.toString().endsWith(".stups"))
+                        .sorted()
+                        .map(Programs::read)
+                        .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Erzeugt ein gültiges Programm mit statements Anweisungen auf oberster Ebene.
+     * Jede Anweisung ist eine Zuweisung, eine Ausgabe, ein if/else oder eine Schleife mit einigen Anweisungen darin,
+     * die Programme wachsen also linear mit statements. Für denselben Wert entsteht immer dasselbe Programm.
+     */
+    static String synthetic(int statements) {
+        final Random random = new Random(statements);
+        final StringBuilder program = new StringBuilder();
+
+        program.append("class TestOutput {\n")
+               .append("    public static void main(String[] args) {\n");
+
+        for (int i = 0; i < VARIABLES; i++) {
+            program.append("        int v").append(i).append(" = ").append(i + 1).append(";\n");
+        }
+        program.append("        boolean b = true;\n");
+
+        for (int i = 0; i < statements; i++) {
+            switch (random.nextInt(4)) {
+                case 0 -> program.append("        ").append(assignment(random)).append('\n');
+                case 1 -> program.append("        System.out.println(").append(intExpr(random, 2)).append(");\n");
+                case 2 -> program.append("        if (").append(condition(random)).append(") {\n")
+                                 .append("            ").append(assignment(random)).append('\n')
+                                 .append("            b = !b;\n")
+                                 .append("        } else {\n")
+                                 .append("            ").append(assignment(random)).append('\n')
+                                 .append("        }\n");
+                default -> {
+                    final String counter = variable(random);
+                    program.append("        while (").append(counter).append(" > 0 && b) {\n")
+                           .append("            ").append(assignment(random)).append('\n')
+                           .append("            ").append(counter).append(" = ").append(counter).append(" - 1;\n")
+                           .append("        }\n");
+                }
+            }
+        }
+
+        for (int i = 0; i < VARIABLES; i++) {
+            program.append("        System.out.println(v").append(i).append(");\n");
+        }
+
+        return program.append("    }\n")
+                      .append("}\n")
+                      .toString();
+    }
+
+    private static String assignment(Random random) {
+        return variable(random) + " = " + intExpr(random, 3) + ";";
+    }
+
+    private static String condition(Random random) {
+        final String[] comparisons = {"<", "<=", ">", ">=", "==", "!="};
+
+        return intExpr(random, 1) + " " + comparisons[random.nextInt(comparisons.length)] + " " + intExpr(random, 1)
+               + (random.nextBoolean() ? " || b" : " && !b");
+    }
+
+    private static String intExpr(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return random.nextBoolean() ? variable(random) : String.valueOf(random.nextInt(100));
+        }
+
+        final String[] operators = {"+", "-", "*", "/", "%"};
+        final String expr = intExpr(random, depth - 1) + " " + operators[random.nextInt(operators.length)] + " "
+                            + intExpr(random, depth - 1);
+
+        return random.nextBoolean() ? "(" + expr + ")" : expr;
+    }
+
+    private static String variable(Random random) {
+        return "v" + random.nextInt(VARIABLES);
+    }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import parser.ast.CompactSyntaxTree;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht den Speicherbedarf von {@link SyntaxTree} und {@link CompactSyntaxTree} für dasselbe Programm.
+ * <p>
+ * Der belegte Speicher beider Darstellungen wird nach jedem Fork mit JOL gemessen und ausgegeben,
+ * siehe {@link #footprint()}. Die Benchmarks selbst messen den Aufbau, mit
+ * "./gradlew jmh -Pjmh.include=SyntaxTreeMemoryBenchmark -Pjmh.args='-prof gc'" zeigt gc.alloc.rate.norm
+ * die Allokation pro Aufbau, inklusive temporärer Objekte.
+ * Die Werte der Knoten werden im Setup erzeugt und von beiden Darstellungen nur referenziert, wie beim Parsen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntaxTreeMemoryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int statements;
+
+    private String[] identifiers;
+    private String[] literals;
+
+    private SyntaxTree tree;
+
+    @Setup
+    public void setup() {
+        this.identifiers = new String[10];
+        for (int i = 0; i < this.identifiers.length; i++) {
+            this.identifiers[i] = "i" + i;
+        }
+
+        this.literals = new String[this.statements];
+        for (int line = 0; line < this.statements; line++) {
+            this.literals[line] = String.valueOf(line);
+        }
+
+        this.tree = this.buildProgram();
+    }
+
+    /**
+     * Ein Programm aus Zuweisungen "i = i + k;".
+     */
+    private SyntaxTree buildProgram() {
+        final SyntaxTreeNode root = new SyntaxTreeNode("statementlist", 1);
+
+        for (int line = 0; line < this.statements; line++) {
+            final SyntaxTreeNode assignment = new SyntaxTreeNode("assignment", line);
+            assignment.setValue(this.identifiers[line % this.identifiers.length]);
+
+            final SyntaxTreeNode expr = new SyntaxTreeNode("expr", line);
+            expr.setValue("ADD");
+
+            final SyntaxTreeNode identifier = new SyntaxTreeNode("IDENTIFIER", line);
+            identifier.setValue(this.identifiers[line % this.identifiers.length]);
+
+            final SyntaxTreeNode literal = new SyntaxTreeNode("INTEGER_LIT", line);
+            literal.setValue(this.literals[line]);
+
+            expr.setChildren(identifier, literal);
+            assignment.addChild(expr);
+            root.addChild(assignment);
+        }
+
+        return new SyntaxTree(root);
+    }
+
+    /**
+     * Der erreichbare Speicher beider Darstellungen ohne die geteilten Werte,
+     * anders als die Allokation ohne temporäre Objekte und unabhängig vom Garbage Collector.
+     */
+    @TearDown
+    public void footprint() {
+        final GraphLayout values = GraphLayout.parseInstance(this.identifiers, this.literals);
+        final long nodes = this.tree.size();
+
+        final long treeBytes = GraphLayout.parseInstance(this.tree).subtract(values).totalSize();
+        final long compactBytes = GraphLayout.parseInstance(CompactSyntaxTree.fromSyntaxTree(this.tree)).subtract(values).totalSize();
+
+        System.out.println("\nSyntaxTree:        " + treeBytes / nodes + " Bytes/Knoten (" + treeBytes / 1024 + " KiB)");
+        System.out.println("CompactSyntaxTree: " + compactBytes / nodes + " Bytes/Knoten (" + compactBytes / 1024 + " KiB)");
+    }
+
+    @Benchmark
+    public SyntaxTree syntaxTree() {
+        return this.buildProgram();
+    }
+
+    /**
+     * Enthält die temporären Objekte von {@link CompactSyntaxTree#fromSyntaxTree(SyntaxTree)},
+     * der belegte Speicher ist also höchstens so groß wie die Allokation.
+     */
+    @Benchmark
+    public CompactSyntaxTree compactSyntaxTree() {
+        return CompactSyntaxTree.fromSyntaxTree(this.tree);
+    }
+}
@@ -1,140 +1,564 @@
+import codegen.CodeGenerationException;
 import codegen.analysis.dataflow.DataFlowGraph;
 import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.emit.ClassFile;
+import codegen.emit.ClassFileEmitter;
+import codegen.flowgraph.FlowBasicBlock;
 import codegen.flowgraph.FlowGraph;
 import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.FlowInstruction;
 import lexer.StupsLexer;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import parser.ParsingTable;
+import parser.ParsingTableCache;
 import parser.StupsParser;
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
-import parser.grammar.Grammar;
+import typechecker.Type;
 import typechecker.TypeChecker;
+import util.IdAllocator;
+import util.LogSink;
 import util.Logger;
+import util.PhaseStats;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class StupsCompiler {
 
+    /**
+     * Mit -Dstups.jasmin=true wird zusätzlich der Jasmin-Assembler als .j-Datei neben das Programm geschrieben.
+     */
+    private static final String JASMIN_PROPERTY = "stups.jasmin";
+
+    /**
+     * Logger-Einstellungen, die vor dem Befehl angegeben werden können, z.B. "-log DEBUG -log-sink file:log.txt".
+     * Die Argumente entsprechen den System-Properties des {@link Logger}.
+     */
+    private static final Map<String, String> LOG_OPTIONS = Map.of("-log", "stups.log",
+                                                                  "-log-exceptions", "stups.log.exceptions",
+                                                                  "-log-packages", "stups.log.packages",
+                                                                  "-log-sink", "stups.log.sink",
+                                                                  "-log-async", "stups.log.async");
+
     private StupsCompiler() {}
 
     public static void main(String[] args) {
         System.out.println("StupsCompiler: " + Arrays.toString(args) + "\n");
 
-        if (args.length != 2) {
+        final Map<String, String> logSettings = new HashMap<>();
+        boolean stats = false;
+        int first = 0;
+        while (first < args.length) {
+            if ("-stats".equals(args[first])) {
+                stats = true;
+                first++;
+            } else if (first + 1 < args.length && LOG_OPTIONS.containsKey(args[first])) {
+                logSettings.put(LOG_OPTIONS.get(args[first]), args[first + 1]);
+                first += 2;
+            } else {
+                break;
+            }
+        }
+
+        if (!logSettings.isEmpty()) {
+            try {
+                Logger.configure(logSettings::get);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Falsche Argumente: " + e.getMessage());
+                return;
+            }
+        }
+
+        final String[] command = Arrays.copyOfRange(args, first, args.length);
+
+        if (command.length < 2 || (command.length != 2 && !"-compile-batch".equals(command[0]))) {
             System.out.println("Falsche Argumente.");
             return;
         }
 
-        switch (args[0]) {
-            case "-compile" -> compile(args[1]);
-            case "-liveness" -> liveness(args[1]);
+        switch (command[0]) {
+            case "-compile" -> compile(command[1], stats);
+            case "-compile-batch" -> compileBatch(Arrays.copyOfRange(command, 1, command.length), stats);
+            case "-liveness" -> liveness(command[1], stats);
             default -> System.out.println("Falsche Argumente.");
         }
     }
 
-    private static void compile(String filename) {
+    private static void compile(String filename, boolean stats) {
         System.out.println("Kompiliere " + filename);
-//        final long begin = System.nanoTime();
 
-        final FlowGraphGenerator gen = getFlowGraphGen(filename);
-        final FlowGraph graph = gen.generateGraph();
+        final PhaseStats phaseStats = stats ? PhaseStats.begin() : null;
+        final boolean success;
+        try {
+            final CompiledClass compiled = compileFile(filename, getParser(), System.out);
+            success = compiled != null && writeClassFile(compiled, System.out);
+        } finally {
+            PhaseStats.end();
+        }
 
-        Logger.logDebugSupplier(graph::printToImage, StupsCompiler.class);
+        if (phaseStats != null) {
+            System.out.println(statsToJson(filename, success, phaseStats));
+        }
 
-        // Codegeneration + Output
-        final String fileExtension = filename.substring(filename.lastIndexOf('.') + 1);
-        final String outputName = filename.replaceFirst("\\." + fileExtension, ".j");
-        final String sourceCode = graph.toString();
-        try {
-            final Path outputFile = Paths.get(System.getProperty("user.dir") + "/" + outputName);
-            Files.writeString(outputFile, sourceCode);
-        } catch (IOException e) {
-            System.out.println("Datei konnte nicht geschrieben werden.");
+        if (!success) {
+            System.exit(1);
+        }
+
+        System.out.println("Kompilieren abgeschlossen.");
+    }
+
+    /**
+     * Kompiliert mehrere Dateien in einer JVM, Grammatik und Parser werden nur einmal geladen.
+     * Verzeichnisse werden rekursiv nach .stups-Dateien durchsucht.
+     * Mit "-j N" werden N Dateien parallel übersetzt (Standard: Anzahl der Prozessoren),
+     * die Ausgabe erfolgt trotzdem in der Reihenfolge der Eingabedateien.
+     * Ein Fehler in einer Datei bricht die anderen nicht ab, der Exit-Status ist 1, wenn eine Datei fehlschlägt.
+     * Die Meldungen des {@link Logger} und des Lexers werden ebenfalls pro Datei gesammelt und nach der Ausgabe der Datei
+     * in den eingestellten Log-Sink geschrieben, auch sie erscheinen also in der Reihenfolge der Eingabedateien.
+     * Die Classfiles schreibt nur der Haupt-Thread in der Reihenfolge der Eingabedateien:
+     * Erzeugen mehrere Dateien dieselbe Klasse, gewinnt die erste, die weiteren schlagen fehl.
+     * Mit stats werden die Messwerte am Ende als ein JSON-Objekt ausgegeben,
+     * "setup" enthält das einmalige Laden der Grammatik, "files" die Werte pro Datei.
+     */
+    private static void compileBatch(String[] args, boolean stats) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        String[] inputs = args;
+
+        if (args.length >= 2 && "-j".equals(args[0])) {
+            try {
+                parallelism = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                parallelism = 0;
+            }
+
+            if (parallelism < 1) {
+                System.out.println("Falsche Argumente.");
+                return;
+            }
+
+            inputs = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        final List<String> filenames = collectSourceFiles(inputs);
+        if (filenames.isEmpty()) {
+            System.out.println("Keine Dateien gefunden.");
             return;
         }
 
-        // Calling Jasmin
-        final ProcessBuilder assemble = new ProcessBuilder("java", "-jar", "jasmin.jar", outputName);
+        // Grammar, ParsingTable and StupsParser are immutable and shared by all workers
+        final PhaseStats setupStats = stats ? PhaseStats.begin() : null;
+        final StupsParser parser;
         try {
-            assemble.start();
-        } catch (IOException e) {
-            System.out.println(outputName + " konnte nicht von Jasmin übersetzt werden.");
-            return;
+            parser = getParser();
+        } finally {
+            PhaseStats.end();
         }
 
-        System.out.println("Kompilieren abgeschlossen.");
-//        final long end = System.nanoTime();
-//        System.out.printf("%nCompilation completed in %dms.%n", (end - begin) / 1_000_000);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        final List<Future<BatchResult>> results = new ArrayList<>(filenames.size());
+        for (String filename : filenames) {
+            results.add(pool.submit(() -> compileBatchFile(filename, parser, stats)));
+        }
+
+        int failed = 0;
+        final List<String> fileStats = new ArrayList<>(filenames.size());
+        final Map<String, String> classFiles = new HashMap<>();
+        try {
+            for (int i = 0; i < filenames.size(); i++) {
+                // Waiting in input order keeps the output and the written class files deterministic
+                final String filename = filenames.get(i);
+                final BatchResult result = awaitBatchResult(results.get(i), filename);
+
+                System.out.print(result.output);
+                if (!result.logLines.isEmpty()) {
+                    final LogSink logSink = Logger.getSink();
+                    result.logLines.forEach(logSink::write);
+                    logSink.flush();
+                }
+
+                final boolean success = result.compiled != null && writeBatchClassFile(filename, result, classFiles);
+                System.out.println((success ? "OK     " : "FEHLER ") + filename);
+
+                failed += success ? 0 : 1;
+                if (result.stats != null) {
+                    fileStats.add(statsToJson(filename, success, result.stats));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Kompilieren wurde unterbrochen.");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.println("\n" + (filenames.size() - failed) + " von " + filenames.size()
+                           + " Dateien erfolgreich kompiliert.");
+
+        if (setupStats != null) {
+            System.out.println("{\"setup\": " + setupStats.toJson() + ", \"files\": [" + String.join(", ", fileStats) + "]}");
+        }
+
+        if (failed > 0) {
+            System.exit(1);
+        }
     }
 
-    private static void liveness(String filename) {
-        System.out.println("Liveness-Analyse für " + filename);
+    /**
+     * Ein Fehler, den der Worker nicht selbst abfängt, lässt nur diese Datei fehlschlagen, der Batch läuft weiter.
+     */
+    private static BatchResult awaitBatchResult(Future<BatchResult> future, String filename) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            return new BatchResult(null, "Kompiliere " + filename + "\n" + cause.getClass().getSimpleName() + ": "
+                                         + String.valueOf(cause.getMessage()).trim() + "\n", List.of(), null);
+        }
+    }
+
+    /**
+     * Übersetzt eine Datei im Batch-Modus, die Ausgabe wird gesammelt, damit sich parallele Dateien nicht mischen.
+     * Das Classfile wird noch nicht geschrieben, siehe {@link #writeBatchClassFile(String, BatchResult, Map)}.
+     */
+    private static BatchResult compileBatchFile(String filename, StupsParser parser, boolean stats) {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+
+        out.println("Kompiliere " + filename);
+
+        // Measured on the worker thread, the pool threads are reused for the next files
+        final PhaseStats phaseStats = stats ? PhaseStats.begin() : null;
+        final List<String> logLines = new ArrayList<>();
+        Logger.captureThread(logLines::add);
+        CompiledClass compiled;
+        try {
+            compiled = compileFile(filename, parser, out);
+        } catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+            // A deeply nested or huge program only fails itself, the tree it built is garbage by now
+            out.println(e.getClass().getSimpleName() + ": " + String.valueOf(e.getMessage()).trim());
+            compiled = null;
+        } finally {
+            Logger.releaseThread();
+            PhaseStats.end();
+        }
+
+        return new BatchResult(compiled, buffer.toString(StandardCharsets.UTF_8), logLines, phaseStats);
+    }
+
+    /**
+     * Schreibt das Classfile einer Batch-Datei auf dem Haupt-Thread, die Messung des Workers wird dabei fortgesetzt.
+     *
+     * @param classFiles Die bereits geschriebenen Klassen und die Dateien, aus denen sie stammen.
+     * @return Ob das Classfile geschrieben wurde.
+     */
+    private static boolean writeBatchClassFile(String filename, BatchResult result, Map<String, String> classFiles) {
+        final String className = result.compiled.className;
+        final String previous = classFiles.putIfAbsent(className, filename);
+        if (previous != null) {
+            System.out.println("Die Klasse " + className + " wurde bereits aus " + previous + " erzeugt, "
+                               + className + ".class wird nicht überschrieben.");
+            return false;
+        }
+
+        if (result.stats != null) {
+            PhaseStats.resume(result.stats);
+        }
+        try {
+            return writeClassFile(result.compiled, System.out);
+        } finally {
+            PhaseStats.end();
+        }
+    }
+
+    /**
+     * Ermittelt die Eingabedateien in einer festen Reihenfolge:
+     * Dateien in der angegebenen Reihenfolge, der Inhalt von Verzeichnissen sortiert.
+     */
+    private static List<String> collectSourceFiles(String[] inputs) {
+        final List<String> filenames = new ArrayList<>();
+
+        for (String input : inputs) {
+            final Path path = resolvePath(input);
+
+            if (!Files.isDirectory(path)) {
+                filenames.add(input);
+                continue;
+            }
 
-        final FlowGraphGenerator gen = getFlowGraphGen(filename);
-        final FlowGraph graph = gen.generateGraph();
+            try (Stream<Path> files = Files.walk(path)) {
+                filenames.addAll(files.filter(Files::isRegularFile)
+                                      .filter(file -> file.toString().endsWith(".stups"))
+                                      .map(Path::toString)
+                                      .sorted()
+                                      .collect(Collectors.toList()));
+            } catch (IOException e) {
+                System.out.println("Das Verzeichnis " + input + " konnte nicht gelesen werden.");
+            }
+        }
+
+        return filenames;
+    }
+
+    /**
+     * Führt die Pipeline für eine einzelne Datei aus und schreibt die Meldungen nach out.
+     * Das Classfile wird nur erzeugt, geschrieben wird es mit {@link #writeClassFile(CompiledClass, PrintStream)}.
+     *
+     * @return Die übersetzte Klasse oder null, wenn die Datei nicht übersetzt werden konnte.
+     */
+    private static CompiledClass compileFile(String filename, StupsParser parser, PrintStream out) {
+        final FlowGraph graph = getFlowGraph(filename, parser, out).graph;
 
         Logger.logDebugSupplier(graph::printToImage, StupsCompiler.class);
 
-        final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(graph);
+        // Codegeneration
+        final ClassFile classFile;
+        final byte[] classBytes;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("emit")) {
+            classFile = ClassFileEmitter.fromFlowGraph(graph);
+            classBytes = classFile.toByteArray();
+        } catch (CodeGenerationException e) {
+            out.println("Classfile konnte nicht erzeugt werden: " + e.getMessage().trim());
+            return null;
+        }
+        PhaseStats.count("classFileBytes", classBytes.length);
 
-        Logger.logDebugSupplier(dataFlowGraph::printToImage, StupsCompiler.class);
+        // Jasmin-Assembler beside the program, only for debugging
+        if (Boolean.getBoolean(JASMIN_PROPERTY)) {
+            final Path programPath = resolvePath(filename);
+            final String programName = programPath.getFileName().toString();
+            final int extension = programName.lastIndexOf('.');
+            final Path outputFile = programPath.resolveSibling((extension > 0 ? programName.substring(0, extension) : programName) + ".j");
+            try (Writer writer = Files.newBufferedWriter(outputFile)) {
+                graph.writeTo(writer);
+            } catch (IOException e) {
+                out.println("Datei konnte nicht geschrieben werden.");
+                return null;
+            }
+        }
 
-        final LivenessAnalysis liveness = LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, gen.getVarMap());
-        final int registers = liveness.doLivenessAnalysis();
+        return new CompiledClass(classFile.getClassName(), classBytes);
+    }
 
-        System.out.println("Liveness-Analyse abgeschlossen.");
-        System.out.println("Registers: " + registers);
+    /**
+     * Schreibt die Klasse wie Jasmin ins Arbeitsverzeichnis.
+     * Zuerst in eine temporäre Datei, damit nie ein halb geschriebenes Classfile liegen bleibt.
+     *
+     * @return Ob das Classfile geschrieben wurde.
+     */
+    private static boolean writeClassFile(CompiledClass compiled, PrintStream out) {
+        try (PhaseStats.Phase ignored = PhaseStats.phase("write")) {
+            final Path classFilePath = Paths.get(System.getProperty("user.dir"), compiled.className + ".class");
+            final Path tempFile = Files.createTempFile(classFilePath.getParent(), compiled.className, ".tmp");
+            try {
+                Files.write(tempFile, compiled.bytes);
+                Files.move(tempFile, classFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            out.println("Classfile konnte nicht geschrieben werden.");
+            return false;
+        }
+
+        return true;
     }
 
-    private static FlowGraphGenerator getFlowGraphGen(String filename) {
-        // File opening + Lexing
-        Lexer lexer;
+    private static void liveness(String filename, boolean stats) {
+        System.out.println("Liveness-Analyse für " + filename);
+
+        final PhaseStats phaseStats = stats ? PhaseStats.begin() : null;
+        final int registers;
         try {
-            // Relativer Pfad
+            final GeneratedGraph generated = getFlowGraph(filename, getParser(), System.out);
 
-            final Path programPath = Paths.get(System.getProperty("user.dir") + "/" + filename);
-            lexer = new StupsLexer(CharStreams.fromPath(programPath));
-        } catch (IOException e) {
+            Logger.logDebugSupplier(generated.graph::printToImage, StupsCompiler.class);
 
-            try {
-                // Absoluter Pfad
+            final DataFlowGraph dataFlowGraph;
+            try (PhaseStats.Phase ignored = PhaseStats.phase("dataflow")) {
+                dataFlowGraph = DataFlowGraph.fromFlowGraph(generated.graph);
+            }
+
+            Logger.logDebugSupplier(dataFlowGraph::printToImage, StupsCompiler.class);
 
-                final Path programPath = Paths.get(filename);
-                lexer = new StupsLexer(CharStreams.fromPath(programPath));
-            } catch (IOException ee) {
-                System.out.println("Das Programm konnte nicht gelesen werden.");
-                throw new IllegalStateException("Das Programm konnte nicht gelesen werden.");
+            try (PhaseStats.Phase ignored = PhaseStats.phase("liveness")) {
+                final LivenessAnalysis liveness = LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, generated.varMap);
+                registers = liveness.doLivenessAnalysis();
             }
+            PhaseStats.count("registers", registers);
+        } finally {
+            PhaseStats.end();
         }
 
-        // Grammar parsing from file
-        final Grammar grammar;
-        try {
+        System.out.println("Liveness-Analyse abgeschlossen.");
+        System.out.println("Registers: " + registers);
+
+        if (phaseStats != null) {
+            System.out.println(statsToJson(filename, true, phaseStats));
+        }
+    }
+
+    private static String statsToJson(String filename, boolean success, PhaseStats stats) {
+        return "{\"file\": " + PhaseStats.quote(filename) + ", \"success\": " + success + ", \"stats\": " + stats.toJson() + "}";
+    }
+
+    /**
+     * Relative Pfade werden vom Arbeitsverzeichnis aus aufgelöst, absolute Pfade bleiben unverändert.
+     */
+    private static Path resolvePath(String filename) {
+        return Paths.get(System.getProperty("user.dir")).resolve(filename);
+    }
+
+    private static StupsParser getParser() {
+        // Grammar + ParsingTable from cache, the grammar is only analyzed on a cache miss
+        final ParsingTable table;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("grammar")) {
             final Path grammarFile = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
-            grammar = Grammar.fromFile(grammarFile);
+            table = ParsingTableCache.fromGrammarFile(grammarFile);
         } catch (IOException e) {
             System.out.println("Die Grammatik konnte nicht geöffnet werden.");
             throw new IllegalStateException("Die Grammatik konnte nicht geöffnet werden.");
         }
 
         // Parser from Grammar
-        final StupsParser stupsParser = StupsParser.fromGrammar(grammar);
+        return new StupsParser(table);
+    }
 
-        // Parsing + Typechecking of program
-        final SyntaxTree parseTree = stupsParser.parse(lexer.getAllTokens(), lexer.getVocabulary());
+    private static GeneratedGraph getFlowGraph(String filename, StupsParser stupsParser, PrintStream out) {
+        // Node-IDs start at 0 for every program, the whole compilation runs on this thread
+        IdAllocator.reset();
 
-        Logger.logDebugSupplier(() -> parseTree.printToImage("ParseTree"), StupsCompiler.class);
+        // File opening + Lexing
+        final Lexer lexer;
+        final List<? extends Token> tokens;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("lex")) {
+            lexer = new StupsLexer(CharStreams.fromPath(resolvePath(filename)));
 
-        final SyntaxTree abstractSyntaxTree = SyntaxTree.toAbstractSyntaxTree(parseTree, grammar);
+            // Lexer errors go to out like every other message, not to System.err
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(new BaseErrorListener() {
+                @Override
+                public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                                        String msg, RecognitionException e) {
+                    out.println("line " + line + ":" + charPositionInLine + " " + msg);
+                }
+            });
 
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(abstractSyntaxTree);
+            tokens = lexer.getAllTokens();
+        } catch (IOException e) {
+            out.println("Das Programm konnte nicht gelesen werden.");
+            throw new IllegalStateException("Das Programm konnte nicht gelesen werden.");
+        }
+        PhaseStats.count("tokens", tokens.size());
 
-        return FlowGraphGenerator.fromAST(abstractSyntaxTree, nodeTable, filename);
+        // Parsing + Typechecking of program, the AST is built while parsing
+        final SyntaxTree abstractSyntaxTree = stupsParser.parseAbstractSyntaxTree(tokens, lexer.getVocabulary());
+
+        // The later phases only need the compact layout, the node objects can be collected
+        final CompactSyntaxTree compactSyntaxTree;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("compact")) {
+            compactSyntaxTree = CompactSyntaxTree.fromSyntaxTree(abstractSyntaxTree);
+        }
+        PhaseStats.count("nodes", compactSyntaxTree.size());
+
+        final Type[] nodeTypes;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("typecheck")) {
+            nodeTypes = TypeChecker.validate(compactSyntaxTree);
+        }
+
+        final FlowGraphGenerator gen;
+        final FlowGraph graph;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("flowgraph")) {
+            gen = FlowGraphGenerator.fromAST(compactSyntaxTree, nodeTypes, filename);
+            graph = gen.generateGraph();
+        }
+
+        if (PhaseStats.isRecording()) {
+            PhaseStats.count("variables", gen.getVarMap().size());
+
+            int blocks = 0;
+            int instructions = 0;
+            for (FlowBasicBlock block : graph) {
+                blocks++;
+                for (FlowInstruction ignored : block) {
+                    instructions++;
+                }
+            }
+            PhaseStats.count("blocks", blocks);
+            PhaseStats.count("instructions", instructions);
+        }
+
+        return new GeneratedGraph(graph, gen.getVarMap());
+    }
+
+    private static final class GeneratedGraph {
+
+        private final FlowGraph graph;
+        private final Map<String, Integer> varMap;
+
+        private GeneratedGraph(FlowGraph graph, Map<String, Integer> varMap) {
+            this.graph = graph;
+            this.varMap = varMap;
+        }
+    }
+
+    private static final class CompiledClass {
+
+        private final String className;
+        private final byte[] bytes;
+
+        private CompiledClass(String className, byte[] bytes) {
+            this.className = className;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class BatchResult {
+
+        /**
+         * Null, wenn die Datei nicht übersetzt werden konnte.
+         */
+        private final CompiledClass compiled;
+        private final String output;
+
+        /**
+         * Die Meldungen des {@link Logger} während der Übersetzung, noch nicht geschrieben.
+         */
+        private final List<String> logLines;
+
+        /**
+         * Die Messung des Workers, null ohne -stats.
+         */
+        private final PhaseStats stats;
+
+        private BatchResult(CompiledClass compiled, String output, List<String> logLines, PhaseStats stats) {
+            this.compiled = compiled;
+            this.output = output;
+            this.logLines = logLines;
+            this.stats = stats;
+        }
     }
 }
@@ -1,44 +1,39 @@
 package codegen.analysis;
 
-import parser.ast.SyntaxTreeNode;
 import util.Logger;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-
 /**
  * Simuliert den Laufzeit-Stack während einer Programmausführung.
  */
 public class StackModel {
 
-    private final Deque<SyntaxTreeNode> stack;
+    /**
+     * Für die Stacktiefe ist nur die Anzahl der Werte wichtig, nicht welcher Knoten sie erzeugt hat.
+     */
+    private int size;
 
     /**
      * Speichert die maximale Stacktiefe während der Ausführung.
      */
     private int max;
 
-    public StackModel() {
-        this.stack = new ArrayDeque<>();
-    }
-
-    public void push(SyntaxTreeNode root) {
-        this.stack.push(root);
+    public void push() {
+        this.size++;
         this.updateMax();
     }
 
     public void pop() {
-        if (this.stack.isEmpty()) {
+        if (this.size == 0) {
             throw new IllegalStateException("Can't pop empty stack");
         }
 
-        this.stack.pop();
+        this.size--;
     }
 
     private void updateMax() {
-        if (this.stack.size() > this.max) {
-            this.max = this.stack.size();
-            Logger.logInfo(" :: New maximum: " + this.max, StackModel.class);
+        if (this.size > this.max) {
+            this.max = this.size;
+            Logger.logInfoSupplier(() -> " :: New maximum: " + this.max, StackModel.class);
         }
     }
 
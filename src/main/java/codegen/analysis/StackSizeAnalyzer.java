@@ -1,10 +1,31 @@
 package codegen.analysis;
 
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
 import util.Logger;
-
-import java.util.Set;
+import util.TaskStack;
+
+import static parser.grammar.SymbolTable.ADD;
+import static parser.grammar.SymbolTable.AND;
+import static parser.grammar.SymbolTable.ASSIGNMENT;
+import static parser.grammar.SymbolTable.BOOLEAN_LIT;
+import static parser.grammar.SymbolTable.DIV;
+import static parser.grammar.SymbolTable.EQUAL;
+import static parser.grammar.SymbolTable.EXPR;
+import static parser.grammar.SymbolTable.GREATER;
+import static parser.grammar.SymbolTable.GREATER_EQUAL;
+import static parser.grammar.SymbolTable.IDENTIFIER;
+import static parser.grammar.SymbolTable.INTEGER_LIT;
+import static parser.grammar.SymbolTable.LESS;
+import static parser.grammar.SymbolTable.LESS_EQUAL;
+import static parser.grammar.SymbolTable.MOD;
+import static parser.grammar.SymbolTable.MUL;
+import static parser.grammar.SymbolTable.NOT;
+import static parser.grammar.SymbolTable.NOT_EQUAL;
+import static parser.grammar.SymbolTable.OR;
+import static parser.grammar.SymbolTable.PRINT;
+import static parser.grammar.SymbolTable.STRING_LIT;
+import static parser.grammar.SymbolTable.SUB;
 
 /**
  * Ermittelt die maximal benötigte Stacktiefe für ein Programm.
@@ -12,91 +33,110 @@ import java.util.Set;
  */
 public final class StackSizeAnalyzer {
 
-    private static final Set<String> mod;
-    private static final Set<String> binaryOperators;
-
-    static {
-        mod = Set.of("assignment", "expr", "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER", "print");
-        binaryOperators = Set.of("AND", "OR", "ADD", "SUB", "MUL", "DIV", "MOD", "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL", "EQUAL", "NOT_EQUAL");
-    }
-
     private StackSizeAnalyzer() {}
 
     public static int runStackModel(SyntaxTree tree) {
+        return runStackModel(CompactSyntaxTree.fromSyntaxTree(tree));
+    }
+
+    public static int runStackModel(CompactSyntaxTree tree) {
         Logger.logDebug("Determining minimal stack-depth", StackSizeAnalyzer.class);
 
         final StackModel stack = new StackModel();
 
-        if (tree.getRoot().getChildren().size() > 1) {
+        if (tree.getChildCount(tree.getRoot()) > 1) {
             // Or else main-method would be empty
 
-            runStackModel(tree.getRoot().getChildren().get(1), stack);
+            final TaskStack tasks = new TaskStack();
+            tasks.push(visit(tree, tree.getChild(tree.getRoot(), 1), stack, tasks));
+            tasks.run();
         }
 
         Logger.logDebug("Found required stack-depth", StackSizeAnalyzer.class);
         return stack.getMax();
     }
 
-    private static void runStackModel(SyntaxTreeNode root, StackModel stack) {
-        if (mod.contains(root.getName())) {
-            switch (root.getName()) {
-                case "assignment" -> assignment(root, stack);
-                case "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER" -> literal(root, stack);
-                case "expr" -> expr(root, stack);
-                case "print" -> println(root, stack);
-                default -> throw new IllegalStateException("Unexpected value: " + root.getName());
-            }
-        } else {
-            for (SyntaxTreeNode child : root.getChildren()) {
-                runStackModel(child, stack);
+    /**
+     * Die Teilbäume werden nicht rekursiv besucht, sondern als Schritte auf dem {@link TaskStack} eingeplant.
+     */
+    private static Runnable visit(CompactSyntaxTree tree, int root, StackModel stack, TaskStack tasks) {
+        return () -> runStackModel(tree, root, stack, tasks);
+    }
+
+    private static void runStackModel(CompactSyntaxTree tree, int root, StackModel stack, TaskStack tasks) {
+        switch (tree.getSymbol(root)) {
+            case ASSIGNMENT -> assignment(tree, root, stack, tasks);
+            case INTEGER_LIT, BOOLEAN_LIT, STRING_LIT, IDENTIFIER -> literal(stack);
+            case EXPR -> expr(tree, root, stack, tasks);
+            case PRINT -> println(tree, root, stack, tasks);
+            default -> {
+                final Runnable[] children = new Runnable[tree.getChildCount(root)];
+                int i = 0;
+                for (int child = tree.getFirstChild(root); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
+                    children[i] = visit(tree, child, stack, tasks);
+                    i++;
+                }
+
+                tasks.push(children);
             }
         }
     }
 
-    // Simulate instructions
-
-    private static void literal(SyntaxTreeNode root, StackModel stack) {
-        stack.push(root);
+    private static boolean isBinaryOperator(int op) {
+        return switch (op) {
+            case AND, OR, ADD, SUB, MUL, DIV, MOD, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EQUAL, NOT_EQUAL -> true;
+            default -> false;
+        };
     }
 
-    private static void assignment(SyntaxTreeNode root, StackModel stack) {
-        runStackModel(root.getChildren().get(0), stack);
+    // Simulate instructions
 
-        stack.pop();
+    private static void literal(StackModel stack) {
+        stack.push();
     }
 
-    private static void println(SyntaxTreeNode root, StackModel stack) {
-        stack.push(root); // Getstatic
+    private static void assignment(CompactSyntaxTree tree, int root, StackModel stack, TaskStack tasks) {
+        tasks.push(visit(tree, tree.getFirstChild(root), stack, tasks),
+                   stack::pop);
+    }
 
-        runStackModel(root.getChildren().get(0).getChildren().get(0), stack);
+    private static void println(CompactSyntaxTree tree, int root, StackModel stack, TaskStack tasks) {
+        stack.push(); // Getstatic
 
-        stack.pop(); // Objectref
-        stack.pop(); // Argument
+        tasks.push(visit(tree, tree.getFirstChild(tree.getFirstChild(root)), stack, tasks),
+                   () -> {
+                       stack.pop(); // Objectref
+                       stack.pop(); // Argument
+                   });
     }
 
-    private static void expr(SyntaxTreeNode root, StackModel stack) {
-        if (root.getChildren().size() == 2 && binaryOperators.contains(root.getValue())) {
-            // Expression with binary operator
+    private static void expr(CompactSyntaxTree tree, int root, StackModel stack, TaskStack tasks) {
+        final int childCount = tree.getChildCount(root);
 
-            runStackModel(root.getChildren().get(0), stack);
-            runStackModel(root.getChildren().get(1), stack);
+        if (childCount == 2 && isBinaryOperator(tree.getValueSymbol(root))) {
+            // Expression with binary operator
 
-            stack.pop(); // Argument
-            stack.pop(); // Argument
-            stack.push(root); // Result
-        } else if (root.getChildren().size() == 1 && "NOT".equals(root.getValue())) {
+            tasks.push(visit(tree, tree.getChild(root, 0), stack, tasks),
+                       visit(tree, tree.getChild(root, 1), stack, tasks),
+                       () -> {
+                           stack.pop(); // Argument
+                           stack.pop(); // Argument
+                           stack.push(); // Result
+                       });
+        } else if (childCount == 1 && tree.getValueSymbol(root) == NOT) {
             // Expression with NOT
 
-            runStackModel(root.getChildren().get(0), stack);
-
-            stack.push(new SyntaxTreeNode("1 (XOR)", 0)); // 1 for xor
-            stack.pop(); // xor
-            stack.pop(); // xor
-            stack.push(root); // result
-        } else if (root.getChildren().size() == 1) {
+            tasks.push(visit(tree, tree.getFirstChild(root), stack, tasks),
+                       () -> {
+                           stack.push(); // 1 for xor
+                           stack.pop(); // xor
+                           stack.pop(); // xor
+                           stack.push(); // result
+                       });
+        } else if (childCount == 1) {
             // Expression with other unary operators
 
-            runStackModel(root.getChildren().get(0), stack);
+            tasks.push(visit(tree, tree.getFirstChild(root), stack, tasks));
         }
     }
 }
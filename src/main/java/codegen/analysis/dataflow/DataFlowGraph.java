@@ -7,10 +7,12 @@ import util.GraphvizCaller;
 import util.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -21,8 +23,23 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
     // List for easy indexing
     private final List<DataFlowNode> dataFlowNodes;
 
-    private DataFlowGraph(List<DataFlowNode> dataFlowNodes) {
+    // Position of every node in dataFlowNodes, the analyses index their arrays with it
+    private final Map<DataFlowNode, Integer> positions;
+
+    /**
+     * Die Position des ersten Nodes jedes nicht-leeren {@link FlowBasicBlock}, aufsteigend.
+     * Der letzte Eintrag ist die Anzahl der Nodes, Block b umfasst also die Positionen blockStarts[b] bis blockStarts[b + 1] - 1.
+     */
+    private final int[] blockStarts;
+
+    private DataFlowGraph(List<DataFlowNode> dataFlowNodes, int[] blockStarts) {
         this.dataFlowNodes = Collections.unmodifiableList(dataFlowNodes);
+        this.blockStarts = blockStarts;
+        this.positions = new HashMap<>();
+
+        for (int position = 0; position < dataFlowNodes.size(); position++) {
+            this.positions.putIfAbsent(dataFlowNodes.get(position), position);
+        }
     }
 
     public static DataFlowGraph fromFlowGraph(FlowGraph flowGraph) {
@@ -30,66 +47,131 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
 
         final List<DataFlowNode> dataFlowNodes = new ArrayList<>();
 
+        // Position of the first and last node of every non-empty block in dataFlowNodes
+        final Map<FlowBasicBlock, Integer> firstNodes = new HashMap<>();
+        final Map<FlowBasicBlock, Integer> lastNodes = new HashMap<>();
+
         // Initialize all DataFlowNodes
         for (FlowBasicBlock basicBlock : flowGraph) {
+            final int first = dataFlowNodes.size();
+
             for (FlowInstruction instruction : basicBlock) {
                 dataFlowNodes.add(DataFlowNode.fromFlowNode(instruction));
             }
+
+            if (dataFlowNodes.size() > first) {
+                firstNodes.put(basicBlock, first);
+                lastNodes.put(basicBlock, dataFlowNodes.size() - 1);
+            }
         }
 
-        final DataFlowGraph dataFlowGraph = new DataFlowGraph(dataFlowNodes);
-        initNodePosition(flowGraph, dataFlowGraph);
+        initNodePosition(flowGraph, dataFlowNodes, firstNodes, lastNodes);
+
+        // The blocks were added in order, so their first nodes are ascending
+        final int[] blockStarts = new int[firstNodes.size() + 1];
+        int block = 0;
+        for (FlowBasicBlock basicBlock : flowGraph) {
+            final Integer first = firstNodes.get(basicBlock);
+            if (first != null) {
+                blockStarts[block++] = first;
+            }
+        }
+        blockStarts[block] = dataFlowNodes.size();
 
         Logger.logDebug("Successfully generated data-flow-graph", DataFlowGraph.class);
 
-        return dataFlowGraph;
+        return new DataFlowGraph(dataFlowNodes, blockStarts);
     }
 
     /**
      * Jeder {@link DataFlowNode} im {@link DataFlowGraph} wird anhand des {@link FlowGraph} positioniert.
      * Dabei werden für den Node die Predecessors und Successors gesetzt.
+     * <p>
+     * Die Nodes eines Blocks liegen hintereinander in dataFlowNodes, innerhalb eines Blocks sind Vorgänger und Nachfolger
+     * also die Nachbarn in der Liste. Nur der erste und letzte Node eines Blocks werden mit den Nachbarblöcken verbunden.
      */
-    private static void initNodePosition(FlowGraph flowGraph, DataFlowGraph dataFlowGraph) {
+    private static void initNodePosition(FlowGraph flowGraph, List<DataFlowNode> dataFlowNodes,
+                                         Map<FlowBasicBlock, Integer> firstNodes, Map<FlowBasicBlock, Integer> lastNodes) {
         for (FlowBasicBlock basicBlock : flowGraph) {
-            for (FlowInstruction instruction : basicBlock) {
+            final Integer first = firstNodes.get(basicBlock);
 
-                final Optional<DataFlowNode> currentNode = getNodeByInstructionId(instruction, dataFlowGraph);
+            if (first == null) {
+                // Empty block
 
-                if (currentNode.isEmpty()) {
-                    continue;
-                }
+                continue;
+            }
+
+            final int last = lastNodes.get(basicBlock);
 
-                for (FlowInstruction predecessor : basicBlock.getInstructionPredecessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentPredecessor = getNodeByInstructionId(predecessor, dataFlowGraph);
-                    currentPredecessor.ifPresent(dataFlowNode -> currentNode.get().addPredecessor(dataFlowNode));
+            // Instructions in the middle of the block
+            for (int position = first; position < last; position++) {
+                dataFlowNodes.get(position).addSuccessor(dataFlowNodes.get(position + 1));
+                dataFlowNodes.get(position + 1).addPredecessor(dataFlowNodes.get(position));
+            }
+
+            // The first instruction follows the last instruction of every predecessor block
+            for (FlowBasicBlock predecessor : basicBlock.getBlockPredecessorSet()) {
+                final Integer predecessorLast = lastNodes.get(predecessor);
+                if (predecessorLast != null) {
+                    dataFlowNodes.get(first).addPredecessor(dataFlowNodes.get(predecessorLast));
                 }
+            }
 
-                for (FlowInstruction successor : basicBlock.getInstructionSuccessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentSuccessor = getNodeByInstructionId(successor, dataFlowGraph);
-                    currentSuccessor.ifPresent(dataFlowNode -> currentNode.get().addSuccessor(dataFlowNode));
+            // The last instruction is followed by the first instruction of every successor block
+            for (FlowBasicBlock successor : basicBlock.getBlockSuccessorSet()) {
+                final Integer successorFirst = firstNodes.get(successor);
+                if (successorFirst != null) {
+                    dataFlowNodes.get(last).addSuccessor(dataFlowNodes.get(successorFirst));
                 }
             }
         }
     }
 
-    private static Optional<DataFlowNode> getNodeByInstructionId(FlowInstruction instruction, DataFlowGraph dataFlowGraph) {
-        return dataFlowGraph.stream()
-                            .filter(node -> node.getId().equals(instruction.getId()))
-                            .findFirst();
-    }
-
     public static DataFlowGraph copy(DataFlowGraph dataFlowGraph) {
-        return new DataFlowGraph(new ArrayList<>(dataFlowGraph.dataFlowNodes));
+        return new DataFlowGraph(new ArrayList<>(dataFlowGraph.dataFlowNodes), dataFlowGraph.blockStarts);
     }
 
     public int indexOf(DataFlowNode node) {
-        return this.dataFlowNodes.indexOf(node);
+        return this.positions.getOrDefault(node, -1);
+    }
+
+    public DataFlowNode get(int position) {
+        return this.dataFlowNodes.get(position);
     }
 
     public int size() {
         return this.dataFlowNodes.size();
     }
 
+    // Basic blocks, the nodes of a block are consecutive and only the first and last node connect to other blocks
+
+    public int getBlockCount() {
+        return this.blockStarts.length - 1;
+    }
+
+    /**
+     * @return Die Position des ersten Nodes von Block block.
+     */
+    public int getBlockStart(int block) {
+        return this.blockStarts[block];
+    }
+
+    /**
+     * @return Die Position hinter dem letzten Node von Block block.
+     */
+    public int getBlockEnd(int block) {
+        return this.blockStarts[block + 1];
+    }
+
+    /**
+     * @return Der Block, der den Node an position enthält.
+     */
+    public int getBlockOf(int position) {
+        final int index = Arrays.binarySearch(this.blockStarts, 0, this.getBlockCount(), position);
+
+        return index >= 0 ? index : -index - 2;
+    }
+
     public Stream<DataFlowNode> stream() {
         return this.dataFlowNodes.stream();
     }
@@ -110,7 +192,7 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
             dot.append("\"")
                .append(node.getId())
                .append("\" [label=\"{<f0> ")
-               .append(this.dataFlowNodes.indexOf(node))
+               .append(this.indexOf(node))
                .append("|<f1> ")
                .append(node.getInst())
                .append("}\"];\n");
@@ -2,12 +2,10 @@ package codegen.analysis.dataflow;
 
 import codegen.flowgraph.FlowInstruction;
 
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -15,8 +13,13 @@ import java.util.stream.Collectors;
  */
 public final class DataFlowNode {
 
+    /**
+     * Für use/def, wenn die Instruction keine Variable verwendet oder definiert.
+     */
+    public static final int NO_VARIABLE = -1;
+
     // General graph structure information
-    private final UUID id;
+    private final int id;
     private final Set<DataFlowNode> predecessors;
     private final Set<DataFlowNode> successors;
 
@@ -26,34 +29,34 @@ public final class DataFlowNode {
     private final String inst;
 
     /**
-     * Die Variable, die von diesem Block verwendet wird.
+     * Der Slot der Variable, die von diesem Block verwendet wird, oder {@link #NO_VARIABLE}.
      * Da wir keinen 3-Address-Code, sondern Jasmin-Assembler haben, ist das maximal eine.
      */
-    private final String use;
+    private final int use;
 
     /**
-     * Die Variable, die von diesem Block definiert wird.
+     * Der Slot der Variable, die von diesem Block definiert wird, oder {@link #NO_VARIABLE}.
      * Da wir keinen 3-Address-Code, sondern Jasmin-Assembler haben, ist das maximal eine.
      */
-    private final String def;
+    private final int def;
 
     /**
-     * Alle Variablen, welche live in diesem Node ankommen.
+     * Alle Variablen, welche live in diesem Node ankommen, indiziert über ihren Slot.
      */
-    private final Set<String> in;
+    private final BitSet in;
 
     /**
-     * Alle Variablen , welche diesen Node live verlassen.
+     * Alle Variablen , welche diesen Node live verlassen, indiziert über ihren Slot.
      */
-    private final Set<String> out;
+    private final BitSet out;
 
-    private DataFlowNode(UUID id, String inst, String use, String def) {
+    private DataFlowNode(int id, String inst, int use, int def) {
         this.id = id;
         this.inst = inst;
         this.use = use;
         this.def = def;
-        this.in = new HashSet<>();
-        this.out = new HashSet<>();
+        this.in = new BitSet();
+        this.out = new BitSet();
         this.predecessors = new HashSet<>();
         this.successors = new HashSet<>();
     }
@@ -68,12 +71,13 @@ public final class DataFlowNode {
             default -> "";
         };
 
-        String use = "";
-        String def = "";
+        // The argument of load/store is the slot of the variable
+        int use = NO_VARIABLE;
+        int def = NO_VARIABLE;
         if ("use".equals(instType)) {
-            use = srcInst.getArgs()[0];
+            use = Integer.parseInt(srcInst.getArgs()[0]);
         } else if ("def".equals(instType)) {
-            def = srcInst.getArgs()[0];
+            def = Integer.parseInt(srcInst.getArgs()[0]);
         }
 
         return new DataFlowNode(srcInst.getId(), srcInst.getInstruction(), use, def);
@@ -81,7 +85,7 @@ public final class DataFlowNode {
 
     // Getters, Setters
 
-    public UUID getId() {
+    public int getId() {
         return this.id;
     }
 
@@ -105,55 +109,102 @@ public final class DataFlowNode {
         return this.successors.add(node);
     }
 
-    public Set<String> getUseSet() {
-        return Set.of(this.use);
+    public int getUse() {
+        return this.use;
     }
 
-    public Set<String> getDefSet() {
-        return Set.of(this.def);
+    public int getDef() {
+        return this.def;
     }
 
+    /**
+     * Die Slots der live ankommenden Variablen als Strings, nur für Ausgaben gedacht.
+     */
     public Set<String> getInSet() {
-        return Collections.unmodifiableSet(this.in);
+        return slotNames(this.in);
     }
 
-    public boolean addIn(Collection<String> in) {
-        if (in.isEmpty()) {
-            return false;
-        }
+    /**
+     * Die Slots der live ausgehenden Variablen als Strings, nur für Ausgaben gedacht.
+     */
+    public Set<String> getOutSet() {
+        return slotNames(this.out);
+    }
 
-        if (in.stream().allMatch(String::isBlank)) {
-            return false;
-        }
+    private static Set<String> slotNames(BitSet slots) {
+        return slots.stream()
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.toUnmodifiableSet());
+    }
 
-        return this.in.addAll(in.stream()
-                                .filter(string -> !string.isBlank())
-                                .collect(Collectors.toSet()));
+    public boolean isLiveOut(int slot) {
+        return this.out.get(slot);
     }
 
-    public Set<String> getOutSet() {
-        return Collections.unmodifiableSet(this.out);
+    /**
+     * Zum Iterieren über die live ausgehenden Variablen, wie {@link BitSet#nextSetBit(int)}.
+     *
+     * @return Der nächste Slot ab from, der live ausgeht, oder -1.
+     */
+    public int nextLiveOut(int from) {
+        return this.out.nextSetBit(from);
     }
 
-    public void addOut(Collection<String> out) {
-        if (out.isEmpty()) {
-            return;
+    /**
+     * target = target ∪ out, ohne die interne Menge herauszugeben.
+     */
+    public void addLiveOutTo(BitSet target) {
+        target.or(this.out);
+    }
+
+    // Liveness transfer functions, these don't allocate (apart from growing the bitsets once)
+
+    /**
+     * out = out ∪ in(s) für alle Successors s:
+     * Eine Variable, die live in einen Successor geht, geht auch live aus diesem Node.
+     */
+    public void joinSuccessors() {
+        for (DataFlowNode successor : this.successors) {
+            this.out.or(successor.in);
+        }
+    }
+
+    /**
+     * out = out ∪ live:
+     * Für die Liveness auf Blockebene, dort ist die live ausgehende Menge bereits bekannt.
+     */
+    public void joinOut(BitSet live) {
+        this.out.or(live);
+    }
+
+    /**
+     * in = in ∪ use ∪ (out \ def):
+     * Verwendete Variablen sind live, ebenso live ausgehende Variablen, die hier nicht definiert werden.
+     *
+     * @return Ob sich die in-Menge geändert hat.
+     */
+    public boolean updateIn() {
+        final int before = this.in.cardinality();
+
+        // The sets only grow, so the defined variable may only be removed again if out added it
+        final boolean defLiveIn = this.def != NO_VARIABLE && this.in.get(this.def);
+        this.in.or(this.out);
+        if (this.def != NO_VARIABLE && !defLiveIn) {
+            this.in.clear(this.def);
         }
 
-        if (out.stream().allMatch(String::isBlank)) {
-            return;
+        if (this.use != NO_VARIABLE) {
+            this.in.set(this.use);
         }
 
-        this.out.addAll(out.stream()
-                           .filter(string -> !string.isBlank())
-                           .collect(Collectors.toSet()));
+        return this.in.cardinality() != before;
     }
 
     // Overrides
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.inst);
+        return Integer.hashCode(this.id);
     }
 
     @Override
@@ -165,6 +216,6 @@ public final class DataFlowNode {
             return false;
         }
         final DataFlowNode that = (DataFlowNode) o;
-        return this.id.equals(that.id) && this.inst.equals(that.inst);
+        return this.id == that.id && this.inst.equals(that.inst);
     }
 }
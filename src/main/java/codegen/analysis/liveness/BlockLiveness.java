@@ -0,0 +1,164 @@
+package codegen.analysis.liveness;
+
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.dataflow.DataFlowNode;
+import util.IntStack;
+import util.Logger;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Liveness auf Ebene der Basic Blocks.
+ * <p>
+ * Jeder Block wird zu gen (vor einer Definition verwendete Variablen) und kill (definierte Variablen) zusammengefasst,
+ * damit gilt in(B) = gen(B) ∪ (out(B) \ kill(B)). Der Fixpunkt wird nur über den Blöcken berechnet,
+ * danach erhält jeder {@link DataFlowNode} seine In/Out-Mengen in einem Rückwärtsdurchlauf durch seinen Block.
+ * Die Mengen sind dieselben wie bei der Analyse pro Instruktion, lange Blöcke kosten aber nur noch einen Fixpunkt-Knoten.
+ */
+final class BlockLiveness {
+
+    private BlockLiveness() {}
+
+    static void calculateLivenessInOut(DataFlowGraph dataFlowGraph) {
+        Logger.logDebug("Calculating in/out-sets of basic blocks", BlockLiveness.class);
+
+        final int blocks = dataFlowGraph.getBlockCount();
+
+        // END keeps empty in/out-sets, it is the last node of the last block
+        final int end = dataFlowGraph.size() - 1;
+        final int lastBlock = blocks - 1;
+
+        final BitSet[] gen = new BitSet[blocks];
+        final BitSet[] kill = new BitSet[blocks];
+        final BitSet[] in = new BitSet[blocks];
+        final BitSet[] out = new BitSet[blocks];
+        final int[][] successors = new int[blocks][];
+        final int[][] predecessors = new int[blocks][];
+
+        for (int block = 0; block < blocks; block++) {
+            gen[block] = new BitSet();
+            kill[block] = new BitSet();
+            in[block] = new BitSet();
+            out[block] = new BitSet();
+
+            summarizeBlock(dataFlowGraph, block, lastEvaluated(dataFlowGraph, block, end), gen[block], kill[block]);
+
+            // Nothing goes live out of END, so the last block has no successors to join
+            successors[block] = block == lastBlock
+                                ? new int[0]
+                                : blocksOf(dataFlowGraph, dataFlowGraph.get(dataFlowGraph.getBlockEnd(block) - 1).getSuccessorSet());
+            predecessors[block] = blocksOf(dataFlowGraph, dataFlowGraph.get(dataFlowGraph.getBlockStart(block)).getPredecessorSet());
+        }
+
+        solve(gen, kill, in, out, successors, predecessors);
+
+        Logger.logDebug("Expanding in/out-sets to instructions", BlockLiveness.class);
+
+        for (int block = 0; block < blocks; block++) {
+            expandBlock(dataFlowGraph, block, lastEvaluated(dataFlowGraph, block, end), out[block]);
+        }
+
+        Logger.logDebug("Successfully calculated in/out-sets", BlockLiveness.class);
+    }
+
+    /**
+     * @return Die Position hinter dem letzten Node von block, der berechnet wird, END wird ausgelassen.
+     */
+    private static int lastEvaluated(DataFlowGraph dataFlowGraph, int block, int end) {
+        return Math.min(dataFlowGraph.getBlockEnd(block), end);
+    }
+
+    /**
+     * Fasst die Transferfunktionen der Nodes rückwärts zusammen:
+     * Eine verwendete Variable ist gen, außer sie wird davor im Block definiert.
+     */
+    private static void summarizeBlock(DataFlowGraph dataFlowGraph, int block, int blockEnd, BitSet gen, BitSet kill) {
+        for (int position = blockEnd - 1; position >= dataFlowGraph.getBlockStart(block); position--) {
+            final DataFlowNode node = dataFlowGraph.get(position);
+
+            if (node.getDef() != DataFlowNode.NO_VARIABLE) {
+                kill.set(node.getDef());
+                gen.clear(node.getDef());
+            }
+            if (node.getUse() != DataFlowNode.NO_VARIABLE) {
+                gen.set(node.getUse());
+            }
+        }
+    }
+
+    private static int[] blocksOf(DataFlowGraph dataFlowGraph, Set<DataFlowNode> nodes) {
+        return nodes.stream()
+                    .mapToInt(node -> dataFlowGraph.getBlockOf(dataFlowGraph.indexOf(node)))
+                    .toArray();
+    }
+
+    /**
+     * Die Worklist wie bei der Analyse pro Instruktion, nur über Blöcken:
+     * In Postorder befüllt, ändert sich in(B), kommen nur die Vorgänger von B erneut in die Worklist.
+     */
+    private static void solve(BitSet[] gen, BitSet[] kill, BitSet[] in, BitSet[] out,
+                              int[][] successors, int[][] predecessors) {
+        final int[] postOrder = LivenessAnalysis.postOrder(successors);
+        final boolean[] queued = new boolean[postOrder.length];
+        final IntStack worklist = new IntStack();
+
+        // Pushed in reverse, the first block in postorder is popped first
+        for (int i = postOrder.length - 1; i >= 0; i--) {
+            queued[postOrder[i]] = true;
+            worklist.push(postOrder[i]);
+        }
+
+        BitSet newIn = new BitSet();
+        while (!worklist.isEmpty()) {
+            final int block = worklist.pop();
+            queued[block] = false;
+
+            for (int successor : successors[block]) {
+                out[block].or(in[successor]);
+            }
+
+            // in = gen ∪ (out \ kill), out only grows, so in does too
+            newIn.clear();
+            newIn.or(out[block]);
+            newIn.andNot(kill[block]);
+            newIn.or(gen[block]);
+
+            if (newIn.equals(in[block])) {
+                continue;
+            }
+
+            final BitSet oldIn = in[block];
+            in[block] = newIn;
+            newIn = oldIn;
+
+            for (int predecessor : predecessors[block]) {
+                if (!queued[predecessor]) {
+                    queued[predecessor] = true;
+                    worklist.push(predecessor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Läuft rückwärts durch den Block, live ist dabei jeweils die Menge, die den aktuellen Node live verlässt.
+     */
+    private static void expandBlock(DataFlowGraph dataFlowGraph, int block, int blockEnd, BitSet blockOut) {
+        final BitSet live = (BitSet) blockOut.clone();
+
+        for (int position = blockEnd - 1; position >= dataFlowGraph.getBlockStart(block); position--) {
+            final DataFlowNode node = dataFlowGraph.get(position);
+
+            node.joinOut(live);
+            node.updateIn();
+
+            if (node.getDef() != DataFlowNode.NO_VARIABLE) {
+                live.clear(node.getDef());
+            }
+            if (node.getUse() != DataFlowNode.NO_VARIABLE) {
+                live.set(node.getUse());
+            }
+        }
+    }
+}
@@ -6,10 +6,10 @@ import util.GraphvizCaller;
 import util.Logger;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 public final class InterferenceGraph implements Iterable<InterferenceNode> {
@@ -20,45 +20,58 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
         this.interferenceNodes = interferenceNodes;
     }
 
+    /**
+     * Zwei Variablen interferieren, wenn sie gemeinsam einen Node live verlassen.
+     * Die Nachbarschaft wird zuerst als Bitset pro Slot gesammelt: Für jede live ausgehende Variable
+     * wird die gesamte Out-Menge hinzugefügt, erst danach werden die {@link InterferenceNode}s verbunden.
+     */
     public static InterferenceGraph fromDataFlowGraph(DataFlowGraph dataFlowGraph, Map<String, Integer> varMap) {
         Logger.logDebug("Generating interference-graph", InterferenceGraph.class);
 
         final List<InterferenceNode> interferenceNodes = new ArrayList<>();
 
-        // Init graph
+        // Init graph, the slot of a variable is its index in nodesBySlot
+        final int slots = varMap.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        final InterferenceNode[] nodesBySlot = new InterferenceNode[slots];
         for (int symbol : varMap.values()) {
-            interferenceNodes.add(new InterferenceNode(symbol));
-        }
+            final InterferenceNode node = new InterferenceNode(symbol);
+            interferenceNodes.add(node);
 
-        final InterferenceGraph interferenceGraph = new InterferenceGraph(interferenceNodes);
+            if (nodesBySlot[symbol] == null) {
+                nodesBySlot[symbol] = node;
+            }
+        }
 
         // Determine neighbours
-        for (DataFlowNode node : dataFlowGraph) {
-
-            for (String left : node.getOutSet()) {
-                for (String right : node.getOutSet()) {
+        final BitSet[] interferences = new BitSet[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            interferences[slot] = new BitSet(slots);
+        }
 
-                    final Optional<InterferenceNode> leftNode = getNodeBySymbol(left, interferenceGraph);
-                    final Optional<InterferenceNode> rightNode = getNodeBySymbol(right, interferenceGraph);
+        for (DataFlowNode node : dataFlowGraph) {
+            for (int slot = node.nextLiveOut(0); slot >= 0 && slot < slots; slot = node.nextLiveOut(slot + 1)) {
+                node.addLiveOutTo(interferences[slot]);
+            }
+        }
 
-                    if (leftNode.isPresent() && rightNode.isPresent()) {
-                        final boolean change = leftNode.get().addNeighbour(rightNode.get());
-                        Logger.logInfoIfTrue(change, "Added interference neighbour: " + left + " -> " + right, InterferenceGraph.class);
-                    }
+        for (int left = 0; left < slots; left++) {
+            if (nodesBySlot[left] == null) {
+                continue;
+            }
 
+            final BitSet neighbours = interferences[left];
+            for (int right = neighbours.nextSetBit(0); right >= 0 && right < slots; right = neighbours.nextSetBit(right + 1)) {
+                if (nodesBySlot[right] != null && nodesBySlot[left].addNeighbour(nodesBySlot[right])) {
+                    final int leftSlot = left;
+                    final int rightSlot = right;
+                    Logger.logInfoSupplier(() -> "Added interference neighbour: " + leftSlot + " -> " + rightSlot, InterferenceGraph.class);
                 }
             }
         }
 
         Logger.logDebug("Successfully generated interference-graph", InterferenceGraph.class);
 
-        return interferenceGraph;
-    }
-
-    private static Optional<InterferenceNode> getNodeBySymbol(String symbol, InterferenceGraph interferenceGraph) {
-        return interferenceGraph.stream()
-                                .filter(node -> node.getSymbol().equals(symbol))
-                                .findFirst();
+        return new InterferenceGraph(interferenceNodes);
     }
 
     public Stream<InterferenceNode> stream() {
@@ -89,8 +102,8 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
 
         for (InterferenceNode node : this.interferenceNodes) {
             for (InterferenceNode neigh : node.getNeighbourSet()) {
-                if (!dot.toString().contains(neigh.getId() + "\" -> \"" + node.getId())) {
-                    // No double lines
+                if (node.getId() < neigh.getId()) {
+                    // No double lines, the nodes were created in list order
 
                     dot.append("\"").append(node.getId()).append("\" -> \"").append(neigh.getId()).append("\" [arrowhead=\"none\"];\n");
                 }
@@ -1,17 +1,18 @@
 package codegen.analysis.liveness;
 
+import util.IdAllocator;
+
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * Repräsentiert eine Variable und ihre Farbe im Interferenzgraph.
  */
 public class InterferenceNode {
 
-    private final UUID id;
+    private final int id;
 
     /**
      * Der Name der Variable.
@@ -29,7 +30,7 @@ public class InterferenceNode {
     private int color;
 
     public InterferenceNode(String symbol) {
-        this.id = UUID.randomUUID();
+        this.id = IdAllocator.nextId();
         this.symbol = symbol;
         this.color = 0;
         this.neighbours = new HashSet<>();
@@ -41,7 +42,7 @@ public class InterferenceNode {
 
     // Getters, Setters
 
-    public UUID getId() {
+    public int getId() {
         return this.id;
     }
 
@@ -2,6 +2,7 @@ package codegen.analysis.liveness;
 
 import codegen.analysis.dataflow.DataFlowGraph;
 import codegen.analysis.dataflow.DataFlowNode;
+import util.IntStack;
 import util.Logger;
 
 import java.util.Collection;
@@ -15,6 +16,21 @@ import java.util.Map;
  */
 public final class LivenessAnalysis {
 
+    /**
+     * Worüber der Fixpunkt der In/Out-Mengen berechnet wird, das Ergebnis ist in beiden Fällen gleich.
+     */
+    public enum Granularity {
+        /**
+         * Jeder {@link DataFlowNode} einzeln.
+         */
+        INSTRUCTION,
+        /**
+         * Zuerst die Basic Blocks mit ihren gen/kill-Mengen, danach die Nodes jedes Blocks in einem Durchlauf,
+         * siehe {@link BlockLiveness}.
+         */
+        BLOCK
+    }
+
     private final InterferenceGraph interferenceGraph;
 
     private LivenessAnalysis(InterferenceGraph interferenceGraph) {
@@ -22,51 +38,128 @@ public final class LivenessAnalysis {
     }
 
     public static LivenessAnalysis fromDataFlowGraph(DataFlowGraph dataFlowGraph, Map<String, Integer> varMap) {
+        return fromDataFlowGraph(dataFlowGraph, varMap, Granularity.BLOCK);
+    }
+
+    public static LivenessAnalysis fromDataFlowGraph(DataFlowGraph dataFlowGraph, Map<String, Integer> varMap,
+                                                     Granularity granularity) {
         final DataFlowGraph livenessDataFlowGraph = DataFlowGraph.copy(dataFlowGraph);
 
-        calculateLivenessInOut(livenessDataFlowGraph);
+        if (granularity == Granularity.BLOCK) {
+            BlockLiveness.calculateLivenessInOut(livenessDataFlowGraph);
+        } else {
+            calculateLivenessInOut(livenessDataFlowGraph);
+        }
 
         return new LivenessAnalysis(InterferenceGraph.fromDataFlowGraph(livenessDataFlowGraph, varMap));
     }
 
+    /**
+     * Bestimmt die In/Out-Mengen mit einer Worklist.
+     * Liveness ist eine Rückwärtsanalyse, die Worklist wird deshalb in Postorder des Kontrollflusses befüllt
+     * (Reverse-Postorder des umgekehrten Graphen), ein Knoten wird also meist erst nach seinen Nachfolgern berechnet.
+     * Ändert sich die In-Menge eines Knotens, kommen nur seine Vorgänger erneut in die Worklist.
+     */
     private static void calculateLivenessInOut(DataFlowGraph dataFlowGraph) {
         Logger.logDebug("Calculating in/out-sets", LivenessAnalysis.class);
 
-        boolean change;
+        // END keeps empty in/out-sets
+        final int end = dataFlowGraph.size() - 1;
 
-        do {
-            change = false;
+        final int[][] successors = new int[dataFlowGraph.size()][];
+        for (int position = 0; position < dataFlowGraph.size(); position++) {
+            successors[position] = dataFlowGraph.get(position).getSuccessorSet().stream()
+                                                .mapToInt(dataFlowGraph::indexOf)
+                                                .toArray();
+        }
 
-            for (DataFlowNode node : dataFlowGraph) {
-                if (dataFlowGraph.indexOf(node) == dataFlowGraph.size() - 1) {
-                    // Skip END
+        final int[] postOrder = postOrder(successors);
+        final boolean[] queued = new boolean[dataFlowGraph.size()];
+        final IntStack worklist = new IntStack();
 
-                    continue;
-                }
+        // Pushed in reverse, the first node in postorder is popped first
+        for (int i = postOrder.length - 1; i >= 0; i--) {
+            if (postOrder[i] != end) {
+                queued[postOrder[i]] = true;
+                worklist.push(postOrder[i]);
+            }
+        }
+
+        while (!worklist.isEmpty()) {
+            final int position = worklist.pop();
+            queued[position] = false;
 
-                change = change || calculateLivenessInOutNode(node);
+            final DataFlowNode node = dataFlowGraph.get(position);
+            if (!calculateLivenessInOutNode(node)) {
+                continue;
             }
-        } while (change);
+
+            // Only the out-sets of the predecessors depend on the changed in-set
+            for (DataFlowNode predecessor : node.getPredecessorSet()) {
+                final int predecessorPosition = dataFlowGraph.indexOf(predecessor);
+
+                if (predecessorPosition != end && !queued[predecessorPosition]) {
+                    queued[predecessorPosition] = true;
+                    worklist.push(predecessorPosition);
+                }
+            }
+        }
 
         Logger.logDebug("Successfully calculated in/out-sets", LivenessAnalysis.class);
     }
 
-    private static boolean calculateLivenessInOutNode(DataFlowNode dataFlowNode) {
-        boolean change;
+    /**
+     * Alle Knoten in Postorder einer Tiefensuche über die Nachfolger, beginnend beim ersten Knoten.
+     * Vom ersten Knoten aus unerreichbare Knoten folgen danach, jeweils mit eigener Tiefensuche.
+     * Die Tiefensuche ist iterativ, große Programme würden sonst den Stack sprengen.
+     *
+     * @param successors Die Nachfolger jedes Knotens, Knoten sind über ihren Index bezeichnet.
+     */
+    static int[] postOrder(int[][] successors) {
+        final int size = successors.length;
+        final int[] order = new int[size];
+        final boolean[] visited = new boolean[size];
+
+        // The current path and the index of the next successor to visit for every node on it
+        final IntStack path = new IntStack();
+        final int[] nextSuccessor = new int[size];
+
+        int count = 0;
+        for (int root = 0; root < size; root++) {
+            if (visited[root]) {
+                continue;
+            }
+
+            visited[root] = true;
+            path.push(root);
 
-        for (DataFlowNode succ : dataFlowNode.getSuccessorSet()) {
-            // A variable going live into the successor implies it going live out of the predecessor
+            while (!path.isEmpty()) {
+                final int current = path.peek();
 
-            dataFlowNode.addOut(succ.getInSet());
+                if (nextSuccessor[current] < successors[current].length) {
+                    final int successor = successors[current][nextSuccessor[current]++];
+
+                    if (!visited[successor]) {
+                        visited[successor] = true;
+                        path.push(successor);
+                    }
+                } else {
+                    // All successors finished
+                    order[count++] = path.pop();
+                }
+            }
         }
 
-        final Collection<String> addIN = new HashSet<>(dataFlowNode.getOutSet());
-        addIN.removeAll(dataFlowNode.getDefSet()); // If a variable that is live-out is defined in the node, it doesn't have to be live-in
+        return order;
+    }
 
-        change = dataFlowNode.addIn(dataFlowNode.getUseSet()); // A variable being used implies it going in live
-        change = change || dataFlowNode.addIn(addIN); // A variable that is live-out and isn't defined in the node must be live-in
+    private static boolean calculateLivenessInOutNode(DataFlowNode dataFlowNode) {
+        // A variable going live into the successor implies it going live out of the predecessor
+        dataFlowNode.joinSuccessors();
 
-        return change;
+        // A variable being used implies it going in live,
+        // a variable that is live-out and isn't defined in the node must be live-in
+        return dataFlowNode.updateIn();
     }
 
     /**
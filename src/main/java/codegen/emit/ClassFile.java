@@ -0,0 +1,170 @@
+package codegen.emit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eine Java-Classfile mit Methoden, aber ohne Felder und Interfaces.
+ * Der Bytecode wird über {@link MethodCode} aufgebaut und mit {@link #writeTo(ByteBuffer)} serialisiert.
+ * <p>
+ * Für Version 49 und älter wird keine StackMapTable benötigt, der Verifier der JVM leitet die Typen selbst her.
+ */
+public final class ClassFile {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_PROTECTED = 0x0004;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+    public static final int ACC_ABSTRACT = 0x0400;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final ConstantPool pool;
+    private final String className;
+    private final List<Method> methods;
+
+    private int majorVersion = 49;
+    private int minorVersion;
+    private int access = ACC_PUBLIC | ACC_SUPER;
+    private String superName = "java/lang/Object";
+    private String source;
+
+    public ClassFile(String className) {
+        this.pool = new ConstantPool();
+        this.className = className;
+        this.methods = new ArrayList<>();
+    }
+
+    public String getClassName() {
+        return this.className;
+    }
+
+    public void setVersion(int majorVersion, int minorVersion) {
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
+    }
+
+    public void setAccess(int access) {
+        this.access = access;
+    }
+
+    public void setSuperName(String superName) {
+        this.superName = superName;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Fügt eine Methode hinzu, deren Bytecode über den zurückgegebenen {@link MethodCode} aufgebaut wird.
+     */
+    public MethodCode addMethod(int access, String name, String descriptor) {
+        final MethodCode code = new MethodCode(this.pool);
+        this.methods.add(new Method(access, this.pool.utf8(name), this.pool.utf8(descriptor), code));
+
+        return code;
+    }
+
+    /**
+     * Legt alle Konstanten an, welche erst beim Schreiben benötigt werden.
+     */
+    private void initConstants() {
+        this.pool.classRef(this.className);
+        this.pool.classRef(this.superName);
+        this.pool.utf8("Code");
+
+        if (this.source != null) {
+            this.pool.utf8("SourceFile");
+            this.pool.utf8(this.source);
+        }
+    }
+
+    /**
+     * Die Größe der Classfile in Bytes.
+     */
+    public int size() {
+        this.initConstants();
+
+        // magic, minor, major, constant_pool_count
+        int size = 4 + 2 + 2 + 2 + this.pool.size();
+
+        // access_flags, this_class, super_class, interfaces_count, fields_count, methods_count
+        size += 2 + 2 + 2 + 2 + 2 + 2;
+
+        for (Method method : this.methods) {
+            // access_flags, name_index, descriptor_index, attributes_count, Code attribute header
+            size += 2 + 2 + 2 + 2 + 6 + method.code.attributeLength();
+        }
+
+        // attributes_count, SourceFile attribute
+        size += 2 + (this.source != null ? 8 : 0);
+
+        return size;
+    }
+
+    /**
+     * Schreibt die Classfile ab der aktuellen Position in den Buffer.
+     *
+     * @throws java.nio.BufferOverflowException Wenn weniger als {@link #size()} Bytes frei sind.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        this.initConstants();
+
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) this.minorVersion);
+        buffer.putShort((short) this.majorVersion);
+
+        buffer.putShort((short) this.pool.count());
+        this.pool.writeTo(buffer);
+
+        buffer.putShort((short) this.access);
+        buffer.putShort((short) this.pool.classRef(this.className));
+        buffer.putShort((short) this.pool.classRef(this.superName));
+        buffer.putShort((short) 0); // No interfaces
+        buffer.putShort((short) 0); // No fields
+
+        buffer.putShort((short) this.methods.size());
+        for (Method method : this.methods) {
+            buffer.putShort((short) method.access);
+            buffer.putShort((short) method.name);
+            buffer.putShort((short) method.descriptor);
+            buffer.putShort((short) 1); // Code
+            method.code.writeTo(buffer, this.pool.utf8("Code"));
+        }
+
+        if (this.source != null) {
+            buffer.putShort((short) 1);
+            buffer.putShort((short) this.pool.utf8("SourceFile"));
+            buffer.putInt(2);
+            buffer.putShort((short) this.pool.utf8(this.source));
+        } else {
+            buffer.putShort((short) 0);
+        }
+    }
+
+    public byte[] toByteArray() {
+        final ByteBuffer buffer = ByteBuffer.allocate(this.size());
+        this.writeTo(buffer);
+
+        return buffer.array();
+    }
+
+    private static final class Method {
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final MethodCode code;
+
+        private Method(int access, int name, int descriptor, MethodCode code) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+        }
+    }
+}
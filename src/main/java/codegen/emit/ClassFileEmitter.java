@@ -0,0 +1,71 @@
+package codegen.emit;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import codegen.flowgraph.FlowInstruction;
+import util.Logger;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Erzeugt die Classfile direkt aus einem {@link FlowGraph}, ohne den Umweg über Jasmin-Text.
+ * Die Klasse entspricht dabei genau der, die Jasmin aus {@link FlowGraph#toString()} erzeugen würde.
+ */
+public final class ClassFileEmitter {
+
+    private ClassFileEmitter() {}
+
+    public static ClassFile fromFlowGraph(FlowGraph graph) {
+        Logger.logDebug("Emitting classfile from FlowGraph", ClassFileEmitter.class);
+
+        final FlowGraphHead head = graph.getHead();
+        final ClassFile classFile = new ClassFile(head.getClazz());
+
+        final String[] version = head.getBytecodeVersion().split("\\.");
+        try {
+            classFile.setVersion(Integer.parseInt(version[0]), version.length > 1 ? Integer.parseInt(version[1]) : 0);
+        } catch (NumberFormatException e) {
+            throw new CodeGenerationException("Invalid bytecode version: " + head.getBytecodeVersion());
+        }
+        classFile.setSource(head.getSource());
+
+        // Default constructor
+        final MethodCode init = classFile.addMethod(ClassFile.ACC_PUBLIC, "<init>", "()V");
+        init.setMaxStack(1);
+        init.setMaxLocals(1);
+        init.instruction("aload_0");
+        init.instruction("invokespecial", "java/lang/Object/<init>()V");
+        init.instruction("return");
+
+        // Main-method from the basic blocks
+        final MethodCode main = classFile.addMethod(ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC,
+                                                    "main", "([Ljava/lang/String;)V");
+        main.setMaxStack(head.getStackSize());
+        main.setMaxLocals(head.getLocalCount());
+
+        for (FlowBasicBlock block : graph) {
+            if (!block.getLabel().isBlank()) {
+                main.label(block.getLabel());
+            }
+
+            for (FlowInstruction instruction : block) {
+                main.instruction(instruction.getInstruction(), instruction.getArgs());
+            }
+        }
+
+        main.instruction("return");
+
+        Logger.logDebug("Successfully emitted classfile", ClassFileEmitter.class);
+
+        return classFile;
+    }
+
+    /**
+     * Schreibt die Classfile zum {@link FlowGraph} ab der aktuellen Position in den Buffer.
+     */
+    public static void emit(FlowGraph graph, ByteBuffer buffer) {
+        fromFlowGraph(graph).writeTo(buffer);
+    }
+}
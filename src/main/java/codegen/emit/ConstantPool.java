@@ -0,0 +1,169 @@
+package codegen.emit;
+
+import codegen.CodeGenerationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Der Konstantenpool einer {@link ClassFile}.
+ * Gleiche Konstanten werden nur einmal angelegt, die Einträge werden bereits serialisiert gespeichert.
+ */
+final class ConstantPool {
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final List<byte[]> entries;
+
+    /**
+     * Jedem Eintrag wird über einen Schlüssel der Form "tag:inhalt" sein Index zugewiesen.
+     */
+    private final Map<String, Integer> indices;
+
+    private int size;
+
+    ConstantPool() {
+        this.entries = new ArrayList<>();
+        this.indices = new HashMap<>();
+    }
+
+    int utf8(String value) {
+        return this.entry(CONSTANT_UTF8 + ":" + value, () -> {
+            final byte[] bytes = encodeModifiedUtf8(value);
+            if (bytes.length > 0xFFFF) {
+                throw new CodeGenerationException("Constant is too long: " + value.substring(0, 32) + "...");
+            }
+
+            return concat(new byte[]{CONSTANT_UTF8, (byte) (bytes.length >> 8), (byte) bytes.length}, bytes);
+        });
+    }
+
+    int integer(int value) {
+        return this.entry(CONSTANT_INTEGER + ":" + value, () -> new byte[]{CONSTANT_INTEGER,
+                                                                           (byte) (value >> 24), (byte) (value >> 16),
+                                                                           (byte) (value >> 8), (byte) value});
+    }
+
+    int string(String value) {
+        final int utf8 = this.utf8(value);
+        return this.entry(CONSTANT_STRING + ":" + value, () -> u2Entry(CONSTANT_STRING, utf8));
+    }
+
+    int classRef(String internalName) {
+        final int utf8 = this.utf8(internalName);
+        return this.entry(CONSTANT_CLASS + ":" + internalName, () -> u2Entry(CONSTANT_CLASS, utf8));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return this.memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return this.memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        final int clazz = this.classRef(owner);
+        final int nameUtf8 = this.utf8(name);
+        final int descriptorUtf8 = this.utf8(descriptor);
+        final int nameAndType = this.entry(CONSTANT_NAME_AND_TYPE + ":" + name + ":" + descriptor,
+                                           () -> u2u2Entry(CONSTANT_NAME_AND_TYPE, nameUtf8, descriptorUtf8));
+
+        return this.entry(tag + ":" + owner + "." + name + ":" + descriptor,
+                          () -> u2u2Entry(tag, clazz, nameAndType));
+    }
+
+    private int entry(String key, Supplier<byte[]> supplier) {
+        final Integer existing = this.indices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (this.entries.size() + 1 >= MAX_ENTRIES) {
+            throw new CodeGenerationException("Too many constants, the constant pool is full.");
+        }
+
+        final byte[] entry = supplier.get();
+        this.entries.add(entry);
+        this.size += entry.length;
+
+        // Index 0 is reserved
+        final int index = this.entries.size();
+        this.indices.put(key, index);
+
+        return index;
+    }
+
+    /**
+     * Der Wert von constant_pool_count, also die Anzahl der Einträge + 1.
+     */
+    int count() {
+        return this.entries.size() + 1;
+    }
+
+    /**
+     * Die Größe aller Einträge in Bytes.
+     */
+    int size() {
+        return this.size;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        for (byte[] entry : this.entries) {
+            buffer.put(entry);
+        }
+    }
+
+    private static byte[] u2Entry(int tag, int u2) {
+        return new byte[]{(byte) tag, (byte) (u2 >> 8), (byte) u2};
+    }
+
+    private static byte[] u2u2Entry(int tag, int first, int second) {
+        return new byte[]{(byte) tag, (byte) (first >> 8), (byte) first, (byte) (second >> 8), (byte) second};
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        final byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+
+        return result;
+    }
+
+    /**
+     * Die JVM speichert Strings als "modified UTF-8": U+0000 hat 2 Bytes, Surrogates werden einzeln kodiert.
+     */
+    private static byte[] encodeModifiedUtf8(String value) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c >= 0x0001 && c <= 0x007F) {
+                out.write(c);
+            } else if (c <= 0x07FF) {
+                out.write(0xC0 | (c >> 6));
+                out.write(0x80 | (c & 0x3F));
+            } else {
+                out.write(0xE0 | (c >> 12));
+                out.write(0x80 | ((c >> 6) & 0x3F));
+                out.write(0x80 | (c & 0x3F));
+            }
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,308 @@
+package codegen.emit;
+
+import codegen.CodeGenerationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der Bytecode einer Methode, wird Instruktion für Instruktion mit Jasmin-Mnemonics aufgebaut.
+ * Es wird nur die Teilmenge an Instruktionen unterstützt, welche der Compiler erzeugt.
+ * <p>
+ * Sprünge zu Labels werden erst beim Schreiben aufgelöst, dadurch sind auch Sprünge nach vorne möglich.
+ */
+public final class MethodCode {
+
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    private static final int OP_LDC = 0x12;
+    private static final int OP_LDC_W = 0x13;
+    private static final int OP_WIDE = 0xC4;
+
+    // Instruktionen ohne Argumente
+    private static final Map<String, Integer> SIMPLE = Map.ofEntries(Map.entry("nop", 0x00),
+                                                                     Map.entry("aload_0", 0x2A),
+                                                                     Map.entry("pop", 0x57),
+                                                                     Map.entry("dup", 0x59),
+                                                                     Map.entry("iadd", 0x60),
+                                                                     Map.entry("isub", 0x64),
+                                                                     Map.entry("imul", 0x68),
+                                                                     Map.entry("idiv", 0x6C),
+                                                                     Map.entry("irem", 0x70),
+                                                                     Map.entry("ineg", 0x74),
+                                                                     Map.entry("iand", 0x7E),
+                                                                     Map.entry("ior", 0x80),
+                                                                     Map.entry("ixor", 0x82),
+                                                                     Map.entry("return", 0xB1));
+
+    // Instruktionen mit Index in die Locals-Tabelle
+    private static final Map<String, Integer> LOCAL = Map.of("iload", 0x15,
+                                                             "aload", 0x19,
+                                                             "istore", 0x36,
+                                                             "astore", 0x3A);
+
+    // Instruktionen mit Sprungziel
+    private static final Map<String, Integer> JUMP = Map.ofEntries(Map.entry("ifeq", 0x99),
+                                                                   Map.entry("ifne", 0x9A),
+                                                                   Map.entry("iflt", 0x9B),
+                                                                   Map.entry("ifge", 0x9C),
+                                                                   Map.entry("ifgt", 0x9D),
+                                                                   Map.entry("ifle", 0x9E),
+                                                                   Map.entry("if_icmpeq", 0x9F),
+                                                                   Map.entry("if_icmpne", 0xA0),
+                                                                   Map.entry("if_icmplt", 0xA1),
+                                                                   Map.entry("if_icmpge", 0xA2),
+                                                                   Map.entry("if_icmpgt", 0xA3),
+                                                                   Map.entry("if_icmple", 0xA4),
+                                                                   Map.entry("if_acmpeq", 0xA5),
+                                                                   Map.entry("if_acmpne", 0xA6),
+                                                                   Map.entry("goto", 0xA7));
+
+    // Instruktionen mit Feld- oder Methodenreferenz
+    private static final Map<String, Integer> FIELD = Map.of("getstatic", 0xB2);
+    private static final Map<String, Integer> METHOD = Map.of("invokevirtual", 0xB6,
+                                                              "invokespecial", 0xB7,
+                                                              "invokestatic", 0xB8);
+
+    private final ConstantPool pool;
+
+    private byte[] code;
+    private int length;
+
+    private int maxStack;
+    private int maxLocals;
+
+    private final Map<String, Integer> labels;
+
+    /**
+     * Offene Sprünge: Position des Opcodes und Ziel-Label.
+     */
+    private final List<Integer> jumpPositions;
+    private final List<String> jumpLabels;
+
+    MethodCode(ConstantPool pool) {
+        this.pool = pool;
+        this.code = new byte[64];
+        this.labels = new HashMap<>();
+        this.jumpPositions = new ArrayList<>();
+        this.jumpLabels = new ArrayList<>();
+    }
+
+    public void setMaxStack(int maxStack) {
+        this.maxStack = maxStack;
+    }
+
+    public void setMaxLocals(int maxLocals) {
+        this.maxLocals = maxLocals;
+    }
+
+    /**
+     * Markiert die aktuelle Position als Sprungziel.
+     */
+    public void label(String label) {
+        if (this.labels.putIfAbsent(label, this.length) != null) {
+            throw new CodeGenerationException("Duplicate label: " + label);
+        }
+    }
+
+    /**
+     * Fügt eine Instruktion in Jasmin-Schreibweise hinzu, z.B. ("iload", "1") oder ("goto", "LOOPstart1").
+     * Eine leere Instruktion wird ignoriert.
+     */
+    public void instruction(String mnemonic, String... args) {
+        if (mnemonic.isBlank()) {
+            return;
+        }
+
+        if (SIMPLE.containsKey(mnemonic)) {
+            expectArgs(mnemonic, args, 0);
+            this.u1(SIMPLE.get(mnemonic));
+        } else if (LOCAL.containsKey(mnemonic)) {
+            expectArgs(mnemonic, args, 1);
+            this.local(LOCAL.get(mnemonic), parseInt(mnemonic, args[0]));
+        } else if (JUMP.containsKey(mnemonic)) {
+            expectArgs(mnemonic, args, 1);
+            this.jumpPositions.add(this.length);
+            this.jumpLabels.add(args[0]);
+            this.u1(JUMP.get(mnemonic));
+            this.u2(0); // Resolved when writing
+        } else if ("ldc".equals(mnemonic)) {
+            this.ldc(String.join(" ", args));
+        } else if (FIELD.containsKey(mnemonic)) {
+            // getstatic java/lang/System/out Ljava/io/PrintStream;
+            expectArgs(mnemonic, args, 2);
+            final int split = args[0].lastIndexOf('/');
+            if (split <= 0) {
+                throw new CodeGenerationException("Invalid field reference: " + args[0]);
+            }
+            this.u1(FIELD.get(mnemonic));
+            this.u2(this.pool.fieldRef(args[0].substring(0, split), args[0].substring(split + 1), args[1]));
+        } else if (METHOD.containsKey(mnemonic)) {
+            // invokevirtual java/io/PrintStream/println(I)V
+            expectArgs(mnemonic, args, 1);
+            final int descriptor = args[0].indexOf('(');
+            final int split = descriptor > 0 ? args[0].lastIndexOf('/', descriptor) : -1;
+            if (split <= 0) {
+                throw new CodeGenerationException("Invalid method reference: " + args[0]);
+            }
+            this.u1(METHOD.get(mnemonic));
+            this.u2(this.pool.methodRef(args[0].substring(0, split),
+                                        args[0].substring(split + 1, descriptor),
+                                        args[0].substring(descriptor)));
+        } else {
+            throw new CodeGenerationException("Unsupported instruction: " + mnemonic);
+        }
+    }
+
+    private static void expectArgs(String mnemonic, String[] args, int count) {
+        if (args.length != count) {
+            throw new CodeGenerationException("Instruction " + mnemonic + " expects " + count + " arguments: " + Arrays.toString(args));
+        }
+    }
+
+    private static int parseInt(String mnemonic, String arg) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException e) {
+            throw new CodeGenerationException("Invalid argument for " + mnemonic + ": " + arg);
+        }
+    }
+
+    private void local(int opcode, int index) {
+        if (index < 0 || index > 0xFFFF) {
+            throw new CodeGenerationException("Invalid local variable index: " + index);
+        }
+
+        if (index <= 0xFF) {
+            this.u1(opcode);
+            this.u1(index);
+        } else {
+            this.u1(OP_WIDE);
+            this.u1(opcode);
+            this.u2(index);
+        }
+    }
+
+    /**
+     * Lädt eine Integer- oder String-Konstante, Strings sind in Anführungszeichen mit Java-Escapes.
+     */
+    private void ldc(String arg) {
+        final int index = arg.startsWith("\"")
+                          ? this.pool.string(unquote(arg))
+                          : this.pool.integer(parseInt("ldc", arg));
+
+        if (index <= 0xFF) {
+            this.u1(OP_LDC);
+            this.u1(index);
+        } else {
+            this.u1(OP_LDC_W);
+            this.u2(index);
+        }
+    }
+
+    private static String unquote(String literal) {
+        if (literal.length() < 2 || !literal.endsWith("\"")) {
+            throw new CodeGenerationException("Invalid string constant: " + literal);
+        }
+
+        final StringBuilder value = new StringBuilder(literal.length());
+        for (int i = 1; i < literal.length() - 1; i++) {
+            final char c = literal.charAt(i);
+
+            if (c != '\\' || i + 1 >= literal.length() - 1) {
+                value.append(c);
+                continue;
+            }
+
+            i++;
+            switch (literal.charAt(i)) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case '"' -> value.append('"');
+                case '\'' -> value.append('\'');
+                case '\\' -> value.append('\\');
+                case 'u' -> {
+                    if (i + 4 >= literal.length() - 1) {
+                        throw new CodeGenerationException("Invalid unicode escape in string constant: " + literal);
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(literal.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw new CodeGenerationException("Invalid unicode escape in string constant: " + literal);
+                    }
+                    i += 4;
+                }
+                default -> value.append('\\').append(literal.charAt(i));
+            }
+        }
+
+        return value.toString();
+    }
+
+    private void u1(int value) {
+        if (this.length == this.code.length) {
+            this.code = Arrays.copyOf(this.code, this.code.length * 2);
+        }
+
+        this.code[this.length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        this.u1(value >> 8);
+        this.u1(value);
+    }
+
+    /**
+     * Trägt die Sprungoffsets ein, alle Labels müssen bis hierhin definiert sein.
+     */
+    private void resolveJumps() {
+        if (this.length > MAX_CODE_LENGTH) {
+            throw new CodeGenerationException("Method is too large: " + this.length + " bytes");
+        }
+
+        for (int i = 0; i < this.jumpPositions.size(); i++) {
+            final int position = this.jumpPositions.get(i);
+            final Integer target = this.labels.get(this.jumpLabels.get(i));
+
+            if (target == null) {
+                throw new CodeGenerationException("Undefined label: " + this.jumpLabels.get(i));
+            }
+
+            final int offset = target - position;
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new CodeGenerationException("Jump to " + this.jumpLabels.get(i) + " is too far: " + offset);
+            }
+
+            this.code[position + 1] = (byte) (offset >> 8);
+            this.code[position + 2] = (byte) offset;
+        }
+    }
+
+    /**
+     * Die Größe des Code-Attributes ohne die 6 Bytes für Name und Länge.
+     */
+    int attributeLength() {
+        // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+        return 2 + 2 + 4 + this.length + 2 + 2;
+    }
+
+    void writeTo(ByteBuffer buffer, int codeAttributeName) {
+        this.resolveJumps();
+
+        buffer.putShort((short) codeAttributeName);
+        buffer.putInt(this.attributeLength());
+        buffer.putShort((short) this.maxStack);
+        buffer.putShort((short) this.maxLocals);
+        buffer.putInt(this.length);
+        buffer.put(this.code, 0, this.length);
+        buffer.putShort((short) 0); // No exception table
+        buffer.putShort((short) 0); // No attributes
+    }
+}
@@ -0,0 +1,33 @@
+package codegen.flowgraph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Die toString-Methoden des Flussgraphen nutzen dieselben writeTo-Methoden wie die Ausgabe in Dateien.
+ */
+final class Appendables {
+
+    private Appendables() {}
+
+    @FunctionalInterface
+    interface IOConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+
+    /**
+     * Schreibt mit writer in einen {@link StringBuilder}, z.B. toString(this::writeTo).
+     */
+    static String toString(IOConsumer<Appendable> writer) {
+        final StringBuilder builder = new StringBuilder();
+
+        try {
+            writer.accept(builder);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
+    }
+}
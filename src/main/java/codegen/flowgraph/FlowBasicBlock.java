@@ -1,20 +1,21 @@
 package codegen.flowgraph;
 
+import util.IdAllocator;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
     // Graph structure information
-    private final UUID id;
+    private final int id;
     private final Set<FlowBasicBlock> predecessors;
     private final Set<FlowBasicBlock> successors;
 
@@ -36,7 +37,7 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
     public FlowBasicBlock(String label) {
         this.label = label;
-        this.id = UUID.randomUUID();
+        this.id = IdAllocator.nextId();
         this.instructions = new ArrayList<>();
         this.predecessors = new HashSet<>();
         this.successors = new HashSet<>();
@@ -56,7 +57,7 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
     // Geteter, Setter
 
-    public UUID getId() {
+    public int getId() {
         return this.id;
     }
 
@@ -173,11 +174,25 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
                                 .collect(Collectors.joining());
     }
 
+    /**
+     * Schreibt Label und Instructions zeilenweise, ohne den Block vorher als String aufzubauen.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        if (!this.label.isBlank()) {
+            out.append(this.label).append(":\n");
+        }
+
+        for (FlowInstruction instruction : this.instructions) {
+            instruction.writeTo(out);
+            out.append('\n');
+        }
+    }
+
     // Overrides
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.label);
+        return Integer.hashCode(this.id);
     }
 
     @Override
@@ -189,22 +204,12 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
             return false;
         }
         final FlowBasicBlock that = (FlowBasicBlock) o;
-        return this.id.equals(that.id) && this.label.equals(that.label);
+        return this.id == that.id && this.label.equals(that.label);
     }
 
     @Override
     public String toString() {
-        final String linesString = this.instructions.stream()
-                                                    .map(FlowInstruction::toString)
-                                                    .map(line -> line + "\n")
-                                                    .collect(Collectors.joining());
-
-        if (this.label.isBlank()) {
-            return linesString;
-        }
-
-        return this.label + ":\n"
-               + linesString;
+        return Appendables.toString(this::writeTo);
     }
 
     @Override
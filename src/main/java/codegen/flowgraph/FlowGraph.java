@@ -4,6 +4,7 @@ import parser.ast.SyntaxTree;
 import util.GraphvizCaller;
 import util.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -12,7 +13,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Die Graph-Repräsentation des Programm, erzeugt aus einem {@link SyntaxTree}.
@@ -35,11 +35,17 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      */
     private final Map<String, FlowBasicBlock> predecessorMap;
 
+    /**
+     * Der erste Block zu jedem Label, damit Rückwärtssprünge nicht alle Blöcke durchsuchen müssen.
+     */
+    private final Map<String, FlowBasicBlock> labelMap;
+
     public FlowGraph(String bytecodeVersion, String source, String clazz, int stackSize, int localCount) {
         this.exportHead = new FlowGraphHead(bytecodeVersion, source, clazz, stackSize, localCount);
         this.basicBlocks = new ArrayList<>();
         this.exportTail = new FlowGraphTail();
         this.predecessorMap = new HashMap<>();
+        this.labelMap = new HashMap<>();
     }
 
     /**
@@ -48,16 +54,16 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * und zu Blöcken aus der {@link #predecessorMap} hergestellt.
      */
     public void addLabel(String label) {
-        Logger.logInfo(" :: Adding label: \"" + label + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding label: \"" + label + "\"", FlowGraph.class);
 
         final FlowBasicBlock newBlock = new FlowBasicBlock(label);
 
         // Resolve missing successors/predecessors from jumps
         if (this.predecessorMap.containsKey(label)) {
-            Logger.logInfo(" :: Handling predecessor-map entry:\n\t\t\t"
-                           + this.predecessorMap.get(label).getLabel()
-                           + "\n\t\t\t[...]\n\t\t\t"
-                           + this.predecessorMap.get(label).getLastInstruction(), FlowGraph.class);
+            Logger.logInfoSupplier(() -> " :: Handling predecessor-map entry:\n\t\t\t"
+                                         + this.predecessorMap.get(label).getLabel()
+                                         + "\n\t\t\t[...]\n\t\t\t"
+                                         + this.predecessorMap.get(label).getLastInstruction(), FlowGraph.class);
 
             this.predecessorMap.get(label).addSuccessorBlock(newBlock);
             newBlock.addPredecessorBlock(this.predecessorMap.get(label));
@@ -69,7 +75,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             currentBlock.get().addSuccessorBlock(newBlock); // Obvious successor of current block
         }
 
-        this.basicBlocks.add(newBlock);
+        this.addBlock(newBlock);
     }
 
     /**
@@ -82,7 +88,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * @param jumpInstruction Der verwendete Sprungbefehl.
      */
     public void addJump(String jumpInstruction, String label) {
-        Logger.logInfo(" :: Adding jump to label \"" + label + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding jump to label \"" + label + "\"", FlowGraph.class);
 
         this.addInstruction(jumpInstruction, label);
 
@@ -114,20 +120,20 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             // Successor doesn't exist, so wait until it does
 
             // Current node is predecessor of label-block
-            currentBlock.ifPresent(flowBasicBlock -> Logger.logInfo(" :: Adding entry to predecessor-map: \n\t\t\t"
-                                                                    + flowBasicBlock.getLabel() + "\n\t\t\t[...]\n\t\t\t"
-                                                                    + flowBasicBlock.getLastInstruction(), FlowGraph.class));
+            currentBlock.ifPresent(flowBasicBlock -> Logger.logInfoSupplier(() -> " :: Adding entry to predecessor-map: \n\t\t\t"
+                                                                                  + flowBasicBlock.getLabel() + "\n\t\t\t[...]\n\t\t\t"
+                                                                                  + flowBasicBlock.getLastInstruction(), FlowGraph.class));
             currentBlock.ifPresent(flowBasicBlock -> this.predecessorMap.put(label, flowBasicBlock));
         }
 
-        this.basicBlocks.add(newBlock);
+        this.addBlock(newBlock);
     }
 
     public void addInstruction(String instruction, String... args) {
-        Logger.logInfo(" :: Adding instruction \"" + instruction + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding instruction \"" + instruction + "\"", FlowGraph.class);
 
         if (this.basicBlocks.isEmpty()) {
-            this.basicBlocks.add(new FlowBasicBlock("START")); // First block doesn't exist
+            this.addBlock(new FlowBasicBlock("START")); // First block doesn't exist
         }
 
         final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
@@ -148,7 +154,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         // Collect removable blocks
         for (FlowBasicBlock block : this.basicBlocks) {
             if (block.isEmpty()) {
-                Logger.logInfo(" :: Marking block nr. " + this.basicBlocks.indexOf(block) + " as removable.", FlowGraph.class);
+                Logger.logInfoSupplier(() -> " :: Marking block nr. " + this.basicBlocks.indexOf(block) + " as removable.", FlowGraph.class);
                 toRemove.add(block);
             }
         }
@@ -160,8 +166,8 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             for (FlowBasicBlock predecessor : block.getBlockPredecessorSet()) {
                 for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
 
-                    Logger.logInfo(" :: Rerouting block nr. " + this.basicBlocks.indexOf(predecessor)
-                                   + " to block nr. " + this.basicBlocks.indexOf(successor), FlowGraph.class);
+                    Logger.logInfoSupplier(() -> " :: Rerouting block nr. " + this.basicBlocks.indexOf(predecessor)
+                                                 + " to block nr. " + this.basicBlocks.indexOf(successor), FlowGraph.class);
                     predecessor.addSuccessorBlock(successor);
                     successor.addPredecessorBlock(predecessor);
                 }
@@ -182,10 +188,16 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         Logger.logDebug("Successfully removed all empty blocks and rerouted graph", FlowGraph.class);
     }
 
+    private void addBlock(FlowBasicBlock block) {
+        this.basicBlocks.add(block);
+
+        if (!block.getLabel().isBlank()) {
+            this.labelMap.putIfAbsent(block.getLabel(), block);
+        }
+    }
+
     private Optional<FlowBasicBlock> getBlockByLabel(String label) {
-        return this.basicBlocks.stream()
-                               .filter(block -> block.getLabel().equals(label))
-                               .findFirst();
+        return Optional.ofNullable(this.labelMap.get(label));
     }
 
     /**
@@ -199,6 +211,10 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         return Optional.of(this.basicBlocks.get(this.basicBlocks.size() - 1));
     }
 
+    public FlowGraphHead getHead() {
+        return this.exportHead;
+    }
+
     // Printing
 
     public String printToImage() {
@@ -260,17 +276,25 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         return "Successfully exported the graph as Image: FlowGraph.svg";
     }
 
+    /**
+     * Schreibt den Jasmin-Assembler Block für Block, ohne das ganze Programm als String aufzubauen.
+     * Für Dateien sollte ein gepufferter {@link java.io.Writer} verwendet werden.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        this.exportHead.writeTo(out);
+
+        for (FlowBasicBlock block : this.basicBlocks) {
+            block.writeTo(out);
+        }
+
+        this.exportTail.writeTo(out);
+    }
+
     // Overrides
 
     @Override
     public String toString() {
-        final String blocksString = this.basicBlocks.stream()
-                                                    .map(FlowBasicBlock::toString)
-                                                    .collect(Collectors.joining());
-
-        return this.exportHead
-               + blocksString
-               + this.exportTail;
+        return Appendables.toString(this::writeTo);
     }
 
     @Override
@@ -2,44 +2,85 @@ package codegen.flowgraph;
 
 import codegen.CodeGenerationException;
 import codegen.analysis.StackSizeAnalyzer;
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
 import parser.ast.SyntaxTreeNode;
+import typechecker.Type;
 import typechecker.TypeChecker;
+import util.IntStack;
 import util.Logger;
+import util.PhaseStats;
+import util.TaskStack;
 
-import java.util.ArrayDeque;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static parser.grammar.SymbolTable.ADD;
+import static parser.grammar.SymbolTable.AND;
+import static parser.grammar.SymbolTable.ASSIGNMENT;
+import static parser.grammar.SymbolTable.BOOLEAN_LIT;
+import static parser.grammar.SymbolTable.COND;
+import static parser.grammar.SymbolTable.DECLARATION;
+import static parser.grammar.SymbolTable.DIV;
+import static parser.grammar.SymbolTable.EQUAL;
+import static parser.grammar.SymbolTable.EXPR;
+import static parser.grammar.SymbolTable.GREATER;
+import static parser.grammar.SymbolTable.GREATER_EQUAL;
+import static parser.grammar.SymbolTable.IDENTIFIER;
+import static parser.grammar.SymbolTable.INTEGER_LIT;
+import static parser.grammar.SymbolTable.LESS;
+import static parser.grammar.SymbolTable.LESS_EQUAL;
+import static parser.grammar.SymbolTable.LOOP;
+import static parser.grammar.SymbolTable.MOD;
+import static parser.grammar.SymbolTable.MUL;
+import static parser.grammar.SymbolTable.NOT;
+import static parser.grammar.SymbolTable.NOT_EQUAL;
+import static parser.grammar.SymbolTable.OR;
+import static parser.grammar.SymbolTable.PRINT;
+import static parser.grammar.SymbolTable.STRING_LIT;
+import static parser.grammar.SymbolTable.SUB;
+
 /**
  * Erzeugt den SourceCode in FlussGraph-Darstellung.
  */
 public final class FlowGraphGenerator {
 
-    private final SyntaxTree tree;
+    private final CompactSyntaxTree tree;
 
     /**
-     * Enthält den Rückgabetypen von jedem Expression-Node.
+     * Enthält den Rückgabetypen von jedem Expression-Node, indiziert über den Knoten-Index.
      * Wird erstellt im {@link TypeChecker}.
      */
-    private final Map<SyntaxTreeNode, String> nodeTypeMap;
+    private final Type[] nodeTypes;
 
     /**
      * Enthält die Mappings vom Symbol/Variablennamen auf die Position in der JVM-Locals-Tabelle.
      */
     private final Map<String, Integer> varMap;
 
+    /**
+     * Die Position in der JVM-Locals-Tabelle wie in {@link #varMap}, indiziert über die Wert-ID des Bezeichners.
+     */
+    private final int[] varSlots;
+
     private final FlowGraph graph;
 
+    /**
+     * Die noch zu erzeugenden Teilbäume und Instruktionen, damit tiefe Programme nicht rekursiv erzeugt werden.
+     */
+    private final TaskStack tasks;
+
     private int labelCounter;
 
-    private FlowGraphGenerator(Map<String, Integer> varMap, SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, FlowGraph graph) {
+    private FlowGraphGenerator(Map<String, Integer> varMap, int[] varSlots, CompactSyntaxTree tree, Type[] nodeTypes, FlowGraph graph) {
         this.varMap = varMap;
+        this.varSlots = varSlots;
         this.tree = tree;
-        this.nodeTypeMap = nodeTypeMap;
+        this.nodeTypes = nodeTypes;
         this.graph = graph;
+        this.tasks = new TaskStack();
     }
 
     /**
@@ -50,36 +91,65 @@ public final class FlowGraphGenerator {
             throw new CodeGenerationException("Empty File can't be compiled");
         }
 
-        final Map<String, Integer> varMap = initVarMap(tree);
+        final List<SyntaxTreeNode> nodes = CompactSyntaxTree.nodeOrder(tree);
+        final Type[] nodeTypes = new Type[nodes.size()];
+        for (int node = 0; node < nodeTypes.length; node++) {
+            nodeTypes[node] = Type.fromName(nodeTypeMap.get(nodes.get(node)));
+        }
+
+        return fromAST(CompactSyntaxTree.fromSyntaxTree(tree), nodeTypes, source);
+    }
+
+    /**
+     * @param nodeTypes Die Typen pro Knoten-Index aus {@link TypeChecker#validate(CompactSyntaxTree)}
+     * @param source    Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
+     */
+    public static FlowGraphGenerator fromAST(CompactSyntaxTree tree, Type[] nodeTypes, String source) {
+        if (tree.isEmpty(tree.getRoot())) {
+            throw new CodeGenerationException("Empty File can't be compiled");
+        }
+
+        final int[] varSlots = new int[tree.getValueCount()];
+        final Map<String, Integer> varMap = initVarMap(tree, varSlots);
         final FlowGraph graph = initFlowGraph(tree, varMap, source);
 
-        return new FlowGraphGenerator(varMap, tree, nodeTypeMap, graph);
+        return new FlowGraphGenerator(varMap, varSlots, tree, nodeTypes, graph);
     }
 
-    private static Map<String, Integer> initVarMap(SyntaxTree tree) {
+    /**
+     * @param varSlots Wird mit den gleichen Positionen wie die Map gefüllt, indiziert über die Wert-ID des Bezeichners.
+     */
+    private static Map<String, Integer> initVarMap(CompactSyntaxTree tree, int[] varSlots) {
         Logger.logDebug("Initializing variable-map", FlowGraphGenerator.class);
 
         final Map<String, Integer> varMap = new HashMap<>();
 
-        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        final IntStack stack = new IntStack();
         stack.push(tree.getRoot());
 
         int currentVarNumber = 0;
 
         // Assign variables to map: Symbol -> jasminLocalVarNr.
         while (!stack.isEmpty()) {
-            final SyntaxTreeNode current = stack.pop();
+            final int current = stack.pop();
 
-            if ("declaration".equals(current.getName())) {
+            if (tree.getSymbol(current) == DECLARATION) {
                 // New variables only come from declarations
 
+                final int identifier = tree.getFirstChild(current);
+                final String symbol = tree.getValue(identifier);
+
                 currentVarNumber++;
-                varMap.put(current.getChildren().get(0).getValue(), currentVarNumber);
-                Logger.logInfo("Assign local variable \"" + current.getChildren().get(0).getValue() + "\" -> \""
-                               + current.getValue() + "\" to slot " + currentVarNumber, FlowGraphGenerator.class);
+                final int slot = currentVarNumber;
+                varMap.put(symbol, slot);
+                varSlots[tree.getValueId(identifier)] = slot;
+                Logger.logInfoSupplier(() -> "Assign local variable \"" + symbol + "\" -> \""
+                                             + tree.getValue(current) + "\" to slot " + slot, FlowGraphGenerator.class);
             }
 
-            current.getChildren().forEach(stack::push);
+            for (int child = tree.getFirstChild(current); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
+                stack.push(child);
+            }
         }
 
         Logger.logDebug("Successfully initialized variable-map", FlowGraphGenerator.class);
@@ -87,10 +157,14 @@ public final class FlowGraphGenerator {
         return Collections.unmodifiableMap(varMap);
     }
 
-    private static FlowGraph initFlowGraph(SyntaxTree tree, Map<String, Integer> varMap, String source) {
+    private static FlowGraph initFlowGraph(CompactSyntaxTree tree, Map<String, Integer> varMap, String source) {
         final String bytecodeVersion = "49.0";
-        final String clazz = tree.getRoot().getChildren().get(0).getValue();
-        final int stackSize = StackSizeAnalyzer.runStackModel(tree);
+        final String clazz = tree.getValue(tree.getFirstChild(tree.getRoot()));
+        final int stackSize;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("stack")) {
+            stackSize = StackSizeAnalyzer.runStackModel(tree);
+        }
+        PhaseStats.count("stackSize", stackSize);
         final int localCount = varMap.size() + 1;
 
         return new FlowGraph(bytecodeVersion, source, clazz, stackSize, localCount);
@@ -104,14 +178,15 @@ public final class FlowGraphGenerator {
     public FlowGraph generateGraph() {
         Logger.logDebug("Beginning generation of source-graph", FlowGraphGenerator.class);
 
-        if (this.tree.getRoot().getChildren().size() == 1) {
+        if (this.tree.getChildCount(this.tree.getRoot()) == 1) {
             // Empty main-method
 
             return this.graph;
         }
 
         // Skip the first 2 identifiers: ClassName, MainArgs
-        this.generateNode(this.tree.getRoot().getChildren().get(1));
+        this.tasks.push(this.generate(this.tree.getChild(this.tree.getRoot(), 1)));
+        this.tasks.run();
         this.graph.purgeEmptyBlocks();
 
         Logger.logDebug("Source-graph generation complete", FlowGraphGenerator.class);
@@ -119,60 +194,79 @@ public final class FlowGraphGenerator {
         return this.graph;
     }
 
+    /**
+     * Plant die Erzeugung des Teilbaums als Schritt ein, anstatt rekursiv abzusteigen.
+     * Was nach dem Teilbaum passieren muss, wird als weiterer Schritt dahinter eingeplant.
+     */
+    private Runnable generate(int root) {
+        return () -> this.generateNode(root);
+    }
+
     /**
      * Erzeugt den FlussGraphen für die angegebene Wurzel.
      * Der Wurzelname wird einer Methode zugewiesen.
      * Diese wird aufgerufen und erzeugt den entsprechenden Teilbaum.
      */
-    private void generateNode(SyntaxTreeNode root) {
-        switch (root.getName()) {
-            case "cond" -> this.condNode(root);
-            case "loop" -> this.loopNode(root);
-            case "assignment" -> this.assignNode(root);
-            case "expr" -> this.exprNode(root);
-            case "INTEGER_LIT", "STRING_LIT" -> this.intStringLiteralNode(root);
-            case "BOOLEAN_LIT" -> this.boolLiteralNode(root);
-            case "IDENTIFIER" -> this.identifierNode(root);
-            case "print" -> this.printlnNode(root);
-            default -> root.getChildren().forEach(this::generateNode);
+    private void generateNode(int root) {
+        switch (this.tree.getSymbol(root)) {
+            case COND -> this.condNode(root);
+            case LOOP -> this.loopNode(root);
+            case ASSIGNMENT -> this.assignNode(root);
+            case EXPR -> this.exprNode(root);
+            case INTEGER_LIT, STRING_LIT -> this.intStringLiteralNode(root);
+            case BOOLEAN_LIT -> this.boolLiteralNode(root);
+            case IDENTIFIER -> this.identifierNode(root);
+            case PRINT -> this.printlnNode(root);
+            default -> this.generateChildren(root);
         }
     }
 
+    private void generateChildren(int root) {
+        final Runnable[] children = new Runnable[this.tree.getChildCount(root)];
+        int i = 0;
+        for (int child = this.tree.getFirstChild(root); child != CompactSyntaxTree.NONE; child = this.tree.getNextSibling(child)) {
+            children[i] = this.generate(child);
+            i++;
+        }
+
+        this.tasks.push(children);
+    }
+
     /**
      * Erzeugt den Teilbaum für einen If-Knoten.
      */
-    private void condNode(SyntaxTreeNode root) {
+    private void condNode(int root) {
         Logger.logInfo("Generating conditional node", FlowGraphGenerator.class);
 
         final int currentLabel = this.labelCounter;
         this.labelCounter++;
 
         // Condition If ( ... ) {
-        this.generateNode(root.getChildren().get(0));
+        this.tasks.push(this.generate(this.tree.getChild(root, 0)),
 
-        // Jump if condition false
-        this.graph.addJump("ifeq", "IFfalse" + currentLabel);
+                        // Jump if condition false
+                        () -> this.graph.addJump("ifeq", "IFfalse" + currentLabel),
 
-        // IFtrue branch (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
-        this.graph.addJump("goto", "IFend" + currentLabel); // Skip IFfalse branch
+                        // IFtrue branch (gets executed without jump)
+                        this.generate(this.tree.getChild(root, 1)),
+                        () -> {
+                            this.graph.addJump("goto", "IFend" + currentLabel); // Skip IFfalse branch
 
-        // IFfalse branch (gets executed after jump)
-        this.graph.addLabel("IFfalse" + currentLabel);
-        if (root.getChildren().size() == 3) {
-            // Else exists
+                            // IFfalse branch (gets executed after jump)
+                            this.graph.addLabel("IFfalse" + currentLabel);
+                        },
 
-            this.generateNode(root.getChildren().get(2));
-        }
+                        // Else exists
+                        this.tree.getChildCount(root) == 3 ? this.generate(this.tree.getChild(root, 2)) : () -> {},
 
-        // IFend branch
-        this.graph.addLabel("IFend" + currentLabel);
+                        // IFend branch
+                        () -> this.graph.addLabel("IFend" + currentLabel));
     }
 
     /**
      * Erzeugt den Teilbaum für einen While-Knoten.
      */
-    private void loopNode(SyntaxTreeNode root) {
+    private void loopNode(int root) {
         Logger.logInfo("Generating loop node", FlowGraphGenerator.class);
 
         final int currentLabel = this.labelCounter;
@@ -182,47 +276,51 @@ public final class FlowGraphGenerator {
         this.graph.addLabel("LOOPstart" + currentLabel);
 
         // Condition while ( ... ) {
-        this.generateNode(root.getChildren().get(0).getChildren().get(0));
+        this.tasks.push(this.generate(this.tree.getFirstChild(this.tree.getFirstChild(root))),
 
-        // Jump out of loop if condition is false
-        this.graph.addJump("ifeq", "LOOPend" + currentLabel);
+                        // Jump out of loop if condition is false
+                        () -> this.graph.addJump("ifeq", "LOOPend" + currentLabel),
 
-        // Loop body (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
-        this.graph.addJump("goto", "LOOPstart" + currentLabel); // Repeat loop
+                        // Loop body (gets executed without jump)
+                        this.generate(this.tree.getChild(root, 1)),
+                        () -> {
+                            this.graph.addJump("goto", "LOOPstart" + currentLabel); // Repeat loop
 
-        // Loop end
-        this.graph.addLabel("LOOPend" + currentLabel);
+                            // Loop end
+                            this.graph.addLabel("LOOPend" + currentLabel);
+                        });
     }
 
     /**
      * Erzeugt den Teilbaum für Assignment-Knoten.
      * Die JVM-Stacksize wird dabei um 1 verringert, da istore/astore 1 Argument konsumieren.
      */
-    private void assignNode(SyntaxTreeNode root) { //! Stack - 1
+    private void assignNode(int root) { //! Stack - 1
         Logger.logInfo("Generating assignment node", FlowGraphGenerator.class);
 
-        this.generateNode(root.getChildren().get(0));
+        this.tasks.push(this.generate(this.tree.getChild(root, 0)),
+                        () -> this.assignInst(root));
+    }
 
-        final String type = this.nodeTypeMap.get(root.getChildren().get(0));
+    private void assignInst(int root) {
+        final Type type = this.nodeType(this.tree.getChild(root, 0));
         final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "istore";
-            case "STRING_TYPE" -> "astore";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
+            case INTEGER, BOOLEAN -> "istore";
+            case STRING -> "astore";
         };
 
-        Logger.logInfo("assign(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "assign(): Node \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\" => " + inst, FlowGraphGenerator.class);
 
-        this.graph.addInstruction(inst, this.varMap.get(root.getValue()).toString());
+        this.graph.addInstruction(inst, String.valueOf(this.varSlots[this.tree.getValueId(root)]));
     }
 
     /**
      * Wählt die entsprechende Methode für mathematische oder logische Ausdrücke.
      */
-    private void exprNode(SyntaxTreeNode root) {
-        if ("INTEGER_TYPE".equals(this.nodeTypeMap.get(root))) {
+    private void exprNode(int root) {
+        if (this.nodeTypes[root] == Type.INTEGER) {
             this.intExpr(root);
-        } else if ("BOOLEAN_TYPE".equals(this.nodeTypeMap.get(root))) {
+        } else if (this.nodeTypes[root] == Type.BOOLEAN) {
             this.boolExpr(root);
         }
     }
@@ -232,38 +330,48 @@ public final class FlowGraphGenerator {
      * Bei unären Operatoren bleibt die Stackgröße konstant (1 konsumiert, 1 Ergebnis),
      * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
      */
-    private void intExpr(SyntaxTreeNode root) {
-        Logger.logInfo("Generating integer expression node: \"" + root.getName() + ": " + root.getValue() + "\"", FlowGraphGenerator.class);
+    private void intExpr(int root) {
+        Logger.logInfoSupplier(() -> "Generating integer expression node: \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\"", FlowGraphGenerator.class);
+
+        if (this.tree.getChildCount(root) == 1) {
+            this.tasks.push(this.generate(this.tree.getChild(root, 0)),
+                            () -> this.intExprInst(root));
+        } else if (this.tree.getChildCount(root) == 2) {
+            this.tasks.push(this.generate(this.tree.getChild(root, 0)),
+                            this.generate(this.tree.getChild(root, 1)),
+                            () -> this.intExprInst(root));
+        } else {
+            this.intExprInst(root);
+        }
+    }
 
-        String inst = "";
+    private void intExprInst(int root) {
+        final String inst;
 
-        if (root.getChildren().size() == 1) { //! Stack + 0
+        if (this.tree.getChildCount(root) == 1) { //! Stack + 0
             // Unary operator
 
-            this.generateNode(root.getChildren().get(0));
-
-            inst = switch (root.getValue()) {
-                case "ADD" -> "";
-                case "SUB" -> "ineg";
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
+            inst = switch (this.tree.getValueSymbol(root)) {
+                case ADD -> "";
+                case SUB -> "ineg";
+                default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(root));
             };
-        } else if (root.getChildren().size() == 2) { //! Stack - 1
+        } else if (this.tree.getChildCount(root) == 2) { //! Stack - 1
             // Binary operator
 
-            this.generateNode(root.getChildren().get(0));
-            this.generateNode(root.getChildren().get(1));
-
-            inst = switch (root.getValue()) {
-                case "ADD" -> "iadd"; // Integer
-                case "SUB" -> "isub";
-                case "MUL" -> "imul";
-                case "DIV" -> "idiv";
-                case "MOD" -> "irem"; // Remainder operator
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
+            inst = switch (this.tree.getValueSymbol(root)) {
+                case ADD -> "iadd"; // Integer
+                case SUB -> "isub";
+                case MUL -> "imul";
+                case DIV -> "idiv";
+                case MOD -> "irem"; // Remainder operator
+                default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(root));
             };
+        } else {
+            inst = "";
         }
 
-        Logger.logInfo("intExpr(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "intExpr(): Node \"" + this.tree.getName(root) + ": " + this.tree.getValue(root) + "\" => " + inst, FlowGraphGenerator.class);
 
         this.graph.addInstruction(inst);
     }
@@ -273,57 +381,62 @@ public final class FlowGraphGenerator {
      * Bei unären Operatoren wächst der Stack temporär um 1 (NOT pusht eine 1 für xor),
      * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
      */
-    private void boolExpr(SyntaxTreeNode node) {
+    private void boolExpr(int node) {
         Logger.logInfo("Generating boolean expression", FlowGraphGenerator.class);
 
-        if (node.getChildren().size() == 1) { //! Stack + 1
+        if (this.tree.getChildCount(node) == 1) { //! Stack + 1
             // Unary operator
 
-            if (!"NOT".equals(node.getValue())) {
+            if (this.tree.getValueSymbol(node) != NOT) {
                 // Possibility doesn't exist, would be frontend-error
 
-                throw new CodeGenerationException("Unexpected value: " + node.getValue());
+                throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(node));
             }
 
-            this.generateNode(node.getChildren().get(0));
+            this.tasks.push(this.generate(this.tree.getChild(node, 0)),
+                            () -> {
+                                // 0 xor 1 = 1, 1 xor 1 = 0 => not
+                                this.graph.addInstruction("ldc", "1");
+                                this.graph.addInstruction("ixor");
+                            });
 
-            // 0 xor 1 = 1, 1 xor 1 = 0 => not
-            this.graph.addInstruction("ldc", "1");
-            this.graph.addInstruction("ixor");
-
-        } else if (node.getChildren().size() == 2) { //! Stack - 1
+        } else if (this.tree.getChildCount(node) == 2) { //! Stack - 1
             // Binary operator
 
             final int currentLabel = this.labelCounter;
             this.labelCounter++;
 
-            this.generateNode(node.getChildren().get(0));
-            this.generateNode(node.getChildren().get(1));
+            this.tasks.push(this.generate(this.tree.getChild(node, 0)),
+                            this.generate(this.tree.getChild(node, 1)),
+                            () -> this.boolExprInst(node, currentLabel));
+        }
+    }
 
-            final String type = this.nodeTypeMap.get(node.getChildren().get(0));
-            final String cmpeq = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpeq";
-                case "STRING_TYPE" -> "if_accmpeq";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
-            final String cmpne = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpne";
-                case "STRING_TYPE" -> "if_accmpne";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
+    /**
+     * Die Instruktionen für einen binären logischen Ausdruck, nachdem beide Argumente erzeugt wurden.
+     */
+    private void boolExprInst(int node, int currentLabel) {
+        final Type type = this.nodeType(this.tree.getChild(node, 0));
+        final String cmpeq = switch (type) {
+            case INTEGER, BOOLEAN -> "if_icmpeq";
+            case STRING -> "if_acmpeq";
+        };
+        final String cmpne = switch (type) {
+            case INTEGER, BOOLEAN -> "if_icmpne";
+            case STRING -> "if_acmpne";
+        };
 
-            // The comparison operations need to jump
-            switch (node.getValue()) {
-                case "AND" -> this.graph.addInstruction("iand"); // Boolean
-                case "OR" -> this.graph.addInstruction("ior");
-                case "EQUAL" -> this.genComparisonInst(cmpeq, "EQ", currentLabel);
-                case "NOT_EQUAL" -> this.genComparisonInst(cmpne, "NE", currentLabel);
-                case "LESS" -> this.genComparisonInst("if_icmplt", "LT", currentLabel);
-                case "LESS_EQUAL" -> this.genComparisonInst("if_icmple", "LE", currentLabel);
-                case "GREATER" -> this.genComparisonInst("if_icmpgt", "GT", currentLabel);
-                case "GREATER_EQUAL" -> this.genComparisonInst("if_icmpge", "GE", currentLabel);
-                default -> throw new CodeGenerationException("Unexpected value: " + node.getValue());
-            }
+        // The comparison operations need to jump
+        switch (this.tree.getValueSymbol(node)) {
+            case AND -> this.graph.addInstruction("iand"); // Boolean
+            case OR -> this.graph.addInstruction("ior");
+            case EQUAL -> this.genComparisonInst(cmpeq, "EQ", currentLabel);
+            case NOT_EQUAL -> this.genComparisonInst(cmpne, "NE", currentLabel);
+            case LESS -> this.genComparisonInst("if_icmplt", "LT", currentLabel);
+            case LESS_EQUAL -> this.genComparisonInst("if_icmple", "LE", currentLabel);
+            case GREATER -> this.genComparisonInst("if_icmpgt", "GT", currentLabel);
+            case GREATER_EQUAL -> this.genComparisonInst("if_icmpge", "GE", currentLabel);
+            default -> throw new CodeGenerationException("Unexpected value: " + this.tree.getValue(node));
         }
     }
 
@@ -345,50 +458,61 @@ public final class FlowGraphGenerator {
 
     // Leafs
 
-    private void intStringLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("intStringLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
+    private void intStringLiteralNode(int node) { //! Stack + 1
+        Logger.logInfoSupplier(() -> "intStringLiteral(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => ldc", FlowGraphGenerator.class);
 
         // bipush only pushes 1 byte as int
-        this.graph.addInstruction("ldc", node.getValue());
+        this.graph.addInstruction("ldc", this.tree.getValue(node));
     }
 
-    private void boolLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("booleanLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
+    private void boolLiteralNode(int node) { //! Stack + 1
+        Logger.logInfoSupplier(() -> "booleanLiteral(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => ldc", FlowGraphGenerator.class);
 
-        final String val = "true".equals(node.getValue()) ? "1" : "0";
+        final String val = "true".equals(this.tree.getValue(node)) ? "1" : "0";
 
         this.graph.addInstruction("ldc", val);
     }
 
-    private void identifierNode(SyntaxTreeNode node) { //! Stack + 1
-        final String type = this.nodeTypeMap.get(node);
+    private void identifierNode(int node) { //! Stack + 1
+        final Type type = this.nodeType(node);
         final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "iload";
-            case "STRING_TYPE" -> "aload";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
+            case INTEGER, BOOLEAN -> "iload";
+            case STRING -> "aload";
         };
 
-        Logger.logInfo("identifier(): Node \"" + node.getName() + ": " + node.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        Logger.logInfoSupplier(() -> "identifier(): Node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\" => " + inst, FlowGraphGenerator.class);
 
-        this.graph.addInstruction(inst, this.varMap.get(node.getValue()).toString());
+        this.graph.addInstruction(inst, String.valueOf(this.varSlots[this.tree.getValueId(node)]));
     }
 
-    private void printlnNode(SyntaxTreeNode node) { //! Stack + 1
+    private void printlnNode(int node) { //! Stack + 1
         this.graph.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
 
-        final SyntaxTreeNode expr = node.getChildren().get(0).getChildren().get(0);
-        final String type = switch (this.nodeTypeMap.get(expr)) {
-            case "BOOLEAN_TYPE" -> "Z";
-            case "INTEGER_TYPE" -> "I";
-            case "STRING_TYPE" -> "Ljava/lang/String;";
-            default -> throw new CodeGenerationException("Unexpected value: " + this.nodeTypeMap.get(expr));
+        final int expr = this.tree.getFirstChild(this.tree.getFirstChild(node));
+        final String type = switch (this.nodeType(expr)) {
+            case BOOLEAN -> "Z";
+            case INTEGER -> "I";
+            case STRING -> "Ljava/lang/String;";
         };
 
-        this.generateNode(expr);
+        this.tasks.push(this.generate(expr),
+                        () -> {
+                            Logger.logInfoSupplier(() -> "println(): Node \"" + this.tree.getName(expr) + ": " + this.tree.getValue(expr) + "\" => " + type, FlowGraphGenerator.class);
+
+                            this.graph.addInstruction("invokevirtual", "java/io/PrintStream/println(" + type + ")V");
+                        });
+    }
 
-        Logger.logInfo("println(): Node \"" + expr.getName() + ": " + expr.getValue() + "\" => " + type, FlowGraphGenerator.class);
+    /**
+     * Der Typ eines Knotens, der einen Wert auf den Stack legt.
+     */
+    private Type nodeType(int node) {
+        final Type type = this.nodeTypes[node];
+        if (type == null) {
+            throw new CodeGenerationException("Missing type for node \"" + this.tree.getName(node) + ": " + this.tree.getValue(node) + "\"");
+        }
 
-        this.graph.addInstruction("invokevirtual", "java/io/PrintStream/println(" + type + ")V");
+        return type;
     }
 
     // Getters, Setters
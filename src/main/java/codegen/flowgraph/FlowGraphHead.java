@@ -1,5 +1,7 @@
 package codegen.flowgraph;
 
+import java.io.IOException;
+
 public class FlowGraphHead {
 
     private final String bytecodeVersion;
@@ -16,22 +18,46 @@ public class FlowGraphHead {
         this.localCount = localCount;
     }
 
+    public String getBytecodeVersion() {
+        return this.bytecodeVersion;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public String getClazz() {
+        return this.clazz;
+    }
+
+    public int getStackSize() {
+        return this.stackSize;
+    }
+
+    public int getLocalCount() {
+        return this.localCount;
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        out.append(".bytecode ").append(this.bytecodeVersion).append('\n')
+           .append(".source ").append(this.source).append('\n')
+           .append(".class public ").append(this.clazz).append('\n')
+           .append(".super java/lang/Object\n")
+           .append(".method public <init>()V\n")
+           .append("\t.limit stack 1\n")
+           .append("\t.limit locals 1\n")
+           .append("\t\taload_0\n")
+           .append("\t\tinvokespecial java/lang/Object/<init>()V\n")
+           .append("\t\treturn\n")
+           .append(".end method\n\n")
+
+           .append(".method public static main([Ljava/lang/String;)V\n")
+           .append("\t.limit stack ").append(String.valueOf(this.stackSize)).append('\n')
+           .append("\t.limit locals ").append(String.valueOf(this.localCount)).append('\n');
+    }
+
     @Override
     public String toString() {
-        return ".bytecode " + this.bytecodeVersion + "\n"
-               + ".source " + this.source + "\n"
-               + ".class public " + this.clazz + "\n"
-               + ".super java/lang/Object\n"
-               + ".method public <init>()V\n"
-               + "\t.limit stack 1\n"
-               + "\t.limit locals 1\n"
-               + "\t\taload_0\n"
-               + "\t\tinvokespecial java/lang/Object/<init>()V\n"
-               + "\t\treturn\n"
-               + ".end method\n\n"
-
-               + ".method public static main([Ljava/lang/String;)V\n"
-               + "\t.limit stack " + this.stackSize + "\n"
-               + "\t.limit locals " + this.localCount + "\n";
+        return Appendables.toString(this::writeTo);
     }
 }
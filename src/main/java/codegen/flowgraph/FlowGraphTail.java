@@ -1,10 +1,16 @@
 package codegen.flowgraph;
 
+import java.io.IOException;
+
 public class FlowGraphTail {
 
+    public void writeTo(Appendable out) throws IOException {
+        out.append("\t\treturn\n")
+           .append(".end method\n");
+    }
+
     @Override
     public String toString() {
-        return "\t\treturn\n"
-               + ".end method\n";
+        return Appendables.toString(this::writeTo);
     }
 }
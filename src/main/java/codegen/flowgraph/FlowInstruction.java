@@ -1,13 +1,15 @@
 package codegen.flowgraph;
 
-import java.util.UUID;
+import util.IdAllocator;
+
+import java.io.IOException;
 
 /**
  * Repräsentiert eine Instruction im {@link FlowGraph}.
  */
 public class FlowInstruction {
 
-    private final UUID id;
+    private final int id;
 
     /**
      * Die Instruction ist der Jasmin-Assembler Befehl.
@@ -16,12 +18,12 @@ public class FlowInstruction {
     private final String[] args;
 
     public FlowInstruction(String instruction, String... args) {
-        this.id = UUID.randomUUID();
+        this.id = IdAllocator.nextId();
         this.instruction = instruction;
         this.args = args;
     }
 
-    public UUID getId() {
+    public int getId() {
         return this.id;
     }
 
@@ -33,12 +35,26 @@ public class FlowInstruction {
         return this.args;
     }
 
+    // Printing
+
+    /**
+     * Schreibt die Instruction ohne Zeilenumbruch, wie sie auch {@link #toString()} liefert.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append("\t\t").append(this.instruction).append(' ');
+
+        for (int i = 0; i < this.args.length; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(this.args[i]);
+        }
+    }
+
     // Overrides
 
     @Override
     public String toString() {
-        final String argsString = String.join(" ", this.args);
-
-        return "\t\t" + this.instruction + " " + argsString;
+        return Appendables.toString(this::writeTo);
     }
 }
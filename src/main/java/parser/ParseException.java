@@ -8,6 +8,6 @@ public class ParseException extends RuntimeException {
     public ParseException(String message, SyntaxTree syntaxTree) {
         super("\n" + message);
 
-        Logger.logException("\nAST at last state:\n" + syntaxTree, ParseException.class);
+        Logger.logExceptionSupplier(() -> "\nAST at last state:\n" + syntaxTree, ParseException.class);
     }
 }
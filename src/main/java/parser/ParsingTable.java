@@ -1,33 +1,178 @@
 package parser;
 
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
 import parser.grammar.Grammar;
+import parser.grammar.GrammarParseException;
+import parser.grammar.GrammarRule;
 
-import java.util.AbstractMap.SimpleEntry;
-import java.util.Collections;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Formatter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Repräsentation einer LL(1)-ParsingTabelle.
  * Jeder Kombination aus Nichtterminal und Terminal wird ein neues Symbol aus dem Alphabet zugewiesen.
+ * <p>
+ * Die Tabelle ist kompiliert: Zeilen sind die Nichtterminal-IDs, Spalten die Terminal-IDs der {@link Grammar}.
+ * Jede Zelle enthält den Index der Produktion oder {@link #NO_PRODUCTION}.
+ * <p>
+ * Die Tabelle wird nach dem Erstellen nicht mehr verändert und kann zwischen Threads geteilt werden.
  */
 public class ParsingTable {
 
+    public static final int NO_PRODUCTION = -1;
+
     private final Grammar grammar;
-    private final Map<Entry<String, String>, String> parsetable;
 
-    public ParsingTable(Grammar grammar, Map<Entry<String, String>, String> parsetable) {
+    /**
+     * Alle Produktionen, welche in der Tabelle vorkommen.
+     */
+    private final GrammarRule[] productions;
+
+    /**
+     * Die rightsides der Produktionen als Symbol-IDs der {@link Grammar}.
+     * Werden einmalig beim Erstellen der Tabelle ermittelt, der Parser muss dadurch nichts mehr splitten.
+     */
+    private final int[][] productionSymbols;
+
+    /**
+     * Flache Matrix der Größe [Nichtterminale x Terminale].
+     */
+    private final int[] table;
+
+    /**
+     * @param productions Die Produktionen, auf welche die Einträge der Tabelle verweisen.
+     * @param table       Die Matrix der Größe [Nichtterminale x Terminale], wird nicht kopiert.
+     */
+    public ParsingTable(Grammar grammar, List<GrammarRule> productions, int[] table) {
+        if (table.length != grammar.getNonterminalCount() * grammar.getTerminalCount()) {
+            throw new IllegalArgumentException("Parse-table has the wrong size: " + table.length);
+        }
+
         this.grammar = grammar;
-        this.parsetable = Collections.unmodifiableMap(parsetable);
+        this.productions = productions.toArray(GrammarRule[]::new);
+        this.table = table;
+
+        this.productionSymbols = new int[this.productions.length][];
+        for (int prod = 0; prod < this.productions.length; prod++) {
+            final String[] symbols = this.productions[prod].getSymbols();
+
+            this.productionSymbols[prod] = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                this.productionSymbols[prod][i] = grammar.getSymbolId(symbols[i]);
+
+                if (this.productionSymbols[prod][i] == -1) {
+                    throw new GrammarParseException("Unknown symbol in production " + this.productions[prod] + ": " + symbols[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Liest eine mit {@link #writeTo(DataOutput)} geschriebene Tabelle inklusive Grammatik.
+     * Es findet keine Analyse der Grammatik statt.
+     */
+    public static ParsingTable readFrom(DataInput in) throws IOException {
+        final Grammar grammar = Grammar.readFrom(in);
+
+        final int productionCount = in.readInt();
+        final List<GrammarRule> productions = new ArrayList<>(productionCount);
+        for (int i = 0; i < productionCount; i++) {
+            productions.add(new GrammarRule(in.readUTF(), in.readUTF()));
+        }
+
+        final int[] table = new int[in.readInt()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = in.readInt();
+
+            if (table[i] < NO_PRODUCTION || table[i] >= productionCount) {
+                throw new IOException("Invalid production index in parse-table: " + table[i]);
+            }
+        }
+
+        return new ParsingTable(grammar, productions, table);
+    }
+
+    /**
+     * Schreibt die Grammatik, die Produktionen und die Matrix in ein binäres Format.
+     * Änderungen am Format müssen die FORMAT_VERSION im {@link ParsingTableCache} erhöhen.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        this.grammar.writeTo(out);
+
+        out.writeInt(this.productions.length);
+        for (GrammarRule production : this.productions) {
+            out.writeUTF(production.getLeftside());
+            out.writeUTF(production.getRightside());
+        }
+
+        out.writeInt(this.table.length);
+        for (int cell : this.table) {
+            out.writeInt(cell);
+        }
+    }
+
+    private int cellIndex(int nonterminal, int terminal) {
+        return (nonterminal - this.grammar.getTerminalCount()) * this.grammar.getTerminalCount() + terminal;
     }
 
     public String get(String nonterminal, String terminal) {
-        return this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
+        final int production = this.getProduction(this.grammar.getSymbolId(nonterminal), this.grammar.getSymbolId(terminal));
+
+        return production == NO_PRODUCTION ? null : this.productions[production].getRightside();
+    }
+
+    /**
+     * @return Der Index der Produktion für die Zelle (nonterminal, terminal) oder {@link #NO_PRODUCTION}.
+     */
+    public int getProduction(int nonterminal, int terminal) {
+        if (nonterminal < this.grammar.getTerminalCount() || nonterminal >= this.grammar.getSymbolCount()
+            || !this.grammar.isTerminal(terminal)) {
+            return NO_PRODUCTION;
+        }
+
+        return this.table[this.cellIndex(nonterminal, terminal)];
+    }
+
+    public GrammarRule getRule(int production) {
+        return this.productions[production];
+    }
+
+    /**
+     * Die Symbol-IDs der rightside einer Produktion.
+     * Das Array wird nicht kopiert und darf nicht verändert werden.
+     */
+    public int[] getRightsideSymbols(int production) {
+        return this.productionSymbols[production];
+    }
+
+    /**
+     * Übersetzt die Token in Terminal-IDs der Grammatik.
+     * Token, deren Typ kein Terminal der Grammatik ist, werden zu -1.
+     */
+    public int[] toTerminalIds(List<? extends Token> token, Vocabulary voc) {
+        final int[] typeToTerminal = new int[voc.getMaxTokenType() + 1];
+        for (int type = 0; type < typeToTerminal.length; type++) {
+            final int id = this.grammar.getSymbolId(voc.getSymbolicName(type));
+            typeToTerminal[type] = this.grammar.isTerminal(id) ? id : -1;
+        }
+
+        final int[] terminals = new int[token.size()];
+        for (int i = 0; i < terminals.length; i++) {
+            final int type = token.get(i).getType();
+            terminals[i] = type >= 0 && type < typeToTerminal.length ? typeToTerminal[type] : -1;
+        }
+
+        return terminals;
+    }
+
+    public Grammar getGrammar() {
+        return this.grammar;
     }
 
     public Set<String> getNonterminals() {
@@ -40,64 +185,66 @@ public class ParsingTable {
 
     // Printing + Overrides
 
-    // TODO: This mess
     @Override
     public String toString() {
         final StringBuilder output = new StringBuilder();
         final Formatter format = new Formatter(output);
 
-        final List<String> inputSymbols = this.parsetable.keySet().stream()
-                                                         .map(Entry::getValue)
-                                                         .distinct()
-                                                         .collect(Collectors.toList());
+        final int terminalCount = this.grammar.getTerminalCount();
+        final int nonterminalCount = this.grammar.getNonterminalCount();
 
-        // Determine margins (column-sizes)
-        final Map<String, Integer> margins = new HashMap<>();
-        margins.put("NTERM", 0);
-        for (String terminal : inputSymbols) {
-            margins.put(terminal, 0);
+        // Only columns that contain at least one production
+        final List<Integer> inputSymbols = new ArrayList<>();
+        for (int terminal = 0; terminal < terminalCount; terminal++) {
+            for (int row = 0; row < nonterminalCount; row++) {
+                if (this.table[row * terminalCount + terminal] != NO_PRODUCTION) {
+                    inputSymbols.add(terminal);
+                    break;
+                }
+            }
         }
 
-        for (String nonterminal : this.grammar.getNonterminals()) {
+        // Determine margins (column-sizes)
+        int nontermMargin = 0;
+        final int[] margins = new int[terminalCount];
+        for (int terminal : inputSymbols) {
+            margins[terminal] = this.grammar.getSymbol(terminal).length();
+        }
 
-            margins.put("NTERM", Math.max(margins.get("NTERM"), nonterminal.length()));
+        for (int row = 0; row < nonterminalCount; row++) {
+            nontermMargin = Math.max(nontermMargin, this.grammar.getSymbol(terminalCount + row).length());
 
-            for (String terminal : inputSymbols) {
-                final String prod = this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
+            for (int terminal : inputSymbols) {
+                final int prod = this.table[row * terminalCount + terminal];
 
-                final int length;
-                if (prod == null) {
-                    length = 0;
-                } else {
-                    length = prod.length();
+                if (prod != NO_PRODUCTION) {
+                    margins[terminal] = Math.max(margins[terminal], this.productions[prod].getRightside().length());
                 }
-
-                margins.put(terminal, Math.max(margins.get(terminal), Math.max(length, terminal.length())));
             }
         }
 
-        output.append(" ".repeat(margins.get("NTERM")))
+        output.append(" ".repeat(nontermMargin))
               .append("| ");
-        for (String terminal : inputSymbols) {
-            format.format("%-Xs ".replace("X", String.valueOf(margins.get(terminal))), terminal);
+        for (int terminal : inputSymbols) {
+            format.format("%-" + margins[terminal] + "s ", this.grammar.getSymbol(terminal));
         }
         output.append("|\n");
 
-        output.append("-".repeat(margins.get("NTERM")))
+        output.append("-".repeat(nontermMargin))
               .append("+");
-        for (String terminal : inputSymbols) {
-            output.append("-".repeat(margins.get(terminal)));
+        for (int terminal : inputSymbols) {
+            output.append("-".repeat(margins[terminal]));
         }
         output.append("-".repeat(inputSymbols.size() + 1))
               .append("+")
               .append("\n");
 
-        for (String nonterminal : this.grammar.getNonterminals()) {
-            format.format("%-Xs| ".replace("X", String.valueOf(margins.get("NTERM"))), nonterminal);
+        for (int row = 0; row < nonterminalCount; row++) {
+            format.format("%-" + nontermMargin + "s| ", this.grammar.getSymbol(terminalCount + row));
 
-            for (String terminal : inputSymbols) {
-                final String prod = this.parsetable.get(new SimpleEntry<>(nonterminal, terminal));
-                format.format("%-Xs ".replace("X", String.valueOf(margins.get(terminal))), prod == null ? " ".repeat(9) : prod);
+            for (int terminal : inputSymbols) {
+                final int prod = this.table[row * terminalCount + terminal];
+                format.format("%-" + margins[terminal] + "s ", prod == NO_PRODUCTION ? " ".repeat(9) : this.productions[prod].getRightside());
             }
             output.append("|\n");
         }
@@ -0,0 +1,199 @@
+package parser;
+
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+import util.Logger;
+import util.PhaseStats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Binärer Cache für die analysierte {@link Grammar} und die zugehörige {@link ParsingTable}.
+ * <p>
+ * Ein Eintrag ist über den SHA-256-Hash der Grammatikdatei identifiziert, eine geänderte Grammatik
+ * macht den Cache also automatisch ungültig.
+ * Gesucht wird zuerst in der Resource {@link #RESOURCE_NAME} (vom Gradle-Task precomputeParsingTable in die
+ * Jar gelegt), danach im Cache-Verzeichnis auf der Festplatte.
+ * Erst wenn beides fehlschlägt, wird die Grammatik geparst und analysiert.
+ */
+public final class ParsingTableCache {
+
+    public static final String RESOURCE_NAME = "/stups.table";
+
+    private static final int MAGIC = 0x53545054; // "STPT"
+
+    /**
+     * Der Cache-Schlüssel ist nur der Hash der Grammatikdatei, ein geändertes Binärformat erkennt der Cache daran nicht.
+     * Jede Änderung an {@link ParsingTable#writeTo}/{@link ParsingTable#readFrom} oder
+     * {@link Grammar#writeTo}/{@link Grammar#readFrom} muss diese Version erhöhen,
+     * sonst werden veraltete Tabellen aus dem Cache-Verzeichnis stillschweigend geladen.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private ParsingTableCache() {}
+
+    /**
+     * Erzeugt die Cache-Datei für eine Grammatik, wird vom Gradle-Task precomputeParsingTable aufgerufen.
+     * Argumente: Grammatikdatei, Ausgabedatei.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Benutzung: ParsingTableCache <grammar> <output>");
+            return;
+        }
+
+        final byte[] grammarBytes = Files.readAllBytes(Paths.get(args[0]));
+        final ParsingTable table = GrammarAnalyzer.fromGrammar(Grammar.fromFile(Paths.get(args[0]))).getTable();
+
+        final Path output = Paths.get(args[1]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        try (OutputStream out = Files.newOutputStream(output)) {
+            write(table, hash(grammarBytes), out);
+        }
+    }
+
+    /**
+     * Liefert die {@link ParsingTable} zu einer Grammatikdatei.
+     * Bei einem Cache-Miss wird die Tabelle berechnet und im Cache-Verzeichnis abgelegt.
+     */
+    public static ParsingTable fromGrammarFile(Path grammarFile) throws IOException {
+        final byte[] grammarHash = hash(Files.readAllBytes(grammarFile));
+
+        // Precomputed resource from the jar
+        try (InputStream resource = ParsingTableCache.class.getResourceAsStream(RESOURCE_NAME)) {
+            if (resource != null) {
+                final Optional<ParsingTable> table = read(resource, grammarHash);
+
+                if (table.isPresent()) {
+                    Logger.logDebugSupplier(() -> "Loaded parse-table from resource " + RESOURCE_NAME, ParsingTableCache.class);
+                    return table.get();
+                }
+            }
+        }
+
+        // On-disk cache
+        final Path cacheFile = getCacheFile(grammarHash);
+        if (Files.isRegularFile(cacheFile)) {
+            try (InputStream in = Files.newInputStream(cacheFile)) {
+                final Optional<ParsingTable> table = read(in, grammarHash);
+
+                if (table.isPresent()) {
+                    Logger.logDebugSupplier(() -> "Loaded parse-table from " + cacheFile, ParsingTableCache.class);
+                    return table.get();
+                }
+            }
+        }
+
+        // Cache miss
+        final Grammar grammar;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("grammar.read")) {
+            grammar = Grammar.fromFile(grammarFile);
+        }
+
+        final ParsingTable table;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("grammar.analyze")) {
+            table = GrammarAnalyzer.fromGrammar(grammar).getTable();
+        }
+
+        try {
+            // Write to a temporary file first, concurrent compilers must never see a partial cache file
+            Files.createDirectories(cacheFile.getParent());
+            final Path tempFile = Files.createTempFile(cacheFile.getParent(), "stups", ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    write(table, grammarHash, out);
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Only left after a failure, the cache directory is shared with other programs
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            Logger.logErrorSupplier(() -> "Parse-table could not be cached: " + e.getMessage(), ParsingTableCache.class);
+        }
+
+        return table;
+    }
+
+    /**
+     * Das Verzeichnis kann über die System-Property "stups.cache.dir" gesetzt werden,
+     * standardmäßig wird das temporäre Verzeichnis verwendet.
+     */
+    private static Path getCacheFile(byte[] grammarHash) {
+        final String cacheDir = System.getProperty("stups.cache.dir", System.getProperty("java.io.tmpdir"));
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : grammarHash) {
+            hex.append(String.format("%02x", b));
+        }
+
+        return Paths.get(cacheDir, "stups-" + hex + ".table");
+    }
+
+    public static byte[] hash(byte[] grammarBytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(grammarBytes);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void write(ParsingTable table, byte[] grammarHash, OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(grammarHash.length);
+        data.write(grammarHash);
+        table.writeTo(data);
+
+        data.flush();
+    }
+
+    /**
+     * @return Die gecachte Tabelle oder {@link Optional#empty()}, wenn der Cache zu einer anderen Grammatik
+     * oder einem anderen Format gehört oder beschädigt ist.
+     */
+    public static Optional<ParsingTable> read(InputStream in, byte[] grammarHash) {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+
+        try {
+            if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+
+            if (data.readInt() != grammarHash.length) {
+                return Optional.empty();
+            }
+
+            final byte[] cachedHash = new byte[grammarHash.length];
+            data.readFully(cachedHash);
+            if (!Arrays.equals(cachedHash, grammarHash)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(ParsingTable.readFrom(data));
+        } catch (IOException | RuntimeException e) {
+            // A broken cache is never fatal, the table is recomputed instead
+            Logger.logErrorSupplier(() -> "Parse-table cache is invalid: " + e.getMessage(), ParsingTableCache.class);
+            return Optional.empty();
+        }
+    }
+}
@@ -2,13 +2,18 @@ package parser;
 
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.Vocabulary;
+import parser.ast.ParseTreeCleaner;
 import parser.ast.SyntaxTree;
 import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeRebalancer;
 import parser.grammar.Grammar;
 import parser.grammar.GrammarAnalyzer;
 import util.Logger;
+import util.PhaseStats;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.List;
@@ -16,13 +21,26 @@ import java.util.Optional;
 
 /**
  * Leitet eine Liste von Token nach einer Grammatik mit Hilfe einer {@link ParsingTable} ab.
+ * Der Parser hat keinen veränderlichen Zustand und kann von mehreren Threads gleichzeitig benutzt werden.
  */
 public class StupsParser {
 
     private final ParsingTable parsetable;
 
+    /**
+     * Markiert die Symbol-IDs, deren Nodes den Text des Tokens als Value bekommen.
+     */
+    private final boolean[] valueSymbols;
+
     public StupsParser(ParsingTable parsetable) {
         this.parsetable = parsetable;
+
+        final Grammar grammar = parsetable.getGrammar();
+        this.valueSymbols = new boolean[grammar.getSymbolCount()];
+        for (int id = 0; id < grammar.getTerminalCount(); id++) {
+            final String symbol = grammar.getSymbol(id);
+            this.valueSymbols[id] = "IDENTIFIER".equals(symbol) || symbol.endsWith("_LIT");
+        }
     }
 
     public static StupsParser fromGrammar(Grammar grammar) {
@@ -30,6 +48,10 @@ public class StupsParser {
         return new StupsParser(analyzer.getTable());
     }
 
+    public Grammar getGrammar() {
+        return this.parsetable.getGrammar();
+    }
+
     private static String printSourceLine(int line, Collection<? extends Token> token) {
         final Optional<String> srcLine = token.stream()
                                               .filter(tok -> tok.getLine() == line)
@@ -40,88 +62,141 @@ public class StupsParser {
     }
 
     public SyntaxTree parse(List<? extends Token> token, Vocabulary voc) {
+        return this.parse(token, voc, false);
+    }
+
+    /**
+     * Leitet die Token ab und wendet die Aktionen der Grammatik (promote, delifempty, delchild, ...) sofort an,
+     * sobald eine Produktion vollständig abgeleitet wurde. Der konkrete Parsebaum wird dadurch nie komplett aufgebaut.
+     * <p>
+     * Das Ergebnis ist dasselbe wie {@link SyntaxTree#toAbstractSyntaxTree(SyntaxTree, Grammar)} für {@link #parse}.
+     */
+    public SyntaxTree parseAbstractSyntaxTree(List<? extends Token> token, Vocabulary voc) {
+        final SyntaxTree abstractSyntaxTree;
+        try (PhaseStats.Phase ignored = PhaseStats.phase("parse")) {
+            abstractSyntaxTree = this.parse(token, voc, true);
+        }
+
+        try (PhaseStats.Phase ignored = PhaseStats.phase("rebalance")) {
+            SyntaxTreeRebalancer.rebalance(abstractSyntaxTree);
+        }
+
+        return abstractSyntaxTree;
+    }
+
+    /**
+     * @param reduce Ob abgeleitete Produktionen sofort mit dem {@link ParseTreeCleaner} reduziert werden.
+     */
+    private SyntaxTree parse(List<? extends Token> token, Vocabulary voc, boolean reduce) {
         Logger.logDebug("Beginning program-parsing", StupsParser.class);
 
+        final Grammar grammar = this.parsetable.getGrammar();
+        final int[] input = this.parsetable.toTerminalIds(token, voc);
+
         final SyntaxTreeNode root = new SyntaxTreeNode(Grammar.START_SYMBOL, 0);
         final SyntaxTree tree = new SyntaxTree(root);
         final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
         stack.push(root);
 
+        // Die Symbol-IDs zu den Nodes auf dem Stack
+        int[] symbolStack = new int[64];
+        int symbolCount = 0;
+        symbolStack[symbolCount++] = grammar.getSymbolId(Grammar.START_SYMBOL);
+
+        // Die Nichtterminale, deren Produktion noch nicht vollständig abgeleitet wurde
+        final Deque<Reduction> reductions = new ArrayDeque<>();
+
         int inputPosition = 0;
 
         // Parsing
         while (!stack.isEmpty()) {
-            final String top = stack.peek().getName();
+            final int top = symbolStack[symbolCount - 1];
 
-            Logger.logInfo("Parsing Top Symbol: \"" + top + "\"", StupsParser.class);
+            Logger.logInfoSupplier(() -> "Parsing Top Symbol: \"" + stack.peek().getName() + "\"", StupsParser.class);
 
-            final String currentTokenSym;
+            final int currentTerminal;
             int currentLine = 0;
-            if (inputPosition >= token.size()) {
+            if (inputPosition >= input.length) {
                 // Wenn auf dem Stack mehr Nichtterminale liegen als Terminale in der Eingabe vorhanden sind
                 // Die Eingabe wurde komplett konsumiert
 
-                currentTokenSym = "$"; // EOF
+                currentTerminal = Grammar.EOF_ID;
             } else {
                 // Es sind noch Eingabesymbole vorhanden
 
-                currentTokenSym = voc.getSymbolicName(token.get(inputPosition).getType());
+                currentTerminal = input[inputPosition];
                 currentLine = token.get(inputPosition).getLine();
             }
 
-            final String prod = this.parsetable.get(top, currentTokenSym);
+            final int prod = this.parsetable.getProduction(top, currentTerminal);
 
-            if (top.equals(Grammar.EPSILON_SYMBOL)) {
+            if (top == Grammar.EPSILON_ID) {
                 // Wenn auf dem Stack das Epsilonsymbol liegt
 
-//                Logger.logInfo(" :: Skip epsilon", StupsParser.class);
+                final SyntaxTreeNode pop = stack.pop();
+                symbolCount--;
 
-                stack.pop();
-            } else if (top.equals(currentTokenSym)) {
+                if (reduce) {
+                    reduceCompleted(reductions, pop, grammar);
+                }
+            } else if (top == currentTerminal) {
                 // Wenn auf dem Stack ein Terminal liegt (dieses muss mit der Eingabe übereinstimmen)
 
-//                Logger.logInfo(" :: Skip terminal-symbol (Matches input)", StupsParser.class);
-
-                stack.pop();
+                final SyntaxTreeNode pop = stack.pop();
+                symbolCount--;
                 inputPosition++;
-            } else if (this.parsetable.getTerminals().contains(top)) {
+
+                if (reduce) {
+                    reduceCompleted(reductions, pop, grammar);
+                }
+            } else if (grammar.isTerminal(top)) {
                 // Wenn das Terminal auf dem Stack nicht mit der aktuellen Eingabe übereinstimmt
 
-                Logger.logError("Line " + currentLine + " Syntaxerror: Expected " + top + " but found "
-                                + currentTokenSym, StupsParser.class);
+                Logger.logError("Line " + currentLine + " Syntaxerror: Expected " + grammar.getSymbol(top) + " but found "
+                                + tokenName(token, inputPosition, voc), StupsParser.class);
                 Logger.logError(StupsParser.printSourceLine(currentLine, token), StupsParser.class);
 
-                throw new ParseException("Invalid terminal on stack: " + top, tree);
-            } else if (prod == null) {
+                throw new ParseException("Invalid terminal on stack: " + grammar.getSymbol(top), tree);
+            } else if (prod == ParsingTable.NO_PRODUCTION) {
                 // Wenn es für das aktuelle Terminal und das Nichtterminal auf dem Stack keine Regel gibt
 
-                Logger.logError("Line " + currentLine + " Syntaxerror: Didn't expect " + currentTokenSym, StupsParser.class);
+                Logger.logError("Line " + currentLine + " Syntaxerror: Didn't expect "
+                                + tokenName(token, inputPosition, voc), StupsParser.class);
                 Logger.logError(StupsParser.printSourceLine(currentLine, token), StupsParser.class);
 
-                throw new ParseException("No prod. for nonterminal " + top + ", terminal " + currentTokenSym, tree);
+                throw new ParseException("No prod. for nonterminal " + grammar.getSymbol(top) + ", terminal "
+                                         + tokenName(token, inputPosition, voc), tree);
             } else {
                 // Wenn das Nichtterminal auf dem Stack durch (s)eine Produktion ersetzt werden kann
                 // Hier wird auch der AST aufgebaut
 
-                Logger.logInfo(" :: Used rule: \"" + top + " -> " + prod + "\"", StupsParser.class);
+                final int[] rightside = this.parsetable.getRightsideSymbols(prod);
+
+                Logger.logInfoSupplier(() -> " :: Used rule: \"" + this.parsetable.getRule(prod) + "\"", StupsParser.class);
                 final SyntaxTreeNode pop = stack.pop();
+                symbolCount--;
+
+                if (reduce) {
+                    reductions.push(new Reduction(pop, rightside.length));
+                }
 
-                final String[] split = prod.split(" ");
+                if (symbolCount + rightside.length > symbolStack.length) {
+                    symbolStack = Arrays.copyOf(symbolStack, 2 * (symbolCount + rightside.length));
+                }
 
-                for (int i = split.length - 1; i >= 0; i--) {
-                    final SyntaxTreeNode node = new SyntaxTreeNode(split[i], currentLine);
+                for (int i = rightside.length - 1; i >= 0; i--) {
+                    final int symbol = rightside[i];
+                    final SyntaxTreeNode node = new SyntaxTreeNode(grammar.getSymbolHandle(symbol), currentLine);
 
-                    if (inputPosition + i < token.size()) {
+                    if (inputPosition + i < token.size() && this.valueSymbols[symbol]) {
                         // Die Schleife geht in der Eingabe weiter
-                        final Token currentTok = token.get(inputPosition + i);
-
                         // Die Token mit semantischem Inhalt auswählen
-                        if ("IDENTIFIER".equals(split[i]) || split[i].endsWith("_LIT")) {
-                            node.setValue(currentTok.getText());
-                        }
+
+                        node.setValue(token.get(inputPosition + i).getText());
                     }
 
                     stack.push(node);
+                    symbolStack[symbolCount++] = symbol;
                     pop.addChild(node);
                 }
             }
@@ -131,4 +206,64 @@ public class StupsParser {
 
         return tree;
     }
+
+    /**
+     * Ein Blatt wurde abgeleitet, dadurch können auch die Produktionen darüber vollständig werden.
+     * Diese werden von unten nach oben reduziert, die Wurzel zuletzt.
+     */
+    private static void reduceCompleted(Deque<Reduction> reductions, SyntaxTreeNode leaf, Grammar grammar) {
+        SyntaxTreeNode completed = leaf;
+        boolean empty = true; // Leaves have no children
+
+        while (!reductions.isEmpty()) {
+            final Reduction parent = reductions.peek();
+
+            if (empty) {
+                parent.emptyChildren.add(completed);
+            }
+
+            parent.remaining--;
+            if (parent.remaining > 0) {
+                return;
+            }
+
+            reductions.pop();
+            empty = ParseTreeCleaner.reduce(parent.node, parent.emptyChildren, grammar);
+            completed = parent.node;
+        }
+
+        // Root is complete
+        ParseTreeCleaner.reduceRoot(completed, grammar);
+    }
+
+    /**
+     * Der Name des Tokens an der Eingabeposition, wird nur für Fehlermeldungen benötigt.
+     */
+    private static String tokenName(List<? extends Token> token, int inputPosition, Vocabulary voc) {
+        if (inputPosition >= token.size()) {
+            return Grammar.EOF_SYMBOL;
+        }
+
+        return voc.getSymbolicName(token.get(inputPosition).getType());
+    }
+
+    /**
+     * Ein Nichtterminal, dessen Produktion gerade abgeleitet wird.
+     */
+    private static final class Reduction {
+
+        private final SyntaxTreeNode node;
+        private final Collection<SyntaxTreeNode> emptyChildren;
+
+        /**
+         * Die Anzahl der Symbole der Produktion, welche noch nicht abgeleitet wurden.
+         */
+        private int remaining;
+
+        private Reduction(SyntaxTreeNode node, int remaining) {
+            this.node = node;
+            this.emptyChildren = new ArrayList<>(remaining);
+            this.remaining = remaining;
+        }
+    }
 }
@@ -0,0 +1,297 @@
+package parser.ast;
+
+import parser.grammar.SymbolTable;
+import util.IntStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Speichersparende Darstellung eines Abstrakten Syntaxbaums als parallele int-Arrays.
+ * Ein Knoten ist nur ein Index in diese Arrays, es gibt keine Objekte pro Knoten.
+ * <ul>
+ *     <li>Der Name ist das Handle aus der {@link SymbolTable}</li>
+ *     <li>Der Wert verweist auf eine Tabelle, in der jeder String pro Baum nur einmal vorkommt.
+ *         Gleiche Bezeichner haben dadurch die gleiche Wert-ID, darüber können z.B. Variablen indiziert werden</li>
+ *     <li>Die Kinder sind über das erste Kind und den nächsten Geschwisterknoten verkettet</li>
+ * </ul>
+ * Die Indizes sind in Pre-Order vergeben, wie bei {@link SyntaxTreeTraversal#preOrder(SyntaxTreeNode, Consumer)}.
+ * Die Wurzel hat Index 0 und jeder Teilbaum belegt einen zusammenhängenden Bereich.
+ * Weitere Informationen pro Knoten (z.B. Typen) können deshalb in Arrays der Größe {@link #size()} abgelegt werden.
+ */
+public final class CompactSyntaxTree {
+
+    /**
+     * Kein Knoten, z.B. wenn es kein (weiteres) Kind gibt.
+     */
+    public static final int NONE = -1;
+
+    private final int[] kind;
+    private final int[] value;
+    private final int[] line;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+
+    /**
+     * Die Knotenwerte, indiziert über {@link #value}.
+     */
+    private final String[] values;
+
+    /**
+     * Das Handle jedes Werts, der ein Grammatiksymbol ist (z.B. Operatoren und Typen), sonst {@link SymbolTable#NONE}.
+     * Indiziert über {@link #value}.
+     */
+    private final int[] valueSymbols;
+
+    private CompactSyntaxTree(int[] kind, int[] value, int[] line, int[] firstChild, int[] nextSibling,
+                              String[] values) {
+        this.kind = kind;
+        this.value = value;
+        this.line = line;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.values = values;
+
+        this.valueSymbols = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.valueSymbols[i] = SymbolTable.lookup(values[i]);
+        }
+    }
+
+    public static CompactSyntaxTree fromSyntaxTree(SyntaxTree tree) {
+        final int size = Math.toIntExact(tree.size());
+
+        final int[] kind = new int[size];
+        final int[] value = new int[size];
+        final int[] line = new int[size];
+        final int[] firstChild = new int[size];
+        final int[] nextSibling = new int[size];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+
+        final StringTable values = new StringTable();
+
+        // Das zuletzt eingefügte Kind jedes Knotens, dort wird der nächste Geschwisterknoten angehängt
+        final int[] lastChild = new int[size];
+
+        // Knoten und Index des Parents, die Wurzel hat keinen Parent
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        final IntStack parents = new IntStack();
+        stack.push(tree.getRoot());
+        parents.push(NONE);
+
+        int next = 0;
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode current = stack.pop();
+            final int parent = parents.pop();
+            final int index = next;
+            next++;
+
+            kind[index] = current.getSymbol();
+            value[index] = values.intern(current.getValue());
+            line[index] = current.getLine();
+
+            if (parent != NONE) {
+                if (firstChild[parent] == NONE) {
+                    firstChild[parent] = index;
+                } else {
+                    nextSibling[lastChild[parent]] = index;
+                }
+                lastChild[parent] = index;
+            }
+
+            // Rückwärts, damit das erste Kind den nächsten Index bekommt
+            final List<SyntaxTreeNode> children = current.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                parents.push(index);
+            }
+        }
+
+        return new CompactSyntaxTree(kind, value, line, firstChild, nextSibling, values.toArray());
+    }
+
+    /**
+     * Die Knoten des {@link SyntaxTree} in der Reihenfolge ihrer Indizes in {@link #fromSyntaxTree(SyntaxTree)}.
+     * Damit können Ergebnisse pro Index wieder den ursprünglichen Knoten zugeordnet werden.
+     */
+    public static List<SyntaxTreeNode> nodeOrder(SyntaxTree tree) {
+        final List<SyntaxTreeNode> nodes = new ArrayList<>();
+        SyntaxTreeTraversal.preOrder(tree.getRoot(), nodes::add);
+
+        return nodes;
+    }
+
+    /**
+     * Baut den Baum wieder aus {@link SyntaxTreeNode}s auf, z.B. zum Vergleichen oder Ausgeben.
+     */
+    public SyntaxTree toSyntaxTree() {
+        final SyntaxTreeNode[] nodes = new SyntaxTreeNode[this.size()];
+
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = new SyntaxTreeNode(this.kind[node], this.line[node]);
+            nodes[node].setValue(this.getValue(node));
+        }
+
+        for (int node = 0; node < nodes.length; node++) {
+            for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+                nodes[node].addChild(nodes[child]);
+            }
+        }
+
+        return new SyntaxTree(nodes[0]);
+    }
+
+    // Getters
+
+    public int getRoot() {
+        return 0;
+    }
+
+    public int size() {
+        return this.kind.length;
+    }
+
+    public String getName(int node) {
+        return SymbolTable.getName(this.kind[node]);
+    }
+
+    /**
+     * @return Das Handle des Namens aus der {@link SymbolTable}.
+     */
+    public int getSymbol(int node) {
+        return this.kind[node];
+    }
+
+    public String getValue(int node) {
+        return this.values[this.value[node]];
+    }
+
+    /**
+     * @return Die Wert-ID, Knoten mit gleichem Wert haben die gleiche ID.
+     */
+    public int getValueId(int node) {
+        return this.value[node];
+    }
+
+    /**
+     * @return Das Handle des Werts aus der {@link SymbolTable} oder {@link SymbolTable#NONE},
+     *     wenn der Wert kein Grammatiksymbol ist (z.B. Bezeichner und Literale).
+     */
+    public int getValueSymbol(int node) {
+        return this.valueSymbols[this.value[node]];
+    }
+
+    /**
+     * Die Wert-IDs sind 0 bis getValueCount() - 1.
+     */
+    public int getValueCount() {
+        return this.values.length;
+    }
+
+    /**
+     * Sucht die Wert-ID eines Strings, dafür werden alle unterschiedlichen Werte abgelaufen.
+     *
+     * @return Die Wert-ID oder {@link #NONE}, wenn kein Knoten diesen Wert hat.
+     */
+    public int findValueId(String value) {
+        for (int id = 0; id < this.values.length; id++) {
+            if (this.values[id].equals(value)) {
+                return id;
+            }
+        }
+
+        return NONE;
+    }
+
+    public int getLine(int node) {
+        return this.line[node];
+    }
+
+    /**
+     * @return Das erste Kind oder {@link #NONE}, wenn der Knoten keine Kinder hat.
+     */
+    public int getFirstChild(int node) {
+        return this.firstChild[node];
+    }
+
+    /**
+     * @return Der nächste Geschwisterknoten oder {@link #NONE}, wenn der Knoten das letzte Kind ist.
+     */
+    public int getNextSibling(int node) {
+        return this.nextSibling[node];
+    }
+
+    /**
+     * Das Kind an Position index, die Kinder werden dafür vom ersten Kind aus abgelaufen.
+     */
+    public int getChild(int node, int index) {
+        int child = this.firstChild[node];
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = this.nextSibling[child];
+        }
+
+        if (child == NONE) {
+            throw new IndexOutOfBoundsException("Node " + node + " has no child " + index);
+        }
+
+        return child;
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Entspricht {@link SyntaxTreeNode#isEmpty()}: Der Knoten hat keine Kinder.
+     */
+    public boolean isEmpty(int node) {
+        return this.firstChild[node] == NONE;
+    }
+
+    // Printing
+
+    /**
+     * Entspricht {@link SyntaxTreeNode#nodePrint(String)}.
+     */
+    public String nodePrint(int node, String prefix) {
+        final StringBuilder children = new StringBuilder();
+        for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+            children.append(prefix).append("└── ").append(this.getName(child)).append(": ").append(this.getValue(child)).append('\n');
+        }
+
+        return prefix + this.getName(node) + ": " + this.getValue(node) + "\n"
+               + prefix + children.toString().trim();
+    }
+
+    /**
+     * Vergibt für jeden unterschiedlichen String einen fortlaufenden Index.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private int intern(String string) {
+            return this.indices.computeIfAbsent(string, key -> {
+                this.strings.add(key);
+                return this.strings.size() - 1;
+            });
+        }
+
+        private String[] toArray() {
+            return this.strings.toArray(new String[0]);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import util.Logger;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Wendet in der Grammatik definierte Regeln auf einen Parsebaum an.
@@ -25,130 +27,177 @@ public final class ParseTreeCleaner {
     public static void clean(SyntaxTree parseTree, Grammar grammar) {
         Logger.logDebug("Beginning cleaning of parse-tree", ParseTreeCleaner.class);
 
-        deleteChildren(parseTree, grammar);
-        deleteIfEmpty(parseTree, grammar);
-        promote(parseTree, grammar);
-
-        renameTo(parseTree, grammar);
-        nameToValue(parseTree, grammar);
-        valueToValue(parseTree, grammar);
+        final SyntaxTreeNode root = parseTree.getRoot();
+        cleanChildren(root, grammar);
+        reduceRoot(root, grammar);
 
         Logger.logDebug("Successfully cleaned the parse-tree", ParseTreeCleaner.class);
         Logger.logDebugSupplier(() -> parseTree.printToImage("ParseTreeCleaned"), ParseTreeCleaner.class);
     }
 
     /**
-     * Es werden Werte nach oben gereicht von [promote]-able Nodes.
+     * Führt alle Schritte aus {@link #clean(SyntaxTree, Grammar)} in einem einzigen Durchlauf für root aus.
+     * Die Reihenfolge ist so gewählt, dass jeder Schritt denselben Zustand sieht wie bei getrennten Durchläufen:
+     * <ol>
+     *     <li>[delchildren] und [delifempty] für die Kinder von root</li>
+     *     <li>[promote] für die übrig gebliebenen Kinder</li>
+     *     <li>[renameto], [nametoval] und [valtoval] für die Kinder, deren Teilbäume danach fertig sind</li>
+     * </ol>
+     * Für root selbst passieren die letzten beiden Schritte erst im Parent, da root dort noch hochgereicht werden kann.
      */
-    public static void promote(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning up-propagation of nodes", ParseTreeCleaner.class);
-        promote(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Promoted nodes", ParseTreeCleaner.class);
-    }
+    private static void cleanChildren(SyntaxTreeNode root, Grammar grammar) {
+        // Die Knoten, für die reduce true geliefert hat, Blätter sind immer leer
+        final Collection<SyntaxTreeNode> emptyNodes = new HashSet<>();
 
-    private static void promote(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
+        SyntaxTreeTraversal.postOrder(root, node -> {
+            if (node != root && reduce(node, emptyNodes, grammar)) {
+                emptyNodes.add(node);
+            }
+        });
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            promote(child, grammar);
+        reduce(root, emptyNodes, grammar);
+    }
 
-            // Impliziert, dass die for-schleife nur 1x läuft, deshalb ist child das richtige Kind
-            if (!grammar.canPromoteChild(root)) {
-                continue;
+    /**
+     * Ein Schritt von {@link #cleanChildren(SyntaxTreeNode, Grammar)} für root, dessen Kinder bereits reduziert sind.
+     * Der Parser ruft dies direkt beim Ableiten auf, sobald alle Symbole einer Produktion abgearbeitet wurden,
+     * dadurch muss der konkrete Parsebaum nie vollständig aufgebaut werden.
+     *
+     * @param emptyChildren Enthält mindestens die Kinder, für die der eigene Aufruf von reduce true geliefert hat.
+     *                      Blätter sind immer leer.
+     *
+     * @return Ob root nach dem Löschen der redundanten Kinder leer war, benötigt für [delchildren] im Parent.
+     */
+    public static boolean reduce(SyntaxTreeNode root, Collection<SyntaxTreeNode> emptyChildren, Grammar grammar) {
+        final List<SyntaxTreeNode> children = root.getChildren();
+
+        // [delchildren], checks emptiness before [delifempty] was applied to the child
+        children.removeIf(child -> {
+            final boolean delete = emptyChildren.contains(child) && grammar.canDeleteChild(root.getSymbol(), child.getSymbol());
+            if (delete) {
+                Logger.logInfoSupplier(() -> "Removing child \"" + child.getName() + "\" from root \"" + root.getName() + "\"\n"
+                                             + root.nodePrint("\t\t"), ParseTreeCleaner.class);
             }
+            return delete;
+        });
 
-            Logger.logInfo("Promoting child \"" + child.getName() + "\" to root \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+        final boolean empty = children.isEmpty();
 
-            root.setName(child.getName());
-            root.setValue(child.getValue());
-            root.setChildren(child.getChildren());
+        // [delifempty]
+        children.removeIf(child -> {
+            final boolean delete = grammar.canDeleteIfEmpty(child);
+            if (delete) {
+                Logger.logInfoSupplier(() -> "Removing node \"" + child.getName() + "\"", ParseTreeCleaner.class);
+            }
+            return delete;
+        });
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
+        for (SyntaxTreeNode child : children) {
+            promoteChild(child, grammar);
+            finish(child, grammar);
         }
 
-        root.getChildren().removeAll(toRemove);
+        return empty;
     }
 
     /**
-     * Löscht leere Knoten mit [delIfEmpty].
+     * Der letzte Schritt für die Wurzel, da diese keinen Parent hat, der sie reduziert.
      */
-    public static void deleteIfEmpty(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning removal of empty nodes", ParseTreeCleaner.class);
-        deleteIfEmpty(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Removed all empty nodes", ParseTreeCleaner.class);
+    public static void reduceRoot(SyntaxTreeNode root, Grammar grammar) {
+        promoteChild(root, grammar);
+        finish(root, grammar);
     }
 
-    private static void deleteIfEmpty(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
-
-        for (SyntaxTreeNode child : root.getChildren()) {
-            deleteIfEmpty(child, grammar);
-
-            if (!grammar.canDeleteIfEmpty(child)) {
-                continue;
-            }
+    /**
+     * [promote] für einen Knoten, dessen Kinder bereits hochgereicht wurden.
+     */
+    private static void promoteChild(SyntaxTreeNode root, Grammar grammar) {
+        if (!grammar.canPromoteChild(root)) {
+            return;
+        }
 
-            Logger.logInfo("Removing node \"" + child.getName() + "\"", ParseTreeCleaner.class);
+        final SyntaxTreeNode child = root.getChildren().get(0);
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
-        }
+        Logger.logInfoSupplier(() -> "Promoting child \"" + child.getName() + "\" to root \"" + root.getName() + "\"\n"
+                                     + root.nodePrint("\t\t"), ParseTreeCleaner.class);
 
-        root.getChildren().removeAll(toRemove);
+        root.setSymbol(child.getSymbol());
+        root.setValue(child.getValue());
+        root.setChildren(child.getChildren());
     }
 
     /**
-     * Löscht redundante Informationen in [delChildren]-Nodes (z.b. IF-child von COND) und Epsilon-Nodes.
+     * [renameto], [nametoval] und [valtoval] für einen Knoten, dessen Kinder bereits fertig sind.
      */
-    public static void deleteChildren(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning removal of redundant children", ParseTreeCleaner.class);
-        deleteChildren(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Redundant children were removed", ParseTreeCleaner.class);
-    }
+    private static void finish(SyntaxTreeNode root, Grammar grammar) {
+        // Nodes without children were never renamed
+        if (!root.isEmpty() && grammar.canBeRenamed(root)) {
+            Logger.logInfoSupplier(() -> "Renaming node \"" + root.getName() + "\" to \"" + grammar.getNewName(root) + "\"", ParseTreeCleaner.class);
 
-    private static void deleteChildren(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
-
-        for (SyntaxTreeNode child : root.getChildren()) {
-            deleteChildren(child, grammar);
+            root.setSymbol(grammar.getNewSymbol(root.getSymbol()));
+        }
 
-            if (!grammar.canDeleteChild(root, child)) {
-                continue;
-            }
+        for (Iterator<SyntaxTreeNode> it = root.getChildren().iterator(); it.hasNext(); ) {
+            final SyntaxTreeNode child = it.next();
 
-            Logger.logInfo("Removing child \"" + child.getName() + "\" from root \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+            if (grammar.canMoveNameToVal(root, child)) {
+                Logger.logInfoSupplier(() -> "Moving child-name \"" + child.getName() + "\" to parent-value of node \"" + root.getName() + "\"\n"
+                                             + root.nodePrint("\t\t"), ParseTreeCleaner.class);
 
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
+                root.setValue(child.getName());
+                it.remove();
+            }
         }
 
-        root.getChildren().removeAll(toRemove);
+        valueToValue(root, grammar);
     }
 
     /**
-     * Führt Umbenennungen durch.
+     * Es werden Werte nach oben gereicht von [promote]-able Nodes.
      */
-    private static void renameTo(SyntaxTree parseTree, Grammar grammar) {
-        Logger.logDebug(" :: Beginning renaming of nodes", ParseTreeCleaner.class);
-        renameTo(parseTree.getRoot(), grammar);
-        Logger.logDebug(" :: Renamed nodes", ParseTreeCleaner.class);
+    public static void promote(SyntaxTree parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning up-propagation of nodes", ParseTreeCleaner.class);
+        SyntaxTreeTraversal.postOrder(parseTree.getRoot(), node -> promoteChild(node, grammar));
+        Logger.logDebug(" :: Promoted nodes", ParseTreeCleaner.class);
     }
 
-    private static void renameTo(SyntaxTreeNode root, Grammar grammar) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            renameTo(child, grammar);
+    /**
+     * Löscht leere Knoten mit [delIfEmpty].
+     */
+    public static void deleteIfEmpty(SyntaxTree parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning removal of empty nodes", ParseTreeCleaner.class);
+        SyntaxTreeTraversal.postOrder(parseTree.getRoot(), node -> deleteIfEmpty(node, grammar));
+        Logger.logDebug(" :: Removed all empty nodes", ParseTreeCleaner.class);
+    }
 
-            if (!grammar.canBeRenamed(root)) {
-                continue;
+    private static void deleteIfEmpty(SyntaxTreeNode root, Grammar grammar) {
+        root.getChildren().removeIf(child -> {
+            final boolean delete = grammar.canDeleteIfEmpty(child);
+            if (delete) {
+                Logger.logInfoSupplier(() -> "Removing node \"" + child.getName() + "\"", ParseTreeCleaner.class);
             }
+            return delete;
+        });
+    }
 
-            Logger.logInfo("Renaming node \"" + root.getName() + "\" to \"" + grammar.getNewName(root) + "\"", ParseTreeCleaner.class);
+    /**
+     * Löscht redundante Informationen in [delChildren]-Nodes (z.b. IF-child von COND) und Epsilon-Nodes.
+     */
+    public static void deleteChildren(SyntaxTree parseTree, Grammar grammar) {
+        Logger.logDebug(" :: Beginning removal of redundant children", ParseTreeCleaner.class);
+        SyntaxTreeTraversal.postOrder(parseTree.getRoot(), node -> deleteChildren(node, grammar));
+        Logger.logDebug(" :: Redundant children were removed", ParseTreeCleaner.class);
+    }
 
-            root.setName(grammar.getNewName(root));
-        }
+    private static void deleteChildren(SyntaxTreeNode root, Grammar grammar) {
+        root.getChildren().removeIf(child -> {
+            final boolean delete = grammar.canDeleteChild(root, child);
+            if (delete) {
+                Logger.logInfoSupplier(() -> "Removing child \"" + child.getName() + "\" from root \"" + root.getName() + "\"\n"
+                                             + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+            }
+            return delete;
+        });
     }
 
     /**
@@ -156,30 +205,22 @@ public final class ParseTreeCleaner {
      */
     public static void nameToValue(SyntaxTree parseTree, Grammar grammar) {
         Logger.logDebug(" :: Beginning up-propagation of node-names", ParseTreeCleaner.class);
-        nameToValue(parseTree.getRoot(), grammar);
+        SyntaxTreeTraversal.postOrder(parseTree.getRoot(), node -> nameToValue(node, grammar));
         Logger.logDebug(" :: Moved node-names to parent-values", ParseTreeCleaner.class);
     }
 
     private static void nameToValue(SyntaxTreeNode root, Grammar grammar) {
-        final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
+        for (Iterator<SyntaxTreeNode> it = root.getChildren().iterator(); it.hasNext(); ) {
+            final SyntaxTreeNode child = it.next();
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            nameToValue(child, grammar);
+            if (grammar.canMoveNameToVal(root, child)) {
+                Logger.logInfoSupplier(() -> "Moving child-name \"" + child.getName() + "\" to parent-value of node \"" + root.getName() + "\"\n"
+                                             + root.nodePrint("\t\t"), ParseTreeCleaner.class);
 
-            if (!grammar.canMoveNameToVal(root, child)) {
-                continue;
+                root.setValue(child.getName());
+                it.remove();
             }
-
-            Logger.logInfo("Moving child-name \"" + child.getName() + "\" to parent-value of node \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), ParseTreeCleaner.class);
-
-            root.setValue(child.getName());
-
-            child.setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
-            toRemove.add(child);
         }
-
-        root.getChildren().removeAll(toRemove);
     }
 
     /**
@@ -189,7 +230,7 @@ public final class ParseTreeCleaner {
      */
     public static void valueToValue(SyntaxTree parseTree, Grammar grammar) {
         Logger.logDebug(" :: Beginning up-propagation of node-values", ParseTreeCleaner.class);
-        valueToValue(parseTree.getRoot(), grammar);
+        SyntaxTreeTraversal.postOrder(parseTree.getRoot(), node -> valueToValue(node, grammar));
         Logger.logDebug(" :: Moved node-values to parent-values", ParseTreeCleaner.class);
     }
 
@@ -197,30 +238,27 @@ public final class ParseTreeCleaner {
         final Collection<SyntaxTreeNode> toRemove = new HashSet<>();
 
         for (SyntaxTreeNode child : root.getChildren()) {
-            valueToValue(child, grammar);
-
             if (!grammar.hasValToVal(root, child) || !root.getValue().isBlank()) {
                 continue;
             }
 
             if (root.getChildren().size() == 2
-                && root.getChildren().get(0).getName().equals(root.getChildren().get(1).getName())) {
+                && root.getChildren().get(0).getSymbol() == root.getChildren().get(1).getSymbol()) {
                 // Case where variable is assigned another variable with the same name
 
-                Logger.logInfo("Moving child-value \"" + root.getChildren().get(1).getValue()
-                               + "\" to parent-value of node \"" + root.getName() + "\"\n"
-                               + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+                Logger.logInfoSupplier(() -> "Moving child-value \"" + root.getChildren().get(1).getValue()
+                                             + "\" to parent-value of node \"" + root.getName() + "\"\n"
+                                             + root.nodePrint("\t\t"), ParseTreeCleaner.class);
 
                 root.setValue(root.getChildren().get(1).getValue());
 
-                root.getChildren().get(1).setValue("REMOVE"); // If both childs have the same identity both are removed, so change one
                 toRemove.add(root.getChildren().get(1));
 
             } else {
                 // Usual case where an expression is assigned
 
-                Logger.logInfo("Moving child value \"" + child.getValue() + "\" to parent-value of node \""
-                               + root.getName() + "\"\n" + root.nodePrint("\t\t"), ParseTreeCleaner.class);
+                Logger.logInfoSupplier(() -> "Moving child value \"" + child.getValue() + "\" to parent-value of node \""
+                                             + root.getName() + "\"\n" + root.nodePrint("\t\t"), ParseTreeCleaner.class);
 
                 root.setValue(child.getValue());
                 toRemove.add(child);
@@ -5,7 +5,6 @@ import util.GraphvizCaller;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Objects;
 
 /**
  * Repräsentiert konkrete und abstrakte Parse-/Syntaxbäume.
@@ -106,7 +105,7 @@ public class SyntaxTree {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.root);
+        return this.root.structuralHashCode();
     }
 
     @Override
@@ -118,7 +117,7 @@ public class SyntaxTree {
             return false;
         }
         final SyntaxTree that = (SyntaxTree) o;
-        return this.root.equals(that.root);
+        return this.root.structurallyEquals(that.root);
     }
 
     @Override
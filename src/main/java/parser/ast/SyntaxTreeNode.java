@@ -1,11 +1,14 @@
 package parser.ast;
 
+import parser.grammar.SymbolTable;
+import util.IdAllocator;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -14,28 +17,51 @@ import java.util.stream.Collectors;
  */
 public class SyntaxTreeNode {
 
-    private final UUID id;
+    private final int id;
     private final int line;
-    private String name;
+    /**
+     * Der Name als Handle aus der {@link SymbolTable}.
+     */
+    private int symbol;
     private String value;
     private List<SyntaxTreeNode> children = new ArrayList<>();
 
     public SyntaxTreeNode(String name, int line) {
-        this.id = UUID.randomUUID();
-        this.name = name;
+        this(SymbolTable.intern(name), line);
+    }
+
+    public SyntaxTreeNode(int symbol, int line) {
+        this.id = IdAllocator.nextId();
+        this.symbol = symbol;
         this.line = line;
         this.value = "";
     }
 
     public SyntaxTreeNode deepCopy() {
-        final SyntaxTreeNode newNode = new SyntaxTreeNode(this.name, this.line);
-
-        newNode.value = this.value;
-        newNode.children = this.children.stream()
-                                        .map(SyntaxTreeNode::deepCopy)
-                                        .collect(Collectors.toList());
+        final SyntaxTreeNode newRoot = new SyntaxTreeNode(this.symbol, this.line);
+        newRoot.value = this.value;
+
+        // Paare aus Original und Kopie, die Kopie bekommt ihre Kinder beim Abarbeiten
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        stack.push(newRoot);
+
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode copy = stack.pop();
+            final SyntaxTreeNode original = stack.pop();
+
+            copy.children = new ArrayList<>(original.children.size());
+            for (SyntaxTreeNode child : original.children) {
+                final SyntaxTreeNode childCopy = new SyntaxTreeNode(child.symbol, child.line);
+                childCopy.value = child.value;
+                copy.children.add(childCopy);
+
+                stack.push(child);
+                stack.push(childCopy);
+            }
+        }
 
-        return newNode;
+        return newRoot;
     }
 
     // Getters, Setters
@@ -45,7 +71,18 @@ public class SyntaxTreeNode {
     }
 
     public long size() {
-        return 1 + this.children.stream().mapToLong(SyntaxTreeNode::size).sum();
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(this);
+
+        long size = 0;
+        while (!stack.isEmpty()) {
+            size++;
+            for (SyntaxTreeNode child : stack.pop().children) {
+                stack.push(child);
+            }
+        }
+
+        return size;
     }
 
     public String getValue() {
@@ -78,73 +115,129 @@ public class SyntaxTreeNode {
     }
 
     public String getName() {
-        return this.name;
+        return SymbolTable.getName(this.symbol);
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.symbol = SymbolTable.intern(name);
     }
 
-    public UUID getId() {
+    public int getSymbol() {
+        return this.symbol;
+    }
+
+    public void setSymbol(int symbol) {
+        this.symbol = symbol;
+    }
+
+    public int getId() {
         return this.id;
     }
 
     // Printing
 
     // toString() und treePrint() von hier: https://stackoverflow.com/a/8948691
-    private void treePrint(StringBuilder buffer, String prefix, String childrenPrefix) {
-        buffer.append(prefix);
-        buffer.append(this.name);
-        if (!this.value.isBlank()) {
-            buffer.append(": ");
-            buffer.append(this.value);
-        }
-        buffer.append('\n');
-
-        for (final Iterator<SyntaxTreeNode> it = this.children.listIterator(); it.hasNext(); ) {
-            final SyntaxTreeNode next = it.next();
-            if (it.hasNext()) {
-                next.treePrint(buffer, childrenPrefix + "├── ", childrenPrefix + "│   ");
-            } else {
-                next.treePrint(buffer, childrenPrefix + "└── ", childrenPrefix + "    ");
+    // Der Stack enthält jeweils Knoten, Prefix und Prefix der Kinder
+    private void treePrint(StringBuilder buffer) {
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.push(this);
+        stack.push("");
+        stack.push("");
+
+        while (!stack.isEmpty()) {
+            final String childrenPrefix = (String) stack.pop();
+            final String prefix = (String) stack.pop();
+            final SyntaxTreeNode current = (SyntaxTreeNode) stack.pop();
+
+            buffer.append(prefix);
+            buffer.append(current.getName());
+            if (!current.value.isBlank()) {
+                buffer.append(": ");
+                buffer.append(current.value);
+            }
+            buffer.append('\n');
+
+            // Rückwärts, damit das erste Kind zuerst ausgegeben wird
+            for (int i = current.children.size() - 1; i >= 0; i--) {
+                stack.push(current.children.get(i));
+                if (i < current.children.size() - 1) {
+                    stack.push(childrenPrefix + "├── ");
+                    stack.push(childrenPrefix + "│   ");
+                } else {
+                    stack.push(childrenPrefix + "└── ");
+                    stack.push(childrenPrefix + "    ");
+                }
             }
         }
     }
 
     public String nodePrint(String prefix) {
-        return prefix + this.name + ": " + this.value + "\n"
+        return prefix + this.getName() + ": " + this.value + "\n"
                + prefix + this.children.stream()
-                                       .map(child -> prefix + "└── " + child.name + ": " + child.value + "\n")
+                                       .map(child -> prefix + "└── " + child.getName() + ": " + child.value + "\n")
                                        .collect(Collectors.joining()).trim();
     }
 
-    // Overrides
+    // Comparison
 
-    @Override
-    @SuppressWarnings("NonFinalFieldReferencedInHashCode")
-    public int hashCode() {
-        return Objects.hash(this.line, this.name, this.value, this.children);
-    }
+    /**
+     * Vergleicht zwei Teilbäume anhand von Zeile, Name, Wert und Kindern.
+     * {@link #equals(Object)} vergleicht nur die Identität, damit Knoten in Hash-Strukturen
+     * nicht bei jedem Zugriff ihren ganzen Teilbaum hashen.
+     */
+    public boolean structurallyEquals(SyntaxTreeNode other) {
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(this);
+        stack.push(other);
 
-    @Override
-    @SuppressWarnings("NonFinalFieldReferenceInEquals")
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode right = stack.pop();
+            final SyntaxTreeNode left = stack.pop();
+
+            if (left == right) {
+                continue;
+            }
+            if (left.line != right.line || left.symbol != right.symbol || !left.value.equals(right.value)
+                || left.children.size() != right.children.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < left.children.size(); i++) {
+                stack.push(left.children.get(i));
+                stack.push(right.children.get(i));
+            }
         }
-        if (o == null || this.getClass() != o.getClass()) {
-            return false;
+
+        return true;
+    }
+
+    /**
+     * Der zu {@link #structurallyEquals(SyntaxTreeNode)} passende Hash über den ganzen Teilbaum.
+     */
+    public int structuralHashCode() {
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(this);
+
+        int hash = 1;
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode current = stack.pop();
+
+            hash = 31 * hash + Objects.hash(current.line, current.symbol, current.value, current.children.size());
+            for (SyntaxTreeNode child : current.children) {
+                stack.push(child);
+            }
         }
-        final SyntaxTreeNode that = (SyntaxTreeNode) o;
-        return this.line == that.line && this.name.equals(that.name)
-               && this.value.equals(that.value) && this.children.equals(that.children);
+
+        return hash;
     }
 
+    // Overrides
+
     // toString() und treePrint() von hier: https://stackoverflow.com/a/8948691
     @Override
     public String toString() {
         final StringBuilder buffer = new StringBuilder();
-        this.treePrint(buffer, "", "");
+        this.treePrint(buffer);
         return buffer.toString();
     }
 }
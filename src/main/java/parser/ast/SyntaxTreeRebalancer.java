@@ -1,8 +1,13 @@
 package parser.ast;
 
+import parser.grammar.SymbolTable;
 import util.Logger;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -78,40 +83,37 @@ public final class SyntaxTreeRebalancer {
      */
     public static void flip(SyntaxTree abstractSyntaxTree) {
         Logger.logDebug(" :: Flipping tree for ltr evaluation", SyntaxTreeRebalancer.class);
-        flip(abstractSyntaxTree.getRoot());
+        SyntaxTreeTraversal.postOrder(abstractSyntaxTree.getRoot(), node -> Collections.reverse(node.getChildren()));
         Logger.logDebug(" :: Successfully flipped tree", SyntaxTreeRebalancer.class);
     }
 
-    private static void flip(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            flip(child);
-        }
-
-        Collections.reverse(root.getChildren());
-    }
-
     /**
      * Kommutative Ausdrücke werden gespiegelt, damit die tiefen Teilexpressions zuerst berechnet werden.
      */
     public static void flipCommutativeExpr(SyntaxTree abstractSyntaxTree) {
         Logger.logDebug(" :: Flipping commutative expressions for stack efficiency", SyntaxTreeRebalancer.class);
-        flipCommutativeExpr(abstractSyntaxTree.getRoot());
+        // Die Größen der Teilbäume werden beim Hochlaufen gemerkt, sonst wäre der Durchlauf quadratisch
+        final Map<SyntaxTreeNode, Long> sizes = new IdentityHashMap<>();
+        SyntaxTreeTraversal.postOrder(abstractSyntaxTree.getRoot(), node -> flipCommutativeExpr(node, sizes));
         Logger.logDebug(" :: Succesfully optimized stack efficiency", SyntaxTreeRebalancer.class);
     }
 
-    private static void flipCommutativeExpr(SyntaxTreeNode root) {
+    private static void flipCommutativeExpr(SyntaxTreeNode root, Map<SyntaxTreeNode, Long> sizes) {
+        long size = 1;
         for (SyntaxTreeNode child : root.getChildren()) {
-            flipCommutativeExpr(child);
+            size += sizes.get(child);
         }
+        sizes.put(root, size);
 
-        if ("expr".equals(root.getName()) && commutativeOperators.contains(root.getValue())) {
+        if (root.getSymbol() == SymbolTable.EXPR && commutativeOperators.contains(root.getValue())) {
             // Ausdruck ist kommutativ
 
-            if (root.getChildren().size() == 2 && root.getChildren().get(0).size() < root.getChildren().get(1).size()) {
+            if (root.getChildren().size() == 2
+                && sizes.get(root.getChildren().get(0)) < sizes.get(root.getChildren().get(1))) {
                 // Make the bigger subtree the left one
 
-                Logger.logInfo("Flipping node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                               + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
+                Logger.logInfoSupplier(() -> "Flipping node \"" + root.getName() + ": " + root.getValue() + "\"\n"
+                                             + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
 
                 Collections.reverse(root.getChildren());
             }
@@ -124,15 +126,11 @@ public final class SyntaxTreeRebalancer {
      */
     public static void leftPrecedence(SyntaxTree abstractSyntaxTree) {
         Logger.logDebug(" :: Left-rotating expressions for left-precedence", SyntaxTreeRebalancer.class);
-        leftPrecedence(abstractSyntaxTree.getRoot());
+        SyntaxTreeTraversal.postOrder(abstractSyntaxTree.getRoot(), SyntaxTreeRebalancer::leftPrecedence);
         Logger.logDebug(" :: Successfully rotated expressions for left-precedence", SyntaxTreeRebalancer.class);
     }
 
     private static void leftPrecedence(SyntaxTreeNode root) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            leftPrecedence(child);
-        }
-
         final SyntaxTreeNode expr = getExpr(root);
 
         if (expr == null || root.getChildren().size() != 2 || !root.getValue().isEmpty()) {
@@ -153,8 +151,8 @@ public final class SyntaxTreeRebalancer {
      * @return Es wird false zurückgegeben, sobald keine weitere Rotation mehr möglich ist.
      */
     private static boolean specialLeftRotate(SyntaxTreeNode root) {
-        Logger.logInfo("Special-left-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                       + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
+        Logger.logInfoSupplier(() -> "Special-left-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
+                                     + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
 
         final SyntaxTreeNode left = root.getChildren().get(0);
         final SyntaxTreeNode right = root.getChildren().get(1);
@@ -167,7 +165,7 @@ public final class SyntaxTreeRebalancer {
             return false; // Braucht keine weitere Rotation
         }
 
-        final SyntaxTreeNode insertLeft = new SyntaxTreeNode(root.getName(), root.getLine());
+        final SyntaxTreeNode insertLeft = new SyntaxTreeNode(root.getSymbol(), root.getLine());
         insertLeft.setValue(right.getValue()); // Operation wird linksvererbt
         insertLeft.setChildren(left, right.getChildren().get(0));
 
@@ -180,7 +178,7 @@ public final class SyntaxTreeRebalancer {
     // Findet die 1te (linkeste) expr
     private static SyntaxTreeNode getExpr(SyntaxTreeNode root) {
         for (SyntaxTreeNode child : root.getChildren()) {
-            if ("expr".equals(child.getName())) {
+            if (child.getSymbol() == SymbolTable.EXPR) {
                 return child;
             }
         }
@@ -209,27 +207,55 @@ public final class SyntaxTreeRebalancer {
         Logger.logDebug(" :: Rotated expressions for operator-precedence", SyntaxTreeRebalancer.class);
     }
 
+    /**
+     * Ein Durchlauf der Rechtsrotationen, wie rekursiv über die Kinder:
+     * Nach der ersten Änderung wird nicht mehr abgestiegen, und nach einer Rotation
+     * werden weiterhin die Kinder von vor der Rotation geprüft.
+     *
+     * @return Ob eine Rotation durchgeführt wurde.
+     */
     public static boolean operatorPrecedence(SyntaxTreeNode root) {
-        boolean changed = false;
+        final Deque<PrecedenceFrame> stack = new ArrayDeque<>();
+        stack.push(new PrecedenceFrame(root));
 
-        for (SyntaxTreeNode child : root.getChildren()) {
-            changed = changed || operatorPrecedence(child);
+        while (true) {
+            final PrecedenceFrame current = stack.peek();
+
+            if (current.index < current.children.size()) {
+                final SyntaxTreeNode child = current.children.get(current.index);
 
-            if (preceding(root, child)) {
-                simpleRightRotate(root);
-                changed = true;
+                if (!current.changed && !current.descended) {
+                    current.descended = true;
+                    stack.push(new PrecedenceFrame(child));
+                    continue;
+                }
+
+                if (preceding(current.node, child)) {
+                    simpleRightRotate(current.node);
+                    current.changed = true;
+                }
+
+                current.index++;
+                current.descended = false;
+                continue;
             }
-        }
 
-        return changed;
+            stack.pop();
+            if (stack.isEmpty()) {
+                return current.changed;
+            }
+
+            // Der Parent ist nur abgestiegen, wenn er bisher nichts geändert hat
+            stack.peek().changed = current.changed;
+        }
     }
 
     /**
      * Ermittelt, ob der ParentNode höhere Priorität als der ChildNode hat.
      */
     private static boolean preceding(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        if (!"expr".equals(parent.getName()) || parent.getValue().isEmpty()
-            || !"expr".equals(child.getName()) || child.getValue().isEmpty()) {
+        if (parent.getSymbol() != SymbolTable.EXPR || parent.getValue().isEmpty()
+            || child.getSymbol() != SymbolTable.EXPR || child.getValue().isEmpty()) {
             return false;
         }
 
@@ -245,13 +271,13 @@ public final class SyntaxTreeRebalancer {
     }
 
     private static void simpleRightRotate(SyntaxTreeNode root) {
-        Logger.logInfo("Simple right-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                       + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
+        Logger.logInfoSupplier(() -> "Simple right-rotation around node \"" + root.getName() + ": " + root.getValue() + "\"\n"
+                                     + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
 
         final SyntaxTreeNode left = root.getChildren().get(0);
         final SyntaxTreeNode right = root.getChildren().get(1);
 
-        final SyntaxTreeNode insertRight = new SyntaxTreeNode(root.getName(), root.getLine());
+        final SyntaxTreeNode insertRight = new SyntaxTreeNode(root.getSymbol(), root.getLine());
         insertRight.setValue(root.getValue());
         insertRight.setChildren(left.getChildren().get(1), right);
 
@@ -259,4 +285,23 @@ public final class SyntaxTreeRebalancer {
         root.setValue(left.getValue());
         root.setChildren(left.getChildren().get(0), insertRight);
     }
+
+    private static final class PrecedenceFrame {
+
+        private final SyntaxTreeNode node;
+
+        /**
+         * Die Kinder vor einer Rotation, diese werden auch nach der Rotation weiter geprüft.
+         */
+        private final List<SyntaxTreeNode> children;
+
+        private int index;
+        private boolean descended;
+        private boolean changed;
+
+        private PrecedenceFrame(SyntaxTreeNode node) {
+            this.node = node;
+            this.children = node.getChildren();
+        }
+    }
 }
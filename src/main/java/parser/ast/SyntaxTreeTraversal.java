@@ -0,0 +1,110 @@
+package parser.ast;
+
+import util.IntStack;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Durchläuft einen {@link SyntaxTree} mit einem expliziten Stack anstatt mit Rekursion.
+ * Dadurch sind auch sehr tief verschachtelte Programme ohne größeren Thread-Stack (-Xss) möglich.
+ * <p>
+ * Die Kinder werden immer von links nach rechts besucht, wie bei einer rekursiven for-Schleife.
+ */
+public final class SyntaxTreeTraversal {
+
+    private SyntaxTreeTraversal() {}
+
+    /**
+     * Besucht root vor seinen Kindern.
+     * Der Visitor darf die Kinder des besuchten Knotens verändern, es werden die neuen Kinder besucht.
+     */
+    public static void preOrder(SyntaxTreeNode root, Consumer<SyntaxTreeNode> visitor) {
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode current = stack.pop();
+
+            visitor.accept(current);
+
+            final List<SyntaxTreeNode> children = current.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    /**
+     * Besucht root nach allen seinen Kindern.
+     * Der Visitor darf die Kinder des besuchten Knotens verändern, diese werden nicht erneut besucht.
+     */
+    public static void postOrder(SyntaxTreeNode root, Consumer<SyntaxTreeNode> visitor) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+
+        while (!stack.isEmpty()) {
+            final Frame current = stack.peek();
+
+            if (current.next < current.children.size()) {
+                stack.push(new Frame(current.children.get(current.next)));
+                current.next++;
+                continue;
+            }
+
+            stack.pop();
+            visitor.accept(current.node);
+        }
+    }
+
+    /**
+     * Besucht node nach allen seinen Kindern, ohne Objekte pro Knoten zu erzeugen.
+     * Der Stack enthält nur die Vorfahren des aktuellen Knotens.
+     */
+    public static void postOrder(CompactSyntaxTree tree, IntConsumer visitor) {
+        final IntStack ancestors = new IntStack();
+        int current = tree.getRoot();
+
+        while (true) {
+            // Zum linkesten Blatt absteigen
+            while (!tree.isEmpty(current)) {
+                ancestors.push(current);
+                current = tree.getFirstChild(current);
+            }
+
+            visitor.accept(current);
+
+            // Fertige Teilbäume verlassen, bis es einen nächsten Geschwisterknoten gibt
+            while (tree.getNextSibling(current) == CompactSyntaxTree.NONE) {
+                if (ancestors.isEmpty()) {
+                    return;
+                }
+
+                current = ancestors.pop();
+                visitor.accept(current);
+            }
+
+            current = tree.getNextSibling(current);
+        }
+    }
+
+    private static final class Frame {
+
+        private final SyntaxTreeNode node;
+
+        /**
+         * Die Kinder beim Betreten des Knotens, damit der Visitor die Kinder ersetzen kann.
+         */
+        private final List<SyntaxTreeNode> children;
+
+        private int next;
+
+        private Frame(SyntaxTreeNode node) {
+            this.node = node;
+            this.children = node.getChildren();
+        }
+    }
+}
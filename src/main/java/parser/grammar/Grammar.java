@@ -3,18 +3,23 @@ package parser.grammar;
 import parser.ast.SyntaxTreeNode;
 import util.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import static parser.grammar.GrammarAction.DELCHILD;
@@ -26,16 +31,35 @@ import static parser.grammar.GrammarAction.VALTOVAL;
 
 /**
  * Repräsentiert die Parse-Grammatik und die Kontextaktionen.
+ * Die Grammatik ist nach dem Erstellen unveränderlich und kann zwischen Threads geteilt werden.
  */
 public class Grammar {
 
     // Grammar
     public static final String START_SYMBOL = "S";
     public static final String EPSILON_SYMBOL = "eps";
+    public static final String EOF_SYMBOL = "$";
+
+    // Symbol-IDs
+    public static final int EPSILON_ID = 0;
+    public static final int EOF_ID = 1;
 
     private final Set<String> terminals;
     private final Set<String> nonterminals;
 
+    /**
+     * Jedem Grammatiksymbol wird eine dichte ID zugewiesen.
+     * Die Terminale (inklusive {@link #EPSILON_SYMBOL} und {@link #EOF_SYMBOL}) liegen vor den Nichtterminalen,
+     * dadurch kann ein Symbol anhand seiner ID als Terminal oder Nichtterminal erkannt werden.
+     */
+    private final String[] symbols;
+    private final Map<String, Integer> symbolIds;
+
+    /**
+     * Anzahl der Terminal-IDs, gleichzeitig die ID des ersten Nichtterminals.
+     */
+    private final int terminalCount;
+
     // Actions
 
     /**
@@ -70,6 +94,24 @@ public class Grammar {
      */
     private final Set<GrammarRule> rules;
 
+    // Actions nach Handle
+
+    /**
+     * Das Handle aus der {@link SymbolTable} für jede Symbol-ID.
+     */
+    private final int[] symbolHandles;
+
+    /**
+     * Die Kontextaktionen aus den Maps oben, indiziert über das Handle der leftside.
+     * Handles, die größer als die Arrays sind, haben keine Aktionen.
+     */
+    private final boolean[] promoteHandles;
+    private final boolean[] delIfEmptyHandles;
+    private final int[] renameHandles;
+    private final int[][] nameToValHandles;
+    private final int[][] valToValHandles;
+    private final int[][] delChildHandles;
+
     public Grammar(Set<String> terminals, Set<String> nonterminals,
                    Map<GrammarAction, Set<String>> actionMap,
                    Map<String, String> renameMappings,
@@ -87,6 +129,92 @@ public class Grammar {
         this.nameToValMappings = Collections.unmodifiableMap(nameToValMappings);
         this.valToValMappings = Collections.unmodifiableMap(valToValMappings);
         this.delChildMappings = Collections.unmodifiableMap(delChildMappings);
+
+        // Sortiert, damit die IDs unabhängig von der Set-Reihenfolge sind
+        final List<String> symbolList = new ArrayList<>();
+        symbolList.add(EPSILON_SYMBOL);
+        symbolList.add(EOF_SYMBOL);
+        terminals.stream().sorted().forEach(symbolList::add);
+        this.terminalCount = symbolList.size();
+        nonterminals.stream().sorted().forEach(symbolList::add);
+
+        this.symbols = symbolList.toArray(String[]::new);
+
+        final Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < this.symbols.length; i++) {
+            ids.put(this.symbols[i], i);
+        }
+        this.symbolIds = Collections.unmodifiableMap(ids);
+
+        this.symbolHandles = new int[this.symbols.length];
+        for (int i = 0; i < this.symbols.length; i++) {
+            this.symbolHandles[i] = SymbolTable.intern(this.symbols[i]);
+        }
+
+        this.promoteHandles = handleFlags(actionMap.getOrDefault(PROMOTE, Collections.emptySet()));
+        this.delIfEmptyHandles = handleFlags(actionMap.getOrDefault(DELIFEMPTY, Collections.emptySet()));
+        this.nameToValHandles = handleMappings(actionMap.getOrDefault(NAMETOVAL, Collections.emptySet()), nameToValMappings);
+        this.valToValHandles = handleMappings(actionMap.getOrDefault(VALTOVAL, Collections.emptySet()), valToValMappings);
+        this.delChildHandles = handleMappings(actionMap.getOrDefault(DELCHILD, Collections.emptySet()), delChildMappings);
+
+        final Set<String> renamed = actionMap.getOrDefault(RENAMETO, Collections.emptySet());
+        this.renameHandles = new int[maxHandle(renamed) + 1];
+        Arrays.fill(this.renameHandles, SymbolTable.NONE);
+        for (String leftside : renamed) {
+            if (renameMappings.containsKey(leftside)) {
+                this.renameHandles[SymbolTable.intern(leftside)] = SymbolTable.intern(renameMappings.get(leftside));
+            }
+        }
+    }
+
+    private static int maxHandle(Collection<String> names) {
+        return names.stream()
+                    .mapToInt(SymbolTable::intern)
+                    .max()
+                    .orElse(-1);
+    }
+
+    private static boolean[] handleFlags(Collection<String> leftsides) {
+        final boolean[] flags = new boolean[maxHandle(leftsides) + 1];
+        for (String leftside : leftsides) {
+            flags[SymbolTable.intern(leftside)] = true;
+        }
+
+        return flags;
+    }
+
+    /**
+     * Die Children-Handles für jede leftside mit der Aktion, null für alle anderen.
+     */
+    private static int[][] handleMappings(Collection<String> leftsides, Map<String, List<String>> mappings) {
+        final int[][] handles = new int[maxHandle(leftsides) + 1][];
+        for (String leftside : leftsides) {
+            if (mappings.containsKey(leftside)) {
+                handles[SymbolTable.intern(leftside)] = mappings.get(leftside).stream()
+                                                                .mapToInt(SymbolTable::intern)
+                                                                .toArray();
+            }
+        }
+
+        return handles;
+    }
+
+    private static boolean hasFlag(boolean[] flags, int handle) {
+        return handle >= 0 && handle < flags.length && flags[handle];
+    }
+
+    private static boolean hasMapping(int[][] mappings, int parent, int child) {
+        if (parent < 0 || parent >= mappings.length || mappings[parent] == null) {
+            return false;
+        }
+
+        for (int handle : mappings[parent]) {
+            if (handle == child) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     public static Grammar fromFile(Path path) throws IOException {
@@ -118,7 +246,7 @@ public class Grammar {
         Logger.logDebug("Beginning grammar parsing", Grammar.class);
         for (String currentLine : lines) {
 
-            Logger.logInfo("Parsing: \"" + currentLine + "\"", Grammar.class);
+            Logger.logInfoSupplier(() -> "Parsing: \"" + currentLine + "\"", Grammar.class);
 
             // Parse Keywords
             if (currentLine.startsWith("TERM:")) {
@@ -127,14 +255,14 @@ public class Grammar {
 
                 Arrays.stream(currentLine.split(" "))
                       .skip(1)
-                      .forEach(term -> Logger.logInfo(" :: Registered terminal symbol \"" + term + "\"", Grammar.class));
+                      .forEach(term -> Logger.logInfoSupplier(() -> " :: Registered terminal symbol \"" + term + "\"", Grammar.class));
             } else if (currentLine.startsWith("NTERM:")) {
 
                 nonterminals.addAll(Arrays.stream(currentLine.split(" ")).skip(1).collect(Collectors.toSet()));
 
                 Arrays.stream(currentLine.split(" "))
                       .skip(1)
-                      .forEach(nterm -> Logger.logInfo(" :: Registered nonterminal symbol \"" + nterm + "\"", Grammar.class));
+                      .forEach(nterm -> Logger.logInfoSupplier(() -> " :: Registered nonterminal symbol \"" + nterm + "\"", Grammar.class));
             } else {
                 // Parse regular lines
 
@@ -144,10 +272,10 @@ public class Grammar {
             }
         }
 
-        Logger.logInfo("Grammar terminals: " + terminals, Grammar.class);
-        Logger.logInfo("Grammar nonterminals: " + nonterminals, Grammar.class);
-        Logger.logInfo("Grammar productions: " + rules, Grammar.class);
-        Logger.logInfo("Grammar actions: " + actionMap, Grammar.class);
+        Logger.logInfoSupplier(() -> "Grammar terminals: " + terminals, Grammar.class);
+        Logger.logInfoSupplier(() -> "Grammar nonterminals: " + nonterminals, Grammar.class);
+        Logger.logInfoSupplier(() -> "Grammar productions: " + rules, Grammar.class);
+        Logger.logInfoSupplier(() -> "Grammar actions: " + actionMap, Grammar.class);
         Logger.logDebug("Grammar parsed successfully", Grammar.class);
 
         return new Grammar(terminals, nonterminals,
@@ -156,6 +284,114 @@ public class Grammar {
     }
 
 
+    /**
+     * Liest eine mit {@link #writeTo(DataOutput)} geschriebene Grammatik.
+     */
+    public static Grammar readFrom(DataInput in) throws IOException {
+        final Set<String> terminals = new HashSet<>(readStrings(in));
+        final Set<String> nonterminals = new HashSet<>(readStrings(in));
+
+        final Map<GrammarAction, Set<String>> actionMap = new EnumMap<>(GrammarAction.class);
+        for (GrammarAction action : GrammarAction.values()) {
+            actionMap.put(action, new HashSet<>(readStrings(in)));
+        }
+
+        final Map<String, String> renameMappings = new HashMap<>();
+        final int renameCount = in.readInt();
+        for (int i = 0; i < renameCount; i++) {
+            renameMappings.put(in.readUTF(), in.readUTF());
+        }
+
+        final Map<String, List<String>> nameToValMappings = readMappings(in);
+        final Map<String, List<String>> valToValMappings = readMappings(in);
+        final Map<String, List<String>> delChildMappings = readMappings(in);
+
+        final Set<GrammarRule> rules = new HashSet<>();
+        final int ruleCount = in.readInt();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new GrammarRule(in.readUTF(), in.readUTF()));
+        }
+
+        return new Grammar(terminals, nonterminals,
+                           actionMap, renameMappings, nameToValMappings,
+                           valToValMappings, delChildMappings, rules);
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        final int count = in.readInt();
+        final List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+
+        return strings;
+    }
+
+    private static Map<String, List<String>> readMappings(DataInput in) throws IOException {
+        final Map<String, List<String>> mappings = new HashMap<>();
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            mappings.put(in.readUTF(), readStrings(in));
+        }
+
+        return mappings;
+    }
+
+    /**
+     * Schreibt die Grammatik inklusive der Kontextaktionen in ein binäres Format.
+     * Die Mengen werden sortiert geschrieben, gleiche Grammatiken ergeben also die gleichen Bytes.
+     * Änderungen am Format müssen die FORMAT_VERSION im {@link parser.ParsingTableCache} erhöhen.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        writeStrings(out, sorted(this.terminals));
+        writeStrings(out, sorted(this.nonterminals));
+
+        for (GrammarAction action : GrammarAction.values()) {
+            writeStrings(out, sorted(this.actionMap.getOrDefault(action, Collections.emptySet())));
+        }
+
+        out.writeInt(this.renameMappings.size());
+        for (Map.Entry<String, String> mapping : new TreeMap<>(this.renameMappings).entrySet()) {
+            out.writeUTF(mapping.getKey());
+            out.writeUTF(mapping.getValue());
+        }
+
+        writeMappings(out, this.nameToValMappings);
+        writeMappings(out, this.valToValMappings);
+        writeMappings(out, this.delChildMappings);
+
+        final List<GrammarRule> sortedRules = this.rules.stream()
+                                                        .sorted(Comparator.comparing(GrammarRule::getLeftside)
+                                                                          .thenComparing(GrammarRule::getRightside))
+                                                        .collect(Collectors.toList());
+        out.writeInt(sortedRules.size());
+        for (GrammarRule rule : sortedRules) {
+            out.writeUTF(rule.getLeftside());
+            out.writeUTF(rule.getRightside());
+        }
+    }
+
+    private static List<String> sorted(Collection<String> strings) {
+        return strings.stream()
+                      .sorted()
+                      .collect(Collectors.toList());
+    }
+
+    private static void writeStrings(DataOutput out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static void writeMappings(DataOutput out, Map<String, List<String>> mappings) throws IOException {
+        out.writeInt(mappings.size());
+        for (Map.Entry<String, List<String>> mapping : new TreeMap<>(mappings).entrySet()) {
+            out.writeUTF(mapping.getKey());
+            writeStrings(out, mapping.getValue());
+        }
+    }
+
     /**
      * Es wird eine normale Zeile der Form leftside[actions] -> rightside geparst.
      * Die Produktionsregeln sowie die Kontextaktionen werden registriert.
@@ -239,7 +475,7 @@ public class Grammar {
                                        Map<GrammarAction, Set<String>> actions) {
 
         actions.get(action).add(leftside.trim());
-        Logger.logInfo(" :: Registered action [" + flag + "] for \"" + leftside.trim() + "\"", Grammar.class);
+        Logger.logInfoSupplier(() -> " :: Registered action [" + flag + "] for \"" + leftside.trim() + "\"", Grammar.class);
     }
 
     /**
@@ -256,7 +492,7 @@ public class Grammar {
         final String[] argSplit = flag.substring(argStart + 1).split(",");
 
         Arrays.stream(argSplit)
-              .forEach(arg -> Logger.logInfo(" :: Action has arg " + arg, Grammar.class));
+              .forEach(arg -> Logger.logInfoSupplier(() -> " :: Action has arg " + arg, Grammar.class));
 
         switch (action) {
             case DELCHILD -> delChildMappings.put(leftside, Arrays.asList(argSplit));
@@ -280,7 +516,7 @@ public class Grammar {
             final GrammarRule rule = new GrammarRule(leftside, prod.split(" "));
             rules.add(rule);
 
-            Logger.logInfo(" :: Registered production \"" + rule + "\"", Grammar.class);
+            Logger.logInfoSupplier(() -> " :: Registered production \"" + rule + "\"", Grammar.class);
         }
     }
 
@@ -292,7 +528,7 @@ public class Grammar {
         for (String flag : flagSet) {
             if (!actionSet.contains(flag.split("=")[0].toUpperCase())) {
 
-                Logger.logError("Action " + flag.split("=")[0] + " is invalid.", Grammar.class);
+                Logger.logErrorSupplier(() -> "Action " + flag.split("=")[0] + " is invalid.", Grammar.class);
                 throw new GrammarParseException("Invalid Action: " + flag);
             }
         }
@@ -312,6 +548,45 @@ public class Grammar {
         return this.rules;
     }
 
+    // Symbol-IDs
+
+    /**
+     * @return Die ID des Symbols oder -1, wenn das Symbol nicht zur Grammatik gehört.
+     */
+    public int getSymbolId(String symbol) {
+        return this.symbolIds.getOrDefault(symbol, -1);
+    }
+
+    public String getSymbol(int id) {
+        return this.symbols[id];
+    }
+
+    public int getSymbolCount() {
+        return this.symbols.length;
+    }
+
+    /**
+     * Die Terminal-IDs sind 0 bis getTerminalCount() - 1, inklusive Epsilon und EOF.
+     */
+    public int getTerminalCount() {
+        return this.terminalCount;
+    }
+
+    public int getNonterminalCount() {
+        return this.symbols.length - this.terminalCount;
+    }
+
+    public boolean isTerminal(int id) {
+        return id >= 0 && id < this.terminalCount;
+    }
+
+    /**
+     * @return Das Handle aus der {@link SymbolTable} für die Symbol-ID.
+     */
+    public int getSymbolHandle(int id) {
+        return this.symbolHandles[id];
+    }
+
     /**
      * Ermittelt alle möglichen Produktionen, welche zu einer leftside gehören können.
      */
@@ -335,26 +610,30 @@ public class Grammar {
      * Checkt auch auf Anzahl der Kinder.
      */
     public boolean canPromoteChild(SyntaxTreeNode root) {
-        return this.canPromoteChild(root.getName())
+        return this.canPromoteChild(root.getSymbol())
                && root.getChildren().size() == 1
                && root.getValue().isEmpty();
     }
 
-    private boolean canPromoteChild(String rootName) {
-        return this.actionMap.get(PROMOTE).contains(rootName);
+    private boolean canPromoteChild(int root) {
+        return hasFlag(this.promoteHandles, root);
     }
 
     /**
      * Checkt auch auf Anzahl der Kinder und vorhandene Value.
      */
     public boolean canDeleteIfEmpty(SyntaxTreeNode root) {
-        return this.canDeleteIfEmpty(root.getName())
+        return this.canDeleteIfEmpty(root.getSymbol())
                && root.getValue().isEmpty()
                && root.isEmpty();
     }
 
     public boolean canDeleteIfEmpty(String rootName) {
-        return this.actionMap.get(DELIFEMPTY).contains(rootName);
+        return this.canDeleteIfEmpty(SymbolTable.lookup(rootName));
+    }
+
+    public boolean canDeleteIfEmpty(int root) {
+        return hasFlag(this.delIfEmptyHandles, root);
     }
 
     /**
@@ -362,22 +641,29 @@ public class Grammar {
      * Epsilon-Knoten werden immer gelöscht.
      */
     public boolean canDeleteChild(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        return this.canDeleteChild(parent.getName(), child.getName())
+        return this.canDeleteChild(parent.getSymbol(), child.getSymbol())
                && child.isEmpty();
     }
 
     public boolean canDeleteChild(String parentName, String childName) {
-        return (this.actionMap.get(DELCHILD).contains(parentName)
-                && this.delChildMappings.get(parentName).contains(childName))
-               || (Grammar.EPSILON_SYMBOL.equals(childName));
+        return this.canDeleteChild(SymbolTable.lookup(parentName), SymbolTable.lookup(childName));
+    }
+
+    public boolean canDeleteChild(int parent, int child) {
+        return hasMapping(this.delChildHandles, parent, child)
+               || child == SymbolTable.EPSILON;
     }
 
     public boolean canBeRenamed(SyntaxTreeNode root) {
-        return this.canBeRenamed(root.getName());
+        return this.canBeRenamed(root.getSymbol());
     }
 
     public boolean canBeRenamed(String rootName) {
-        return this.actionMap.get(RENAMETO).contains(rootName);
+        return this.canBeRenamed(SymbolTable.lookup(rootName));
+    }
+
+    public boolean canBeRenamed(int root) {
+        return this.getNewSymbol(root) != SymbolTable.NONE;
     }
 
     public String getNewName(SyntaxTreeNode root) {
@@ -388,25 +674,38 @@ public class Grammar {
         return this.renameMappings.get(rootName);
     }
 
+    /**
+     * @return Das Handle des neuen Namens oder {@link SymbolTable#NONE}, wenn root nicht umbenannt wird.
+     */
+    public int getNewSymbol(int root) {
+        return root >= 0 && root < this.renameHandles.length ? this.renameHandles[root] : SymbolTable.NONE;
+    }
+
     public boolean hasValToVal(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        return this.hasValToVal(parent.getName(), child.getName());
+        return this.hasValToVal(parent.getSymbol(), child.getSymbol());
     }
 
     public boolean hasValToVal(String parentName, String childName) {
-        return this.actionMap.get(VALTOVAL).contains(parentName)
-               && this.valToValMappings.get(parentName).contains(childName);
+        return this.hasValToVal(SymbolTable.lookup(parentName), SymbolTable.lookup(childName));
+    }
+
+    public boolean hasValToVal(int parent, int child) {
+        return hasMapping(this.valToValHandles, parent, child);
     }
 
     /**
      * Checkt auch auf bereits existierende Values.
      */
     public boolean canMoveNameToVal(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        return this.canMoveNameToVal(parent.getName(), child.getName())
+        return this.canMoveNameToVal(parent.getSymbol(), child.getSymbol())
                && parent.getValue().isEmpty();
     }
 
     public boolean canMoveNameToVal(String parentName, String childName) {
-        return this.actionMap.get(NAMETOVAL).contains(parentName)
-               && this.nameToValMappings.get(parentName).contains(childName);
+        return this.canMoveNameToVal(SymbolTable.lookup(parentName), SymbolTable.lookup(childName));
+    }
+
+    public boolean canMoveNameToVal(int parent, int child) {
+        return hasMapping(this.nameToValHandles, parent, child);
     }
 }
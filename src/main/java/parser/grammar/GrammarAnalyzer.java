@@ -3,20 +3,45 @@ package parser.grammar;
 import parser.ParsingTable;
 import util.Logger;
 
-import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public final class GrammarAnalyzer {
 
     private final Grammar grammar;
 
+    /**
+     * Die Produktionen sortiert nach leftside und rightside,
+     * damit die Produktionsindizes nicht von der Set-Reihenfolge abhängen.
+     */
+    private final List<GrammarRule> productions;
+
+    /**
+     * Die leftsides und rightsides der Produktionen als Symbol-IDs der {@link Grammar}.
+     */
+    private final int[] leftsides;
+    private final int[][] rightsides;
+
+    /**
+     * Das first-Set als Bitset über die Terminal-IDs, indiziert mit der Symbol-ID.
+     * Das Bit {@link Grammar#EPSILON_ID} markiert ein nullable Symbol.
+     */
+    private final BitSet[] firstSets;
+
+    /**
+     * Das follow-Set als Bitset über die Terminal-IDs, indiziert mit der Symbol-ID.
+     * Nur für Nichtterminale befüllt.
+     */
+    private final BitSet[] followSets;
+
     /**
      * Das first-Set enthält für jedes Nichtterminalsymbol alle Terminalsymbole, die als erstes bei diesen
      * Nichtterminal auftreten können.
@@ -36,9 +61,34 @@ public final class GrammarAnalyzer {
 
         Logger.logDebug("Beginning grammar analysis", GrammarAnalyzer.class);
 
+        this.productions = grammar.getRules().stream()
+                                  .sorted(Comparator.comparing(GrammarRule::getLeftside)
+                                                    .thenComparing(GrammarRule::getRightside))
+                                  .collect(Collectors.toUnmodifiableList());
+        this.leftsides = new int[this.productions.size()];
+        this.rightsides = new int[this.productions.size()][];
+        for (int prod = 0; prod < this.productions.size(); prod++) {
+            final GrammarRule rule = this.productions.get(prod);
+
+            this.leftsides[prod] = this.symbolId(rule, rule.getLeftside());
+            if (grammar.isTerminal(this.leftsides[prod])) {
+                throw new GrammarParseException("Leftside is not a nonterminal: " + rule);
+            }
+
+            final String[] symbols = rule.getSymbols();
+            this.rightsides[prod] = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                this.rightsides[prod][i] = this.symbolId(rule, symbols[i]);
+            }
+        }
+
         // Es muss zwingend in der Reihenfolge [First < Follow < Table] initialisiert werden
-        this.first = this.initFirst();
-        this.follow = this.initFollow();
+        this.firstSets = this.newSymbolSets();
+        this.initFirst();
+        this.followSets = this.newSymbolSets();
+        this.initFollow();
+        this.first = this.toSymbolMap(this.firstSets, 0, grammar.getSymbolCount());
+        this.follow = this.toSymbolMap(this.followSets, grammar.getTerminalCount(), grammar.getSymbolCount());
         this.table = this.initParseTable();
 
         Logger.logDebug("Grammar analysis successful", GrammarAnalyzer.class);
@@ -48,258 +98,278 @@ public final class GrammarAnalyzer {
         return new GrammarAnalyzer(grammar);
     }
 
-    private Map<String, Set<String>> initFirst() {
-        Logger.logDebug(" :: Initializing first-set", GrammarAnalyzer.class);
-
-        final Map<String, Set<String>> firstOut = new HashMap<>();
-
-        // Die Methode funktioniert erst, nachdem first initialisiert ist.
-        // Deshalb hier doppelt.
-        final Predicate<String> nullable = sym -> sym.equals(Grammar.EPSILON_SYMBOL)
-                                                  || sym.isBlank()
-                                                  || firstOut.get(sym).contains(Grammar.EPSILON_SYMBOL);
-        final Predicate<String[]> allNullable = split -> split.length == 0
-                                                         || Arrays.stream(split).allMatch(nullable);
-
-        // Initialisieren
-        for (String nterm : this.grammar.getNonterminals()) {
-            firstOut.put(nterm, new HashSet<>());
-        }
-        for (String term : this.grammar.getTerminals()) {
-            // 1. If X is a terminal, then first(X) = {X}.
+    private int symbolId(GrammarRule rule, String symbol) {
+        final int id = this.grammar.getSymbolId(symbol);
 
-            firstOut.put(term, new HashSet<>());
-            firstOut.get(term).add(term);
+        if (id == -1) {
+            throw new GrammarParseException("Unknown symbol in rule " + rule + ": " + symbol);
         }
 
-        boolean change;
-
-        do {
-            change = false;
-
-            for (String leftside : this.grammar.getLeftSides()) {
-                // 2. (a) If X is a nonterminal...
+        return id;
+    }
 
-                for (String rightside : this.grammar.getRightsides(leftside)) {
-                    // ...and X -> Y1 Y2 ... Yk is a production...
+    /**
+     * Berechnet die first-Sets mit einer Worklist über die Produktionen.
+     * Eine Produktion wird nur erneut betrachtet, wenn sich das first-Set eines Symbols ihrer rightside geändert hat.
+     */
+    private void initFirst() {
+        Logger.logDebug(" :: Initializing first-set", GrammarAnalyzer.class);
 
+        for (int term = 0; term < this.grammar.getTerminalCount(); term++) {
+            // 1. If X is a terminal, then first(X) = {X}.
+            //    Für Epsilon ist first(eps) = {eps}, dadurch ist eps nullable.
 
-                    if (!rightside.equals(Grammar.EPSILON_SYMBOL)) {
-                        // ...for some k >= 1...
+            this.firstSets[term].set(term);
+        }
 
-                        final String[] split = rightside.split(" ");
+        // Für jedes Nichtterminal die Produktionen, in deren rightside es vorkommt
+        final List<List<Integer>> dependents = this.dependentProductions();
 
-                        // !: Dumm implementiert, alles wird mehrfach auf nullable gecheckt:
-                        // !: nullable(Y1), nullable(Y1 Y2), nullable(Y1 Y2 Y3)...
-                        for (int i = 0; i < split.length; i++) {
+        final IntWorklist worklist = new IntWorklist(this.productions.size());
+        for (int prod = 0; prod < this.productions.size(); prod++) {
+            worklist.add(prod);
+        }
 
-                            // All Y1 ... Yi-1
-                            final String[] sub = Arrays.copyOfRange(split, 0, i);
+        while (!worklist.isEmpty()) {
+            final int prod = worklist.remove();
+            final BitSet firstX = this.firstSets[this.leftsides[prod]];
 
-                            if (allNullable.test(sub)) {
-                                // ...then place a in first(X) if a is in first(Yi) for some i...
-                                // ...and epsilon is in all of first(Y1) ... first(Yi-1).
+            final int before = firstX.cardinality();
 
-                                // Because a != epsilon
-                                final Set<String> firstYiNoEps = firstOut.get(split[i]).stream()
-                                                                         .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                                                         .collect(Collectors.toSet());
+            // 2. (a) If X -> Y1 Y2 ... Yk is a production, then place a in first(X) if a is in first(Yi)
+            //        and epsilon is in all of first(Y1) ... first(Yi-1).
+            // 2. (b) If epsilon is in first(Y1) ... first(Yk), then add epsilon to first(X).
+            // 3.     If X -> epsilon is a production, then add epsilon to first(X).
+            this.addStringFirst(this.rightsides[prod], firstX);
 
-                                final boolean changeNow = firstOut.get(leftside).addAll(firstYiNoEps);
-                                change = change || changeNow;
+            if (firstX.cardinality() != before) {
+                Logger.logInfoSupplier(() -> "Rule: \"" + this.productions.get(prod) + "\" changed \"first("
+                                             + this.productions.get(prod).getLeftside() + ")\"", GrammarAnalyzer.class);
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added " + firstYiNoEps + " to \"first("
-                                                                + leftside + ")\" (All before are nullable)", GrammarAnalyzer.class);
-                            }
+                for (int dependent : dependents.get(this.leftsides[prod])) {
+                    worklist.add(dependent);
+                }
+            }
+        }
 
-                            if (i == split.length - 1 && allNullable.test(split)) {
-                                // 2. (b) If epsilon is in first(Y1) ... first(Yk), then add epsilon to first(X).
+        Logger.logDebug(" :: First-set initialized successfully", GrammarAnalyzer.class);
+    }
 
-                                final boolean changeNow = firstOut.get(leftside).add(Grammar.EPSILON_SYMBOL);
-                                change = change || changeNow;
+    private BitSet[] newSymbolSets() {
+        final BitSet[] sets = new BitSet[this.grammar.getSymbolCount()];
+        for (int sym = 0; sym < sets.length; sym++) {
+            sets[sym] = new BitSet(this.grammar.getTerminalCount());
+        }
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added [" + Grammar.EPSILON_SYMBOL + "] to \"first("
-                                                                + leftside + ")\" (All are nullable)", GrammarAnalyzer.class);
-                            }
-                        }
-                    }
+        return sets;
+    }
 
-                    if (rightside.equals(Grammar.EPSILON_SYMBOL)) {
-                        // 3. If X -> epsilon is a production, then add epsilon to first(X).
+    private List<List<Integer>> dependentProductions() {
+        final List<List<Integer>> dependents = new ArrayList<>(this.grammar.getSymbolCount());
+        for (int sym = 0; sym < this.grammar.getSymbolCount(); sym++) {
+            dependents.add(new ArrayList<>());
+        }
 
-                        final boolean changeNow = firstOut.get(leftside).add(Grammar.EPSILON_SYMBOL);
-                        change = change || changeNow;
+        for (int prod = 0; prod < this.productions.size(); prod++) {
+            for (int sym : this.rightsides[prod]) {
+                final List<Integer> symDependents = dependents.get(sym);
 
-                        Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfoIfTrue(changeNow, " :: Added [" + Grammar.EPSILON_SYMBOL + "] to \"first("
-                                                        + leftside + ")\" (X -> EPS exists)", GrammarAnalyzer.class);
-                    }
+                if (symDependents.isEmpty() || symDependents.get(symDependents.size() - 1) != prod) {
+                    symDependents.add(prod);
                 }
             }
-        } while (change);
-
-        Logger.logInfo("First Set: " + firstOut, GrammarAnalyzer.class);
-        Logger.logDebug(" :: First-set initialized successfully", GrammarAnalyzer.class);
+        }
 
-        return firstOut;
+        return dependents;
     }
 
-    private Map<String, Set<String>> initFollow() {
+    /**
+     * Berechnet die follow-Sets in zwei Schritten:
+     * Zuerst werden die Anteile aus den first-Sets eingetragen, welche sich nicht mehr ändern.
+     * Danach wird follow(A) entlang der Kanten A -> B (aus Produktionen A -> aBb mit nullable b) propagiert,
+     * dabei wird ein Nichtterminal nur erneut betrachtet, wenn sich sein follow-Set geändert hat.
+     */
+    private void initFollow() {
         Logger.logDebug(" :: Initializing follow-set", GrammarAnalyzer.class);
 
-        final Map<String, Set<String>> followOut = new HashMap<>();
+        final int symbolCount = this.grammar.getSymbolCount();
+        final BitSet[] followOut = this.followSets;
 
-        // Initialisieren
-        for (String nterm : this.grammar.getNonterminals()) {
-            followOut.put(nterm, new HashSet<>());
+        // Für jedes Nichtterminal A die Nichtterminale B, für die follow(A) in follow(B) liegt
+        final List<Set<Integer>> followEdges = new ArrayList<>(symbolCount);
+        for (int sym = 0; sym < symbolCount; sym++) {
+            followEdges.add(new HashSet<>());
         }
 
         // 1. Place $ in follow(S), where S is the start symbol, and $ is the input right endmarker
-        followOut.get(Grammar.START_SYMBOL).add("$");
-
-        boolean change;
+        final int start = this.grammar.getSymbolId(Grammar.START_SYMBOL);
+        if (start != -1 && !this.grammar.isTerminal(start)) {
+            followOut[start].set(Grammar.EOF_ID);
+        }
 
-        do {
-            change = false;
+        for (int prod = 0; prod < this.productions.size(); prod++) {
+            final int[] rightside = this.rightsides[prod];
 
-            for (String leftside : this.grammar.getLeftSides()) {
+            // first(b) der Suffixe, von hinten aufgebaut
+            final BitSet suffixFirst = new BitSet(this.grammar.getTerminalCount());
+            boolean suffixNullable = true;
 
-                for (String rightside : this.grammar.getRightsides(leftside)) {
+            for (int i = rightside.length - 1; i >= 0; i--) {
+                final int sym = rightside[i];
 
-                    final String[] split = rightside.split(" ");
+                if (!this.grammar.isTerminal(sym)) {
+                    // 2. If there is a production A -> aBb, then everything in first(b) except epsilon
+                    //    is in follow(B).
+                    followOut[sym].or(suffixFirst);
 
-                    for (int i = 1; i < split.length; i++) {
-                        // 2. If there is a production A -> aBb, then everything in first(b) except epsilon
-                        //    is in follow(B).
+                    if (suffixNullable) {
+                        // 3. If there is a production A -> aB, or a production A -> aBb, where b is nullable,
+                        //    then everything in follow(A) is in follow(B).
+                        followEdges.get(this.leftsides[prod]).add(sym);
+                    }
+                }
 
-                        if (!this.grammar.getNonterminals().contains(split[i - 1])) {
-                            // Follow nur für Nichtterminale berechnen
+                if (this.isNullable(sym)) {
+                    suffixFirst.or(this.firstSets[sym]);
+                } else {
+                    suffixFirst.clear();
+                    suffixFirst.or(this.firstSets[sym]);
+                    suffixNullable = false;
+                }
+                suffixFirst.clear(Grammar.EPSILON_ID);
+            }
+        }
 
-                            continue;
-                        }
+        final IntWorklist worklist = new IntWorklist(symbolCount);
+        for (int nterm = this.grammar.getTerminalCount(); nterm < symbolCount; nterm++) {
+            worklist.add(nterm);
+        }
 
-                        // !: Hier wird wieder alles doppelt geprüft
-                        for (int k = i; k < split.length; k++) {
-                            // Behandelt solche Fälle: X -> Y1 Y2 Y3, wo Y2 nullable ist.
-                            // Dann beinhaltet follow(Y1) auch first(Y3)
+        while (!worklist.isEmpty()) {
+            final int leftside = worklist.remove();
 
-                            final String[] sub = Arrays.copyOfRange(split, i, k);
+            for (int nterm : followEdges.get(leftside)) {
+                final int before = followOut[nterm].cardinality();
+                followOut[nterm].or(followOut[leftside]);
 
-                            if (this.allNullable(sub)) {
+                if (followOut[nterm].cardinality() != before) {
+                    Logger.logInfoSupplier(() -> " :: Added \"follow(" + this.grammar.getSymbol(leftside) + ")\" to \"follow("
+                                                 + this.grammar.getSymbol(nterm) + ")\"", GrammarAnalyzer.class);
 
-                                final Set<String> firstXkNoEps = this.first(split[k]).stream()
-                                                                     .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                                                     .collect(Collectors.toSet());
+                    worklist.add(nterm);
+                }
+            }
+        }
 
-                                final boolean changeNow = followOut.get(split[i - 1]).addAll(firstXkNoEps);
-                                change = change || changeNow;
+        Logger.logDebug(" :: Follow-set initialized successfully", GrammarAnalyzer.class);
+    }
 
-                                Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                                Logger.logInfoIfTrue(changeNow, " :: Added " + firstXkNoEps + " to \"follow("
-                                                                + split[i - 1] + ")\" (All nullable inbetween)", GrammarAnalyzer.class);
-                            }
-                        }
+    /**
+     * Fügt first(X1 ... Xn) zu firstOut hinzu.
+     * Epsilon wird nur hinzugefügt, wenn alle Symbole nullable sind.
+     */
+    private void addStringFirst(int[] symbols, BitSet firstOut) {
+        for (int i = 0; i < symbols.length; i++) {
+            final boolean hadEpsilon = firstOut.get(Grammar.EPSILON_ID);
 
-                        // 3. (b) If there is a production A -> aBb, where b is nullable, then everything in
-                        //        follow(A) is in follow(B)
-                        final String[] sub = Arrays.copyOfRange(split, i, split.length);
+            // X1 ... Xi-1 are nullable, so first(X1 ... Xn) contains first(Xi)
+            firstOut.or(this.firstSets[symbols[i]]);
 
-                        if (this.allNullable(sub)) {
+            if (!hadEpsilon) {
+                firstOut.clear(Grammar.EPSILON_ID);
+            }
 
-                            final boolean changeNow = followOut.get(split[i - 1]).addAll(followOut.get(leftside));
-                            change = change || changeNow;
+            if (!this.isNullable(symbols[i])) {
+                return;
+            }
+        }
 
-                            Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                            Logger.logInfoIfTrue(changeNow, " :: Added " + leftside + " to \"follow("
-                                                            + split[i - 1] + ")\" (All following are nullable)", GrammarAnalyzer.class);
-                        }
-                    }
+        // Finally, add epsilon to first(X1 X2 ... Xn) if, for all i, epsilon is in first(Xi).
+        firstOut.set(Grammar.EPSILON_ID);
+    }
 
-                    if (this.grammar.getNonterminals().contains(split[split.length - 1])) {
-                        // 3. (a) If there is a production A -> aB, then everything in follow(A) is in follow(B).
+    private boolean isNullable(int sym) {
+        return this.firstSets[sym].get(Grammar.EPSILON_ID);
+    }
 
-                        final boolean changeNow = followOut.get(split[split.length - 1]).addAll(followOut.get(leftside));
-                        change = change || changeNow;
+    /**
+     * Übersetzt die Bitsets der Symbole from bis to - 1 in die Map-Darstellung.
+     * Epsilon und EOF bekommen wie vorher keinen eigenen Eintrag.
+     */
+    private Map<String, Set<String>> toSymbolMap(BitSet[] sets, int from, int to) {
+        final Map<String, Set<String>> mapOut = new HashMap<>();
 
-                        Logger.logInfoIfTrue(changeNow, "Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfoIfTrue(changeNow, " :: Added " + followOut.get(leftside) + " to \"follow("
-                                                        + split[split.length - 1] + ")\" (Last item in production)", GrammarAnalyzer.class);
-                    }
-                }
-            }
+        for (int sym = Math.max(from, Grammar.EOF_ID + 1); sym < to; sym++) {
+            mapOut.put(this.grammar.getSymbol(sym), this.toSymbolSet(sets[sym]));
+        }
 
-        } while (change);
+        return mapOut;
+    }
 
-        Logger.logInfo("Follow Set: " + followOut, GrammarAnalyzer.class);
-        Logger.logDebug(" :: Follow-set initialized successfully", GrammarAnalyzer.class);
+    private Set<String> toSymbolSet(BitSet set) {
+        final Set<String> setOut = new HashSet<>();
+        for (int term = set.nextSetBit(0); term >= 0; term = set.nextSetBit(term + 1)) {
+            setOut.add(this.grammar.getSymbol(term));
+        }
 
-        return followOut;
+        return setOut;
     }
 
     private ParsingTable initParseTable() {
         Logger.logDebug(" :: Initializing parse-table", GrammarAnalyzer.class);
 
-        final Map<Map.Entry<String, String>, String> tableOut = new HashMap<>();
-
-        for (String leftside : this.grammar.getLeftSides()) {
+        final int[] tableOut = new int[this.grammar.getNonterminalCount() * this.grammar.getTerminalCount()];
+        Arrays.fill(tableOut, ParsingTable.NO_PRODUCTION);
 
-            for (String rightside : this.grammar.getRightsides(leftside)) {
-                // For each production A -> a of the grammar, do the following:
+        for (int prod = 0; prod < this.productions.size(); prod++) {
+            // For each production A -> a of the grammar, do the following:
 
-                final Set<String> firstRightside = this.stringFirst(rightside);
-
-                for (String sym : firstRightside) {
-                    // 1. For each terminal t in first(a), add A -> a to table[A, t]
-
-                    final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, sym), rightside);
-
-                    Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                    Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside + ", " + sym + ") (" + sym
-                                   + " in \"first(" + rightside + ")\")", GrammarAnalyzer.class);
-                    Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
-                }
+            final GrammarRule rule = this.productions.get(prod);
 
-                final Set<String> followLeftside = this.follow(leftside);
+            final BitSet firstRightside = new BitSet(this.grammar.getTerminalCount());
+            this.addStringFirst(this.rightsides[prod], firstRightside);
 
-                if (firstRightside.contains(Grammar.EPSILON_SYMBOL)) {
-                    // 2. If epsilon in first(a), then...
+            for (int term = firstRightside.nextSetBit(0); term >= 0; term = firstRightside.nextSetBit(term + 1)) {
+                // 1. For each terminal t in first(a), add A -> a to table[A, t]
 
-                    for (String sym : followLeftside) {
-                        // ...for each terminal b in follow(A), add A -> a to table[A, b].
-
-                        final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, sym), rightside);
-
-                        Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside + ", " + sym + ") (" + sym
-                                       + " in \"follow(" + leftside + ")\")", GrammarAnalyzer.class);
-                        Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
-                    }
+                this.putCell(tableOut, rule, prod, term);
+            }
 
-                    if (followLeftside.contains("$")) {
-                        // If epsilon is in first(a) and $ is in follow(A), add A -> a to table[A, $].
+            if (firstRightside.get(Grammar.EPSILON_ID)) {
+                // 2. If epsilon in first(a), then...
 
-                        final String prev = tableOut.put(new AbstractMap.SimpleEntry<>(leftside, "$"), rightside);
+                final BitSet followLeftside = this.followSets[this.leftsides[prod]];
+                for (int term = followLeftside.nextSetBit(0); term >= 0; term = followLeftside.nextSetBit(term + 1)) {
+                    // ...for each terminal b in follow(A), add A -> a to table[A, b].
+                    // If epsilon is in first(a) and $ is in follow(A), this also adds A -> a to table[A, $].
 
-                        Logger.logInfo("Rule: \"" + leftside + " -> " + rightside + "\"", GrammarAnalyzer.class);
-                        Logger.logInfo(" :: Add " + rightside + " to cell (" + leftside
-                                       + ", $) (epsilon in \"first(" + rightside + ")\" and $ in \"follow("
-                                       + leftside + ")\")", GrammarAnalyzer.class);
-                        Logger.logInfoNullable(prev, " :: Overwritten " + prev + "!", GrammarAnalyzer.class);
-                    }
+                    this.putCell(tableOut, rule, prod, term);
                 }
             }
         }
 
-        final ParsingTable parsingTable = new ParsingTable(this.grammar, tableOut);
+        final ParsingTable parsingTable = new ParsingTable(this.grammar, this.productions, tableOut);
 
-        Logger.logInfo("ParsingTable:\n" + parsingTable, GrammarAnalyzer.class);
+        Logger.logInfoSupplier(() -> "ParsingTable:\n" + parsingTable, GrammarAnalyzer.class);
         Logger.logDebug(" :: Parse-table initialized successfully", GrammarAnalyzer.class);
 
         return parsingTable;
     }
 
+    private void putCell(int[] tableOut, GrammarRule rule, int prod, int terminal) {
+        final int nonterminal = this.grammar.getSymbolId(rule.getLeftside());
+
+        final int cell = (nonterminal - this.grammar.getTerminalCount()) * this.grammar.getTerminalCount() + terminal;
+        final int prev = tableOut[cell];
+        tableOut[cell] = prod;
+
+        Logger.logInfoSupplier(() -> " :: Add " + rule.getRightside() + " to cell (" + rule.getLeftside() + ", "
+                                     + this.grammar.getSymbol(terminal) + ")", GrammarAnalyzer.class);
+        if (prev != ParsingTable.NO_PRODUCTION && prev != prod) {
+            Logger.logInfoSupplier(() -> " :: Overwritten cell (" + rule.getLeftside() + ", "
+                                         + this.grammar.getSymbol(terminal) + ")!", GrammarAnalyzer.class);
+        }
+    }
 
     public boolean nullable(String sym) {
         return sym.isBlank()
@@ -321,39 +391,19 @@ public final class GrammarAnalyzer {
     }
 
     public Set<String> stringFirst(String[] split) {
-        final Set<String> firstOut = new HashSet<>();
-
-        // !: Hier wird wieder doppelt getestet
+        final int[] symbols = new int[split.length];
         for (int i = 0; i < split.length; i++) {
-            final String[] sub = Arrays.copyOfRange(split, 0, i);
-
-            if (this.allNullable(sub)) {
-                // X1 ... Xi-1 are nullable, so first(X1 ... Xn) contains first(Xi)
+            symbols[i] = this.grammar.getSymbolId(split[i]);
 
-                final Set<String> firstXiNoEps;
-                if (split.length == 1 && split[0].equals(Grammar.EPSILON_SYMBOL)) {
-                    // Stream collect has to be evaluated, doesn't work on empty stream
-
-                    firstXiNoEps = Collections.emptySet();
-                } else {
-                    // Only non-epsilon symbols
-
-                    firstXiNoEps = this.first(split[i]).stream()
-                                       .filter(sym -> !sym.equals(Grammar.EPSILON_SYMBOL))
-                                       .collect(Collectors.toSet());
-                }
-
-                firstOut.addAll(firstXiNoEps);
-
-                if (i == split.length - 1 && this.allNullable(split)) {
-                    // Finally, add epsilon to first(X1 X2 ... Xn) if, for all i, epsilon is in first(Xi).
-
-                    firstOut.add(Grammar.EPSILON_SYMBOL);
-                }
+            if (symbols[i] == -1) {
+                throw new GrammarParseException("Unknown symbol: " + split[i]);
             }
         }
 
-        return firstOut;
+        final BitSet firstOut = new BitSet(this.grammar.getTerminalCount());
+        this.addStringFirst(symbols, firstOut);
+
+        return this.toSymbolSet(firstOut);
     }
 
     public Set<String> follow(String sym) {
@@ -372,4 +422,43 @@ public final class GrammarAnalyzer {
     public ParsingTable getTable() {
         return this.table;
     }
+
+    /**
+     * FIFO-Worklist über int-Werte von 0 bis capacity - 1, jeder Wert ist höchstens einmal enthalten.
+     */
+    private static final class IntWorklist {
+
+        private final int[] queue;
+        private final boolean[] queued;
+        private int head;
+        private int size;
+
+        IntWorklist(int capacity) {
+            this.queue = new int[capacity];
+            this.queued = new boolean[capacity];
+        }
+
+        void add(int value) {
+            if (this.queued[value]) {
+                return;
+            }
+
+            this.queued[value] = true;
+            this.queue[(this.head + this.size) % this.queue.length] = value;
+            this.size++;
+        }
+
+        int remove() {
+            final int value = this.queue[this.head];
+            this.queued[value] = false;
+            this.head = (this.head + 1) % this.queue.length;
+            this.size--;
+
+            return value;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+    }
 }
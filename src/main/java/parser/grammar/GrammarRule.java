@@ -10,9 +10,16 @@ public class GrammarRule {
     private final String leftside;
     private final String rightside;
 
+    /**
+     * Die rightside aufgeteilt in ihre Symbole.
+     * Wird einmalig beim Erstellen der Regel ermittelt, damit später nicht mehr gesplittet werden muss.
+     */
+    private final String[] symbols;
+
     public GrammarRule(String leftside, String... rightside) {
         this.leftside = leftside.trim();
         this.rightside = String.join(" ", rightside).trim();
+        this.symbols = this.rightside.split(" ");
     }
 
     public String getLeftside() {
@@ -23,6 +30,10 @@ public class GrammarRule {
         return this.rightside;
     }
 
+    public String[] getSymbols() {
+        return this.symbols.clone();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
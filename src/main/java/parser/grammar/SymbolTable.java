@@ -0,0 +1,133 @@
+package parser.grammar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vergibt für jeden Knotennamen ein int-Handle, das für das ganze Programm gleich bleibt.
+ * Knoten speichern nur das Handle, dadurch werden Namen mit == statt mit {@link String#equals(Object)} verglichen.
+ * <p>
+ * Die Symbole, auf die Typchecker und Codegenerierung verzweigen, haben feste Handles (siehe {@link #EXPR} usw.),
+ * diese können direkt als case-Label verwendet werden.
+ * Alle weiteren Grammatiksymbole bekommen ihr Handle beim Laden der {@link Grammar}.
+ * <p>
+ * Es werden nur Namen eingetragen, keine Werte wie Literale, die Tabelle wächst also nicht mit dem Quellprogramm.
+ * Die Tabelle kann von mehreren Threads gleichzeitig benutzt werden.
+ */
+public final class SymbolTable {
+
+    /**
+     * Kein Symbol, z.B. wenn ein Wert kein Grammatiksymbol ist.
+     */
+    public static final int NONE = -1;
+
+    // Fest vergebene Handles, die Reihenfolge muss zu PREDEFINED passen
+
+    public static final int EPSILON = 0;
+
+    public static final int ASSIGNMENT = 1;
+    public static final int DECLARATION = 2;
+    public static final int EXPR = 3;
+    public static final int PAR_EXPR = 4;
+    public static final int COND = 5;
+    public static final int LOOP = 6;
+    public static final int PRINT = 7;
+
+    public static final int IDENTIFIER = 8;
+    public static final int INTEGER_LIT = 9;
+    public static final int BOOLEAN_LIT = 10;
+    public static final int STRING_LIT = 11;
+
+    public static final int INTEGER_TYPE = 12;
+    public static final int BOOLEAN_TYPE = 13;
+    public static final int STRING_TYPE = 14;
+
+    public static final int ADD = 15;
+    public static final int SUB = 16;
+    public static final int MUL = 17;
+    public static final int DIV = 18;
+    public static final int MOD = 19;
+    public static final int NOT = 20;
+    public static final int AND = 21;
+    public static final int OR = 22;
+    public static final int LESS = 23;
+    public static final int LESS_EQUAL = 24;
+    public static final int GREATER = 25;
+    public static final int GREATER_EQUAL = 26;
+    public static final int EQUAL = 27;
+    public static final int NOT_EQUAL = 28;
+
+    private static final String[] PREDEFINED = {
+            Grammar.EPSILON_SYMBOL,
+            "assignment", "declaration", "expr", "par_expr", "cond", "loop", "print",
+            "IDENTIFIER", "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT",
+            "INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE",
+            "ADD", "SUB", "MUL", "DIV", "MOD", "NOT", "AND", "OR",
+            "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL", "EQUAL", "NOT_EQUAL"};
+
+    private static final Map<String, Integer> handles = new ConcurrentHashMap<>();
+
+    /**
+     * Die Namen, indiziert über ihr Handle.
+     * Das Array wird nur unter dem Lock von {@link #intern(String)} ersetzt oder erweitert.
+     */
+    private static volatile String[] names = new String[64];
+    private static int count;
+
+    static {
+        for (String name : PREDEFINED) {
+            intern(name);
+        }
+    }
+
+    private SymbolTable() {}
+
+    /**
+     * @return Das Handle des Namens, ein neuer Name bekommt das nächste freie Handle.
+     */
+    public static int intern(String name) {
+        final Integer handle = handles.get(name);
+        if (handle != null) {
+            return handle;
+        }
+
+        synchronized (SymbolTable.class) {
+            final Integer existing = handles.get(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            final String[] updated = count == names.length ? Arrays.copyOf(names, 2 * count) : names;
+            final int newHandle = count;
+            updated[newHandle] = name;
+            count++;
+
+            // Der Name steht im Array, bevor das Handle über die Map sichtbar wird
+            names = updated;
+            handles.put(name, newHandle);
+
+            return newHandle;
+        }
+    }
+
+    /**
+     * Wie {@link #intern(String)}, aber unbekannte Namen werden nicht eingetragen.
+     *
+     * @return Das Handle des Namens oder {@link #NONE}.
+     */
+    public static int lookup(String name) {
+        return handles.getOrDefault(name, NONE);
+    }
+
+    public static String getName(int handle) {
+        return names[handle];
+    }
+
+    /**
+     * Die Handles sind 0 bis size() - 1.
+     */
+    public static int size() {
+        return handles.size();
+    }
+}
@@ -0,0 +1,50 @@
+package typechecker;
+
+import parser.grammar.SymbolTable;
+
+/**
+ * Die Datentypen eines Programms, ermittelt im {@link TypeChecker}.
+ * Jeder Typ entspricht einem Typ-Symbol der Grammatik, z.B. {@link #INTEGER} dem Symbol "INTEGER_TYPE".
+ */
+public enum Type {
+
+    INTEGER(SymbolTable.INTEGER_TYPE),
+    BOOLEAN(SymbolTable.BOOLEAN_TYPE),
+    STRING(SymbolTable.STRING_TYPE);
+
+    private final int symbol;
+
+    Type(int symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return Der Typ zum Handle aus der {@link SymbolTable} oder null, wenn das Symbol kein Typ ist.
+     */
+    public static Type fromSymbol(int symbol) {
+        return switch (symbol) {
+            case SymbolTable.INTEGER_TYPE -> INTEGER;
+            case SymbolTable.BOOLEAN_TYPE -> BOOLEAN;
+            case SymbolTable.STRING_TYPE -> STRING;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return Der Typ zum Symbolnamen (z.B. "INTEGER_TYPE") oder null, wenn der Name kein Typ ist.
+     */
+    public static Type fromName(String name) {
+        return name == null ? null : fromSymbol(SymbolTable.lookup(name));
+    }
+
+    /**
+     * Der Name des Typ-Symbols, so wie er in der Grammatik und im Syntaxbaum steht.
+     */
+    public String getName() {
+        return SymbolTable.getName(this.symbol);
+    }
+
+    public int getSymbol() {
+        return this.symbol;
+    }
+}
@@ -1,170 +1,232 @@
 package typechecker;
 
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
 import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeTraversal;
 import util.Logger;
 
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static parser.grammar.SymbolTable.ADD;
+import static parser.grammar.SymbolTable.ASSIGNMENT;
+import static parser.grammar.SymbolTable.BOOLEAN_LIT;
+import static parser.grammar.SymbolTable.EQUAL;
+import static parser.grammar.SymbolTable.EXPR;
+import static parser.grammar.SymbolTable.IDENTIFIER;
+import static parser.grammar.SymbolTable.INTEGER_LIT;
+import static parser.grammar.SymbolTable.NOT;
+import static parser.grammar.SymbolTable.NOT_EQUAL;
+import static parser.grammar.SymbolTable.PAR_EXPR;
+import static parser.grammar.SymbolTable.STRING_LIT;
+import static parser.grammar.SymbolTable.SUB;
 
 public final class TypeChecker {
 
-    private static final Collection<String> lit = Arrays.asList("INTEGER_LIT", "STRING_LIT", "BOOLEAN_LIT");
-    private static final Collection<String> unary = Arrays.asList("ADD", "SUB", "NOT");
-
     private TypeChecker() {}
 
     // TODO: merge nodeTable into typetable?
     // Wirft exception bei typeerror
     public static Map<SyntaxTreeNode, String> validate(SyntaxTree tree) {
-        final TypeTable table = TypeTable.fromAST(tree);
+        final Type[] nodeTypes = validate(CompactSyntaxTree.fromSyntaxTree(tree));
+        final List<SyntaxTreeNode> nodes = CompactSyntaxTree.nodeOrder(tree);
+
         final Map<SyntaxTreeNode, String> nodeTable = new HashMap<>();
+        for (int node = 0; node < nodeTypes.length; node++) {
+            if (nodeTypes[node] != null) {
+                nodeTable.put(nodes.get(node), nodeTypes[node].getName());
+            }
+        }
+
+        return nodeTable;
+    }
+
+    /**
+     * Wie {@link #validate(SyntaxTree)}, aber die Typen werden pro Knoten-Index zurückgegeben.
+     * Knoten ohne Typ sind null.
+     */
+    public static Type[] validate(CompactSyntaxTree tree) {
+        final TypeTable table = TypeTable.fromAST(tree);
+        final Type[] nodeTypes = new Type[tree.size()];
 
         Logger.logDebug("Beginning typevalidation of abstract-syntax-tree", TypeChecker.class);
 
-        validate(tree.getRoot(), table, nodeTable);
+        SyntaxTreeTraversal.postOrder(tree, node -> validate(tree, node, table, nodeTypes));
 
         Logger.logDebug("Successfully typevalidated the abstract-syntax-tree", TypeChecker.class);
 
-        return nodeTable;
+        return nodeTypes;
     }
 
-    private static void validate(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            validate(child, table, nodeTable);
-        }
+    /**
+     * Prüft einen einzelnen Knoten, die Kinder haben bereits einen Eintrag in nodeTypes.
+     */
+    private static void validate(CompactSyntaxTree tree, int root, TypeTable table, Type[] nodeTypes) {
+        switch (tree.getSymbol(root)) {
+            case INTEGER_LIT, STRING_LIT, BOOLEAN_LIT -> {
+                // NodeTable Eintrag für Literal hinzufügen
 
-        if (lit.contains(root.getName())) {
-            // NodeTable Eintrag für Literal hinzufügen
+                final Type literalType = getLiteralType(tree.getSymbol(root));
 
-            final String literalType = getLiteralType(root.getName());
+                Logger.logInfoSupplier(() -> "Register type \"" + literalType.getName() + "\" for node \"" + tree.getName(root) + ": "
+                                             + tree.getValue(root) + "\"", TypeChecker.class);
 
-            Logger.logInfo("Register type \"" + literalType + "\" for node \"" + root.getName() + ": "
-                           + root.getValue() + "\"", TypeChecker.class);
+                nodeTypes[root] = literalType;
+            }
+            case EXPR -> {
+                // NodeTable Eintrag für Expression hinzufügen
 
-            nodeTable.put(root, literalType);
-            return;
-        } else if ("expr".equals(root.getName())) {
-            // NodeTable Eintrag für Expression hinzufügen
+                final Type exprType = table.getMethodReturnType(tree.getValueSymbol(root));
 
-            final String exprType = table.getMethodReturnType(root.getValue());
+                Logger.logInfoSupplier(() -> "Register type \"" + typeName(exprType) + "\" for node \"" + tree.getName(root) + "\"\n"
+                                             + tree.nodePrint(root, "\t\t"), TypeChecker.class);
 
-            Logger.logInfo("Register type \"" + exprType + "\" for node \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), TypeChecker.class);
+                nodeTypes[root] = exprType;
 
-            nodeTable.put(root, exprType);
-        } else if ("par_expr".equals(root.getName())) {
-            // Nodetable Eintrag für Klammern
+                validateExpression(tree, root, table, nodeTypes);
+            }
+            case PAR_EXPR -> {
+                // Nodetable Eintrag für Klammern
 
-            final SyntaxTreeNode centerChild = root.getChildren().get(0);
+                final int centerChild = tree.getFirstChild(root);
 
-            nodeTable.put(root, nodeTable.get(centerChild));
-        } else if ("IDENTIFIER".equals(root.getName())) {
-            // Nodedtable Eintrag fuer Identifier
+                nodeTypes[root] = nodeTypes[centerChild];
+            }
+            case IDENTIFIER -> {
+                // Nodedtable Eintrag fuer Identifier
 
-            final String identifierType = table.getSymbolType(root.getValue());
+                final Type identifierType = table.getSymbolType(tree.getValueId(root));
 
-            Logger.logInfo("Register type \"" + identifierType + "\" for node \"" + root.getName() + ": "
-                           + root.getValue() + "\"", TypeChecker.class);
+                Logger.logInfoSupplier(() -> "Register type \"" + typeName(identifierType) + "\" for node \"" + tree.getName(root) + ": "
+                                             + tree.getValue(root) + "\"", TypeChecker.class);
 
-            nodeTable.put(root, identifierType);
+                nodeTypes[root] = identifierType;
+            }
+            case ASSIGNMENT -> validateAssignment(tree, root, table, nodeTypes);
+            default -> {}
         }
+    }
+
+    private static void validateAssignment(CompactSyntaxTree tree, int root, TypeTable table, Type[] nodeTypes) {
+        final String identifier = tree.getValue(root);
+        final Type identifierType = table.getSymbolType(tree.getValueId(root));
+        final int literalNode = tree.getFirstChild(root);
+        final Type literalType = nodeTypes[literalNode];
+
+        Logger.logInfoSupplier(() -> "Validating assignment: \"" + identifier + "\" -> \"" + typeName(identifierType) + "\" = \""
+                                     + typeName(literalType) + "\"", TypeChecker.class);
+
+        if (identifierType == null) {
+            // Zuweisung an eine nicht deklarierte Variable, z.B. "b = 2;"
+
+            Logger.logErrorSupplier(() -> "Variable " + identifier + " wurde nicht deklariert.", TypeChecker.class);
 
-        if ("assignment".equals(root.getName())) {
-            validateAssignment(root, table, nodeTable);
-        } else if ("expr".equals(root.getName())) {
-            validateExpression(root, table, nodeTable);
+            throw new SymbolNotDefinedException("Zuweisung an nicht deklarierte Variable " + identifier);
         }
-    }
 
-    private static void validateAssignment(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        final String identifier = root.getValue();
-        final String identifierType = table.getSymbolType(identifier);
-        final SyntaxTreeNode literalNode = root.getChildren().get(0);
-        final String literalType = nodeTable.get(literalNode);
+        if (literalType == null) {
+            // Zuweisung einer nicht deklarierten Variable, z.B. "a = b;"
+
+            Logger.logErrorSupplier(() -> "Variable " + tree.getValue(literalNode) + " wurde nicht deklariert.", TypeChecker.class);
 
-        Logger.logInfo("Validating assignment: \"" + identifier + "\" -> \"" + identifierType + "\" = \"" + literalType + "\"", TypeChecker.class);
+            throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + tree.getValue(literalNode));
+        }
 
-        if (!literalType.equals(identifierType)) {
-            Logger.logError("Line " + root.getLine() + " Typeerror: Can't assign [" + literalNode.getValue()
-                            + "] to [" + identifier + "]: " + identifierType, TypeChecker.class);
+        if (literalType != identifierType) {
+            Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Typeerror: Can't assign [" + tree.getValue(literalNode)
+                                          + "] to [" + identifier + "]: " + typeName(identifierType), TypeChecker.class);
 
-            throw new AssignmentTypeMismatchException("Trying to assign " + literalType + " to a " + identifierType + " variable.");
+            throw new AssignmentTypeMismatchException("Trying to assign " + typeName(literalType) + " to a "
+                                                      + typeName(identifierType) + " variable.");
         }
     }
 
-    private static void validateExpression(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        final String op = root.getValue();
+    private static void validateExpression(CompactSyntaxTree tree, int root, TypeTable table, Type[] nodeTypes) {
+        final String op = tree.getValue(root);
+        final int opSymbol = tree.getValueSymbol(root);
+        final int childCount = tree.getChildCount(root);
 
-        Logger.logInfo("Validating expression: \"" + root.getValue() + "\"\n" + root.nodePrint("\t\t"), TypeChecker.class);
+        Logger.logInfoSupplier(() -> "Validating expression: \"" + op + "\"\n" + tree.nodePrint(root, "\t\t"), TypeChecker.class);
 
-        if (root.isEmpty()) {
+        if (childCount == 0) {
             // Keine Kinder
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] without arguments", TypeChecker.class);
+            Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Operatorerror: Can't use [" + op + "] without arguments", TypeChecker.class);
 
             throw new OperatorUsageException("Versuche Operator " + op + " ohne Argumente aufzurufen.");
-        } else if (root.getChildren().size() != 1 && "NOT".equals(op)) {
+        } else if (childCount != 1 && opSymbol == NOT) {
             // Unärer Operator mit  != 1 Child
             // SUB, ADD müssen nicht geprüft werden, da diese doppelt belegt sind mit ihrem binären Gegenstück
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with more than 1 argument", TypeChecker.class);
+            Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Operatorerror: Can't use [" + op + "] with more than 1 argument", TypeChecker.class);
 
             throw new OperatorUsageException("Versuche unären Operator " + op + " mit mehreren Argument aufzurufen.");
-        } else if (root.getChildren().size() == 1 && !unary.contains(op)) {
+        } else if (childCount == 1 && !isUnary(opSymbol)) {
             // Binärer Operator mit 1 Child
 
-            Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with only 1 argument", TypeChecker.class);
+            Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Operatorerror: Can't use [" + op + "] with only 1 argument", TypeChecker.class);
 
             throw new OperatorUsageException("Versuche binären Operator " + op + " mit einem Argument aufzurufen.");
         }
 
-        final List<String> requiredType = table.getMethodArgumentType(op);
-        for (SyntaxTreeNode child : root.getChildren()) {
+        final Set<Type> requiredType = table.getMethodArgumentType(opSymbol);
+        for (int child = tree.getFirstChild(root); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
             // Jedes Child muss korrekten Typ zurückgeben
 
-            final String childReturnType = nodeTable.get(child);
+            final Type childReturnType = nodeTypes[child];
 
             if (childReturnType == null) {
-                Logger.logError("Variable " + child.getValue() + " wurde nicht deklariert.", TypeChecker.class);
+                Logger.logError("Variable " + tree.getValue(child) + " wurde nicht deklariert.", TypeChecker.class);
 
-                throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + child.getValue());
+                throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + tree.getValue(child));
             }
 
             if (!requiredType.contains(childReturnType)) {
                 // Child returned Typ, welcher nicht im SymbolTable als Argumenttyp steht
                 // Der NodeTable enthält auch Literale, diese müssen also nicht einzeln behandelt werden
 
-                Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with argument of type [" + nodeTable.get(child) + "]", TypeChecker.class);
+                Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Typeerror: Can't use [" + op
+                                              + "] with argument of type [" + typeName(childReturnType) + "]", TypeChecker.class);
 
-                throw new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + nodeTable.get(child) + " aufzurufen.");
+                throw new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ "
+                                                        + typeName(childReturnType) + " aufzurufen.");
             }
         }
 
-        if ("EQUAL".equals(op) || "NOT_EQUAL".equals(op)) {
-            final SyntaxTreeNode left = root.getChildren().get(0);
-            final SyntaxTreeNode right = root.getChildren().get(1);
+        if (opSymbol == EQUAL || opSymbol == NOT_EQUAL) {
+            final int left = tree.getChild(root, 0);
+            final int right = tree.getChild(root, 1);
 
-            if (!nodeTable.get(left).equals(nodeTable.get(right))) {
-                Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with arguments of type [" + nodeTable.get(left) + "] and [" + nodeTable.get(right)
-                                + "]", TypeChecker.class);
+            if (nodeTypes[left] != nodeTypes[right]) {
+                Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Typeerror: Can't use [" + op
+                                              + "] with arguments of type [" + typeName(nodeTypes[left]) + "] and ["
+                                              + typeName(nodeTypes[right]) + "]", TypeChecker.class);
 
                 throw new OperatorTypeMismatchException("Versuche Operator" + op + " mit Argumenten ungleichen Types zu verwenden.");
             }
         }
     }
 
-    private static String getLiteralType(String literal) {
+    private static boolean isUnary(int op) {
+        return op == ADD || op == SUB || op == NOT;
+    }
+
+    private static Type getLiteralType(int literal) {
         return switch (literal) {
-            case "BOOLEAN_LIT" -> "BOOLEAN_TYPE";
-            case "INTEGER_LIT" -> "INTEGER_TYPE";
-            case "STRING_LIT" -> "STRING_TYPE";
+            case BOOLEAN_LIT -> Type.BOOLEAN;
+            case INTEGER_LIT -> Type.INTEGER;
+            case STRING_LIT -> Type.STRING;
             default -> null;
         };
     }
+
+    /**
+     * Der Typname für Meldungen, fehlende Typen werden wie zuvor als null ausgegeben.
+     */
+    private static String typeName(Type type) {
+        return type == null ? null : type.getName();
+    }
 }
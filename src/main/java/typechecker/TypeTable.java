@@ -1,116 +1,171 @@
 package typechecker;
 
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeTraversal;
+import parser.grammar.SymbolTable;
 import util.Logger;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static parser.grammar.SymbolTable.ADD;
+import static parser.grammar.SymbolTable.AND;
+import static parser.grammar.SymbolTable.DECLARATION;
+import static parser.grammar.SymbolTable.DIV;
+import static parser.grammar.SymbolTable.EQUAL;
+import static parser.grammar.SymbolTable.GREATER;
+import static parser.grammar.SymbolTable.GREATER_EQUAL;
+import static parser.grammar.SymbolTable.LESS;
+import static parser.grammar.SymbolTable.LESS_EQUAL;
+import static parser.grammar.SymbolTable.MOD;
+import static parser.grammar.SymbolTable.MUL;
+import static parser.grammar.SymbolTable.NOT;
+import static parser.grammar.SymbolTable.NOT_EQUAL;
+import static parser.grammar.SymbolTable.OR;
+import static parser.grammar.SymbolTable.SUB;
 
 /**
  * Speichert die Datentypen von Symbolen und Funktionen in einem Programm.
+ * Variablen sind die Wert-IDs ihrer Bezeichner im Baum, Operatoren Handles aus der {@link SymbolTable}.
  */
 public final class TypeTable {
 
+    private final CompactSyntaxTree tree;
+
     /**
-     * Weist jeder deklarierter Variable ihren Typ zu.
+     * Weist jeder deklarierten Variable ihren Typ zu, indiziert über die Wert-ID des Bezeichners.
+     * Nicht deklarierte Bezeichner haben null.
      */
-    private final Map<String, String> symbolTable;
+    private final Type[] symbolTable;
+    private final int symbolCount;
 
     /**
-     * Weist jedem Operator einen Rückgabetyp zu.
+     * Weist jedem Operator einen Rückgabetyp zu, indiziert über das Handle des Operators.
      */
-    private final Map<String, String> methodReturnTable;
+    private final Type[] methodReturnTable;
 
     /**
-     * Weist jedem Operator die Typen seiner Argumente zu.
+     * Weist jedem Operator die Typen seiner Argumente zu, indiziert über das Handle des Operators.
      */
-    private final Map<String, List<String>> methodArgumentTable;
+    private final Set<Type>[] methodArgumentTable;
 
-    private TypeTable(Map<String, String> symbolTable) {
-        this.symbolTable = Collections.unmodifiableMap(symbolTable);
+    @SuppressWarnings("unchecked")
+    private TypeTable(CompactSyntaxTree tree, Type[] symbolTable, int symbolCount) {
+        this.tree = tree;
+        this.symbolTable = symbolTable;
+        this.symbolCount = symbolCount;
 
         // Enthält die Return-Types der Operatoren
 
-        this.methodReturnTable = Map.ofEntries(Map.entry("ADD", "INTEGER_TYPE"),
-                                               Map.entry("SUB", "INTEGER_TYPE"),
-                                               Map.entry("MUL", "INTEGER_TYPE"),
-                                               Map.entry("DIV", "INTEGER_TYPE"),
-                                               Map.entry("MOD", "INTEGER_TYPE"),
-                                               Map.entry("NOT", "BOOLEAN_TYPE"),
-                                               Map.entry("AND", "BOOLEAN_TYPE"),
-                                               Map.entry("OR", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("NOT_EQUAL", "BOOLEAN_TYPE"));
-
-        this.methodArgumentTable = Map.ofEntries(Map.entry("ADD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("SUB", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MUL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("DIV", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MOD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("AND", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("OR", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("NOT", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("LESS", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("LESS_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")),
-                                                 Map.entry("NOT_EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")));
+        this.methodReturnTable = new Type[NOT_EQUAL + 1];
+        for (int op : new int[]{ADD, SUB, MUL, DIV, MOD}) {
+            this.methodReturnTable[op] = Type.INTEGER;
+        }
+        for (int op : new int[]{NOT, AND, OR, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EQUAL, NOT_EQUAL}) {
+            this.methodReturnTable[op] = Type.BOOLEAN;
+        }
+
+        this.methodArgumentTable = new Set[NOT_EQUAL + 1];
+        for (int op : new int[]{ADD, SUB, MUL, DIV, MOD, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL}) {
+            this.methodArgumentTable[op] = EnumSet.of(Type.INTEGER);
+        }
+        for (int op : new int[]{AND, OR, NOT}) {
+            this.methodArgumentTable[op] = EnumSet.of(Type.BOOLEAN);
+        }
+        for (int op : new int[]{EQUAL, NOT_EQUAL}) {
+            this.methodArgumentTable[op] = EnumSet.allOf(Type.class);
+        }
     }
 
     public static TypeTable fromAST(SyntaxTree tree) {
+        return fromAST(CompactSyntaxTree.fromSyntaxTree(tree));
+    }
+
+    public static TypeTable fromAST(CompactSyntaxTree tree) {
         Logger.logDebug("Building typetable", TypeTable.class);
 
-        final Map<String, String> symbolTable = new HashMap<>();
+        final Type[] symbolTable = new Type[tree.getValueCount()];
+
+        SyntaxTreeTraversal.postOrder(tree, node -> initSymbolTable(tree, node, symbolTable));
 
-        initSymbolTable(tree.getRoot(), symbolTable);
+        final int symbolCount = (int) Arrays.stream(symbolTable)
+                                            .filter(Objects::nonNull)
+                                            .count();
 
         Logger.logDebug("Successfully built typetable", TypeTable.class);
 
-        return new TypeTable(symbolTable);
+        return new TypeTable(tree, symbolTable, symbolCount);
     }
 
-    private static void initSymbolTable(SyntaxTreeNode root, Map<String, String> table) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            initSymbolTable(child, table);
-        }
-
-        if ("declaration".equals(root.getName())) {
-            final SyntaxTreeNode child = root.getChildren().get(0);
+    private static void initSymbolTable(CompactSyntaxTree tree, int root, Type[] table) {
+        if (tree.getSymbol(root) == DECLARATION) {
+            final int identifier = tree.getFirstChild(root);
+            final int symbol = tree.getValueId(identifier);
 
-            Logger.logInfo("Adding Entry: \"" + child.getValue() + "\" -> \"" + root.getValue() + "\"", TypeTable.class);
-            final String oldEntry = table.put(child.getValue(), root.getValue());
+            Logger.logInfoSupplier(() -> "Adding Entry: \"" + tree.getValue(identifier) + "\" -> \"" + tree.getValue(root) + "\"", TypeTable.class);
 
-            if (oldEntry != null) {
-                Logger.logError("Line " + root.getLine() + " Symbolerror: [" + child.getValue() + "] already defined", TypeTable.class);
-                throw new SymbolAlreadyDefinedException("Das Symbol " + child.getValue() + " wurde bereits deklariert.");
+            if (table[symbol] != null) {
+                Logger.logErrorSupplier(() -> "Line " + tree.getLine(root) + " Symbolerror: [" + tree.getValue(identifier) + "] already defined", TypeTable.class);
+                throw new SymbolAlreadyDefinedException("Das Symbol " + tree.getValue(identifier) + " wurde bereits deklariert.");
             }
+
+            table[symbol] = Type.fromSymbol(tree.getValueSymbol(root));
         }
     }
 
     // Getters
 
     public String getSymbolType(String sym) {
-        return this.symbolTable.get(sym);
+        final int symbol = this.tree.findValueId(sym);
+
+        return symbol == CompactSyntaxTree.NONE ? null : name(this.getSymbolType(symbol));
+    }
+
+    /**
+     * @param symbol Die Wert-ID des Bezeichners, siehe {@link CompactSyntaxTree#getValueId(int)}.
+     *
+     * @return Der Typ oder null, wenn die Variable nicht deklariert wurde.
+     */
+    public Type getSymbolType(int symbol) {
+        return this.symbolTable[symbol];
     }
 
     public String getMethodReturnType(String meth) {
-        return this.methodReturnTable.get(meth);
+        return name(this.getMethodReturnType(SymbolTable.lookup(meth)));
+    }
+
+    /**
+     * @return Der Rückgabetyp oder null, wenn meth kein Operator ist.
+     */
+    public Type getMethodReturnType(int meth) {
+        return meth >= 0 && meth < this.methodReturnTable.length ? this.methodReturnTable[meth] : null;
     }
 
     public List<String> getMethodArgumentType(String meth) {
-        return this.methodArgumentTable.get(meth);
+        final Set<Type> types = this.getMethodArgumentType(SymbolTable.lookup(meth));
+
+        return types == null ? null : types.stream()
+                                           .map(Type::getName)
+                                           .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * @return Die erlaubten Argumenttypen oder null, wenn meth kein Operator ist.
+     */
+    public Set<Type> getMethodArgumentType(int meth) {
+        return meth >= 0 && meth < this.methodArgumentTable.length ? this.methodArgumentTable[meth] : null;
     }
 
     public int getSymbolCount() {
-        return this.symbolTable.size();
+        return this.symbolCount;
+    }
+
+    private static String name(Type type) {
+        return type == null ? null : type.getName();
     }
 }
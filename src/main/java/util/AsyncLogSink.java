@@ -0,0 +1,184 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gibt die Zeilen über eine beschränkte Warteschlange an einen Hintergrund-Thread weiter,
+ * der sie in den eigentlichen Sink schreibt. Die Compilerphasen warten dadurch nie auf die Ausgabe.
+ * <p>
+ * Ist die Warteschlange voll, wird die Zeile verworfen statt zu blockieren,
+ * der Speicherverbrauch bleibt so auch bei sehr viel Ausgabe beschränkt.
+ * Die Anzahl der verworfenen Zeilen wird beim Schließen ausgegeben.
+ * <p>
+ * Fehler des eigentlichen Sinks (z.B. eine volle Festplatte) beenden den Worker nicht, die betroffenen Zeilen
+ * gelten als geschrieben und werden beim Schließen gezählt. {@link #flush()} und {@link #close()} blockieren
+ * dadurch nie dauerhaft, auch nicht im Shutdown-Hook des {@link Logger}.
+ */
+public final class AsyncLogSink implements LogSink {
+
+    /**
+     * Beendet den Worker, wird über die Identität erkannt.
+     * Kein Interrupt, weil ein Interrupt während des Schreibens einen FileChannel schließen würde.
+     */
+    private static final String STOP = new String("");
+
+    /**
+     * So lange wartet {@link #close()} höchstens auf den Worker.
+     */
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final BlockingQueue<String> queue;
+    private final LogSink target;
+    private final Thread worker;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Nur vom Worker geschrieben, {@link #flush()} wartet darauf (über den Monitor dieses Objekts).
+     */
+    private long completed;
+
+    /**
+     * Wird gesetzt, wenn der Worker endet, auch durch einen Error. Danach wartet {@link #flush()} nicht mehr.
+     */
+    private boolean stopped;
+
+    private volatile boolean closed;
+
+    public AsyncLogSink(LogSink target, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.target = target;
+
+        this.worker = new Thread(this::drain, "stups-log");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void write(String line) {
+        if (this.closed || !this.queue.offer(line)) {
+            this.dropped.incrementAndGet();
+            return;
+        }
+
+        this.submitted.incrementAndGet();
+    }
+
+    private void drain() {
+        final List<String> batch = new ArrayList<>();
+
+        try {
+            boolean running = true;
+            while (running) {
+                try {
+                    batch.add(this.queue.take());
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                this.queue.drainTo(batch);
+
+                // Failed lines count as completed too, flush() only waits for the worker to get past them
+                int written = 0;
+                for (String line : batch) {
+                    if (line == STOP) {
+                        running = false;
+                        continue;
+                    }
+
+                    try {
+                        this.target.write(line);
+                    } catch (RuntimeException e) {
+                        this.failed.incrementAndGet();
+                    }
+                    written++;
+                }
+
+                try {
+                    this.target.flush();
+                } catch (RuntimeException e) {
+                    // Nothing to recover, the next batch tries again
+                }
+
+                synchronized (this) {
+                    this.completed += written;
+                    this.notifyAll();
+                }
+
+                batch.clear();
+            }
+        } finally {
+            synchronized (this) {
+                this.stopped = true;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wartet, bis alle bisher angenommenen Zeilen geschrieben sind.
+     */
+    @Override
+    public void flush() {
+        final long target = this.submitted.get();
+
+        synchronized (this) {
+            while (this.completed < target && !this.stopped) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.flush();
+
+        try {
+            // The queue may be full of lines from a writer that raced with closed, so wait for space, but not forever
+            if (this.queue.offer(STOP, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                this.worker.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            final long lost = this.dropped.get();
+            if (lost > 0) {
+                this.target.write("... " + lost + " Zeilen verworfen, die Warteschlange war voll");
+            }
+
+            final long notWritten = this.failed.get();
+            if (notWritten > 0) {
+                this.target.write("... " + notWritten + " Zeilen konnten nicht geschrieben werden");
+            }
+        } catch (RuntimeException e) {
+            // The target is broken, closing it is all that is left
+        }
+
+        this.target.close();
+    }
+
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return Die Anzahl der Zeilen, bei denen der eigentliche Sink eine Exception geworfen hat.
+     */
+    public long getFailedCount() {
+        return this.failed.get();
+    }
+}
@@ -0,0 +1,33 @@
+package util;
+
+/**
+ * Vergibt fortlaufende IDs für die Knoten der Zwischendarstellungen (Syntaxbaum, FlowGraph, DataFlowGraph, ...).
+ * <p>
+ * Jeder Thread hat seinen eigenen Zähler, da eine Übersetzung immer vollständig in einem Thread läuft.
+ * Mit {@link #reset()} beginnt eine neue Übersetzung wieder bei 0, dadurch sind die IDs (z.B. im Graphviz-Export)
+ * für dasselbe Programm immer gleich.
+ * Die IDs sind nur innerhalb einer Übersetzung eindeutig.
+ */
+public final class IdAllocator {
+
+    private static final ThreadLocal<IdAllocator> CURRENT = ThreadLocal.withInitial(IdAllocator::new);
+
+    private int next;
+
+    private IdAllocator() {}
+
+    /**
+     * Liefert die nächste freie ID der aktuellen Übersetzung.
+     */
+    public static int nextId() {
+        return CURRENT.get().next++;
+    }
+
+    /**
+     * Beginnt eine neue Übersetzung im aktuellen Thread.
+     * Knoten aus vorherigen Übersetzungen dürfen danach nicht mehr mit neuen Knoten vermischt werden.
+     */
+    public static void reset() {
+        CURRENT.get().next = 0;
+    }
+}
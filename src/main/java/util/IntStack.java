@@ -0,0 +1,51 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Ein Stack für primitive ints, damit Durchläufe über Knoten-Indizes nicht für jeden Knoten ein Integer erzeugen.
+ */
+public final class IntStack {
+
+    private int[] elements;
+    private int size;
+
+    public IntStack() {
+        this.elements = new int[16];
+    }
+
+    public void push(int value) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, 2 * this.size);
+        }
+
+        this.elements[this.size] = value;
+        this.size++;
+    }
+
+    public int pop() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("Can't pop empty stack");
+        }
+
+        this.size--;
+        return this.elements[this.size];
+    }
+
+    public int peek() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("Can't peek empty stack");
+        }
+
+        return this.elements[this.size - 1];
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
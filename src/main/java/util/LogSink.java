@@ -0,0 +1,71 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Das Ziel, in das der {@link Logger} fertig formatierte Zeilen schreibt.
+ * <p>
+ * Ein Sink wird über eine Beschreibung ausgewählt (siehe {@link #fromSpec(String, int)}):
+ * <ul>
+ *     <li>"stdout": Direkt auf die Standardausgabe</li>
+ *     <li>"file:&lt;Pfad&gt;": Gepuffert in eine Datei</li>
+ *     <li>"ring:&lt;Anzahl&gt;": Nur die letzten Zeilen behalten und beim Schließen ausgeben</li>
+ * </ul>
+ */
+public interface LogSink {
+
+    void write(String line);
+
+    /**
+     * Schreibt gepufferte Zeilen in das eigentliche Ziel.
+     */
+    default void flush() {}
+
+    /**
+     * Gibt das Ziel frei, danach dürfen keine Zeilen mehr geschrieben werden.
+     */
+    default void close() {
+        this.flush();
+    }
+
+    static LogSink stdout() {
+        return new LogSink() {
+            @Override
+            public void write(String line) {
+                System.out.println(line);
+            }
+
+            @Override
+            public void flush() {
+                System.out.flush();
+            }
+        };
+    }
+
+    /**
+     * @param spec     Beschreibung des Sinks, z.B. "file:compile.log".
+     * @param capacity Ist die Kapazität größer als 0, wird der Sink in einen {@link AsyncLogSink} gepackt.
+     */
+    static LogSink fromSpec(String spec, int capacity) {
+        final String trimmed = spec.trim();
+        final LogSink sink;
+
+        if ("stdout".equals(trimmed)) {
+            sink = stdout();
+        } else if (trimmed.startsWith("file:")) {
+            final String path = trimmed.substring("file:".length());
+            try {
+                sink = new FileLogSink(Paths.get(path));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Log-Datei " + path + " kann nicht geöffnet werden.", e);
+            }
+        } else if (trimmed.startsWith("ring:")) {
+            sink = new RingBufferLogSink(Integer.parseInt(trimmed.substring("ring:".length())), stdout());
+        } else {
+            throw new IllegalArgumentException("Unbekannter Log-Sink: " + spec);
+        }
+
+        return capacity > 0 ? new AsyncLogSink(sink, capacity) : sink;
+    }
+}
@@ -1,82 +1,232 @@
 package util;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * Gibt Meldungen der Compilerphasen aus, abhängig vom globalen Schalter, dem Level und dem Package des Aufrufers.
+ * Die Einstellungen können zur Laufzeit geändert werden, die Startwerte kommen aus den System-Properties:
+ * <ul>
+ *     <li>stups.log: Logging einschalten und das Level setzen (ERROR, DEBUG oder INFO), OFF schaltet es aus</li>
+ *     <li>stups.log.exceptions: Meldungen beim Erzeugen von Exceptions ausgeben</li>
+ *     <li>stups.log.packages: Kommagetrennte Packages, ein "-" davor schaltet das Package aus (z.B. "-parser.grammar")</li>
+ *     <li>stups.log.sink: Ziel der Ausgabe, siehe {@link LogSink#fromSpec(String, int)} (Standard: stdout)</li>
+ *     <li>stups.log.async: Kapazität der Warteschlange für asynchrone Ausgabe, 0 schreibt synchron (Standard: 0)</li>
+ * </ul>
+ * Der StupsCompiler kann dieselben Einstellungen über Kommandozeilenargumente setzen, siehe {@link #configure(UnaryOperator)}.
+ * Bei ausgeschaltetem Logging kosten die Supplier-Varianten nur die Abfrage, die Nachricht wird nie erzeugt.
+ * Nachrichten, die zusammengesetzt werden müssen, sollten deshalb immer über die Supplier-Varianten geloggt werden.
+ */
 // Maximal professioneller Logger
 public final class Logger {
 
-    private static final boolean LOG_ENABLED = false;
-    private static final boolean LOG_EXCEPTIONS = false;
-    private static final int LOG_LEVEL = 0; // 0 = ERROR, 1 = DEBUG, 2 = INFO
+    /**
+     * Die Level sind aufsteigend geordnet, ein Level schließt alle vorherigen ein.
+     */
+    public enum Level {
+        ERROR,
+        DEBUG,
+        INFO
+    }
+
+    private static volatile boolean enabled;
+    private static volatile boolean exceptions;
+    private static volatile Level level = Level.INFO;
+    private static volatile LogSink sink = LogSink.stdout();
+    private static final ThreadLocal<LogSink> threadSink = new ThreadLocal<>();
+    private static boolean shutdownHookAdded;
 
-    private static final Map<String, Boolean> packages;
+    private static final Map<String, Boolean> packages = new ConcurrentHashMap<>();
 
     static {
-        packages = Map.ofEntries(Map.entry("parser.grammar", true),
-                                 Map.entry("parser", true),
-                                 Map.entry("parser.ast", true),
-                                 Map.entry("typechecker", true),
-                                 Map.entry("codegen.flowgraph", true),
-                                 Map.entry("codegen.analysis", true),
-                                 Map.entry("codegen.analysis.dataflow", true),
-                                 Map.entry("codegen.analysis.liveness", true),
-                                 Map.entry("codegen", true));
+        for (String pkg : new String[]{"", "parser.grammar", "parser", "parser.ast", "typechecker",
+                                       "codegen.flowgraph", "codegen.emit", "codegen.analysis",
+                                       "codegen.analysis.dataflow", "codegen.analysis.liveness", "codegen"}) {
+            packages.put(pkg, true);
+        }
+
+        try {
+            configure(System::getProperty);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ungültige Logger-Einstellung: " + e.getMessage());
+        }
     }
 
     private Logger() {}
 
+    // Configuration
+
+    /**
+     * Übernimmt die Einstellungen aus einer Quelle, die die Schlüssel der System-Properties kennt
+     * (z.B. "stups.log"). Schlüssel, für die die Quelle null liefert, bleiben unverändert.
+     *
+     * @throws IllegalArgumentException Bei ungültigen Werten, z.B. einem unbekannten Level.
+     */
+    public static void configure(UnaryOperator<String> settings) {
+        final String logSetting = settings.apply("stups.log");
+        if (logSetting != null) {
+            final String trimmed = logSetting.trim().toUpperCase();
+            enabled = !"OFF".equals(trimmed);
+            level = trimmed.isEmpty() || "OFF".equals(trimmed) ? Level.INFO : Level.valueOf(trimmed);
+        }
+
+        final String exceptionSetting = settings.apply("stups.log.exceptions");
+        if (exceptionSetting != null) {
+            exceptions = Boolean.parseBoolean(exceptionSetting.trim());
+        }
+
+        final String packageSetting = settings.apply("stups.log.packages");
+        if (packageSetting != null) {
+            for (String pkg : packageSetting.split(",")) {
+                final String trimmed = pkg.trim();
+                if (trimmed.startsWith("-")) {
+                    packages.put(trimmed.substring(1), false);
+                } else if (!trimmed.isEmpty()) {
+                    packages.put(trimmed, true);
+                }
+            }
+        }
+
+        final String sinkSetting = settings.apply("stups.log.sink");
+        final String asyncSetting = settings.apply("stups.log.async");
+        if (sinkSetting != null || asyncSetting != null) {
+            setSink(LogSink.fromSpec(sinkSetting == null ? "stdout" : sinkSetting,
+                                     asyncSetting == null ? 0 : Integer.parseInt(asyncSetting.trim())));
+        }
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Logger.enabled = enabled;
+    }
+
+    public static void setLevel(Level level) {
+        Logger.level = level;
+    }
+
+    public static void setExceptionsEnabled(boolean exceptions) {
+        Logger.exceptions = exceptions;
+    }
+
+    /**
+     * Ersetzt das Ziel der Ausgabe, der bisherige Sink wird geschlossen.
+     * Beim Beenden der JVM wird der aktuelle Sink geschlossen, gepufferte Zeilen gehen also nicht verloren.
+     */
+    public static void setSink(LogSink newSink) {
+        final LogSink old;
+        synchronized (Logger.class) {
+            old = sink;
+            sink = newSink;
+
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(Logger::close, "stups-log-shutdown"));
+                shutdownHookAdded = true;
+            }
+        }
+
+        old.close();
+    }
+
+    public static LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Leitet die Meldungen des aktuellen Threads bis {@link #releaseThread()} in einen eigenen Sink um.
+     * Der Batch-Modus sammelt so die Meldungen jeder Datei und gibt sie in der Reihenfolge der Dateien aus.
+     */
+    public static void captureThread(LogSink threadLocalSink) {
+        threadSink.set(threadLocalSink);
+    }
+
+    public static void releaseThread() {
+        threadSink.remove();
+    }
+
+    public static void flush() {
+        sink.flush();
+    }
+
+    /**
+     * Schließt den aktuellen Sink, weitere Meldungen gehen wieder auf die Standardausgabe.
+     */
+    public static void close() {
+        final LogSink old;
+        synchronized (Logger.class) {
+            old = sink;
+            sink = LogSink.stdout();
+        }
+
+        old.close();
+    }
+
+    /**
+     * Schaltet das Logging für genau ein Package ein oder aus, Unterpackages haben eigene Einträge.
+     */
+    public static void setPackageEnabled(String pkg, boolean enabled) {
+        packages.put(pkg, enabled);
+    }
+
+    /**
+     * Ob eine Meldung mit diesem Level von clazz ausgegeben würde.
+     * Kann vor teuren Berechnungen abgefragt werden, die nur für das Logging gebraucht werden.
+     */
+    public static boolean isEnabled(Level messageLevel, Class clazz) {
+        return enabled
+               && messageLevel.compareTo(level) <= 0
+               && packages.getOrDefault(clazz.getPackageName(), true);
+    }
+
     private static void log(String message, Class clazz) {
-        if (LOG_ENABLED
-            && (packages.containsKey(clazz.getPackageName()) && packages.get(clazz.getPackageName()).equals(true))
-            || "StupsCompiler".equals(clazz.getName())) {
-            System.out.printf("%-75s\t(%s)%n", message, clazz.getName());
+        final LogSink captured = threadSink.get();
+        final LogSink target = captured != null ? captured : sink;
 
-        } else if (LOG_ENABLED && !packages.containsKey(clazz.getPackageName())) {
-            System.out.println("Failed Logging attempt from " + clazz.getName() + ": " + clazz.getPackageName());
+        if (packages.containsKey(clazz.getPackageName())) {
+            target.write(String.format("%-75s\t(%s)", message, clazz.getName()));
+        } else {
+            target.write("Failed Logging attempt from " + clazz.getName() + ": " + clazz.getPackageName());
+        }
+    }
+
+    private static void log(Level messageLevel, String prefix, Supplier<String> call, Class clazz) {
+        if (isEnabled(messageLevel, clazz)) {
+            log(prefix + call.get(), clazz);
         }
     }
 
     public static void logException(String message, Class clazz) {
-        if (LOG_EXCEPTIONS) {
-            log("EXCEP - " + message, clazz);
+        logExceptionSupplier(() -> message, clazz);
+    }
+
+    public static void logExceptionSupplier(Supplier<String> call, Class clazz) {
+        if (exceptions) {
+            log(Level.ERROR, "EXCEP - ", call, clazz);
         }
     }
 
     public static void logError(String message, Class clazz) {
-        if (LOG_LEVEL >= 0) {
-            log("ERROR - " + message, clazz);
-        }
+        log(Level.ERROR, "ERROR - ", () -> message, clazz);
     }
 
     public static void logDebug(String message, Class clazz) {
-        if (LOG_LEVEL >= 1) {
-            log("DEBUG - " + message, clazz);
-        }
+        log(Level.DEBUG, "DEBUG - ", () -> message, clazz);
     }
 
     public static void logInfo(String message, Class clazz) {
-        if (LOG_LEVEL >= 2) {
-            log("INFO  - " + message, clazz);
-        }
+        log(Level.INFO, "INFO  - ", () -> message, clazz);
     }
 
     public static void logErrorSupplier(Supplier<String> call, Class clazz) {
-        if (LOG_ENABLED && LOG_LEVEL >= 0) {
-            logError(call.get(), clazz);
-        }
+        log(Level.ERROR, "ERROR - ", call, clazz);
     }
 
     public static void logDebugSupplier(Supplier<String> call, Class clazz) {
-        if (LOG_ENABLED && LOG_LEVEL >= 1) {
-            logDebug(call.get(), clazz);
-        }
+        log(Level.DEBUG, "DEBUG - ", call, clazz);
     }
 
     public static void logInfoSupplier(Supplier<String> call, Class clazz) {
-        if (LOG_ENABLED && LOG_LEVEL >= 2) {
-            logInfo(call.get(), clazz);
-        }
+        log(Level.INFO, "INFO  - ", call, clazz);
     }
 
     // TODO: Flipped nullble and message
@@ -0,0 +1,200 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Misst für jede Compilerphase Laufzeit, CPU-Zeit und allokierte Bytes und sammelt Kennzahlen wie die Anzahl der Token.
+ * <p>
+ * Die Messung gilt für den aktuellen Thread, zwischen {@link #begin()} und {@link #end()}.
+ * Ohne laufende Messung sind {@link #phase(String)} und {@link #count(String, long)} leere Operationen,
+ * die Phasen können deshalb fest im Code stehen:
+ * <pre>
+ *     try (PhaseStats.Phase ignored = PhaseStats.phase("lex")) {
+ *         ...
+ *     }
+ * </pre>
+ * Phasen dürfen verschachtelt sein, die Werte der äußeren Phase enthalten dann die der inneren.
+ * Wird eine Phase mehrfach betreten, werden die Werte aufsummiert.
+ */
+public final class PhaseStats {
+
+    private static final ThreadLocal<PhaseStats> current = new ThreadLocal<>();
+
+    private static final Phase NO_PHASE = () -> {};
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final Map<String, PhaseResult> phases = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    private PhaseStats() {}
+
+    /**
+     * Startet eine neue Messung auf dem aktuellen Thread.
+     */
+    public static PhaseStats begin() {
+        final PhaseStats stats = new PhaseStats();
+        current.set(stats);
+
+        return stats;
+    }
+
+    /**
+     * Setzt eine Messung auf dem aktuellen Thread fort, z.B. wenn die letzte Phase einer Datei auf einem anderen Thread
+     * läuft als die vorherigen. Die Messung darf dabei auf keinem anderen Thread mehr laufen.
+     */
+    public static void resume(PhaseStats stats) {
+        current.set(stats);
+    }
+
+    /**
+     * Beendet die Messung auf dem aktuellen Thread.
+     */
+    public static void end() {
+        current.remove();
+    }
+
+    public static boolean isRecording() {
+        return current.get() != null;
+    }
+
+    public static Phase phase(String name) {
+        final PhaseStats stats = current.get();
+        if (stats == null) {
+            return NO_PHASE;
+        }
+
+        final long wallBegin = System.nanoTime();
+        final long cpuBegin = cpuTime();
+        final long allocatedBegin = allocatedBytes();
+
+        return () -> {
+            final long wall = System.nanoTime() - wallBegin;
+            final long cpu = cpuBegin < 0 ? -1 : cpuTime() - cpuBegin;
+            final long allocated = allocatedBegin < 0 ? -1 : allocatedBytes() - allocatedBegin;
+
+            stats.phases.computeIfAbsent(name, key -> new PhaseResult()).add(wall, cpu, allocated);
+        };
+    }
+
+    public static void count(String name, long value) {
+        final PhaseStats stats = current.get();
+        if (stats != null) {
+            stats.counts.merge(name, value, Long::sum);
+        }
+    }
+
+    /**
+     * @return Die CPU-Zeit des Threads in ns oder -1, wenn die JVM sie nicht misst.
+     */
+    private static long cpuTime() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * @return Die bisher vom Thread allokierten Bytes oder -1, wenn die JVM sie nicht misst.
+     */
+    private static long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return -1;
+    }
+
+    public long getCount(String name) {
+        return this.counts.getOrDefault(name, 0L);
+    }
+
+    public boolean hasPhase(String name) {
+        return this.phases.containsKey(name);
+    }
+
+    /**
+     * Die Messwerte als JSON-Objekt, Zeiten in ns und Speicher in Bytes, -1 für nicht gemessene Werte:
+     * <pre>
+     *     {"phases": {"lex": {"calls": 1, "wallNanos": ..., "cpuNanos": ..., "allocatedBytes": ...}, ...},
+     *      "counts": {"tokens": ..., ...}}
+     * </pre>
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder();
+
+        json.append("{\"phases\": {");
+        String separator = "";
+        for (Map.Entry<String, PhaseResult> entry : this.phases.entrySet()) {
+            final PhaseResult result = entry.getValue();
+            json.append(separator)
+                .append(quote(entry.getKey()))
+                .append(": {\"calls\": ").append(result.calls)
+                .append(", \"wallNanos\": ").append(result.wallNanos)
+                .append(", \"cpuNanos\": ").append(result.cpuNanos)
+                .append(", \"allocatedBytes\": ").append(result.allocatedBytes)
+                .append("}");
+            separator = ", ";
+        }
+
+        json.append("}, \"counts\": {");
+        separator = "";
+        for (Map.Entry<String, Long> entry : this.counts.entrySet()) {
+            json.append(separator).append(quote(entry.getKey())).append(": ").append(entry.getValue());
+            separator = ", ";
+        }
+        json.append("}}");
+
+        return json.toString();
+    }
+
+    public static String quote(String value) {
+        final StringBuilder quoted = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Der Messbereich einer Phase, wird beim Schließen ausgewertet.
+     */
+    public interface Phase extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final class PhaseResult {
+
+        private int calls;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+
+        private void add(long wall, long cpu, long allocated) {
+            this.calls++;
+            this.wallNanos += wall;
+            this.cpuNanos = cpu < 0 || this.cpuNanos < 0 ? -1 : this.cpuNanos + cpu;
+            this.allocatedBytes = allocated < 0 || this.allocatedBytes < 0 ? -1 : this.allocatedBytes + allocated;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Behält nur die letzten Zeilen im Speicher, ältere Zeilen werden überschrieben.
+ * Erst beim Schließen werden die behaltenen Zeilen an das Ziel weitergegeben,
+ * dadurch kostet auch ein ausführliches Level nur wenig, wenn am Ende nur das Ende des Logs interessiert.
+ */
+public final class RingBufferLogSink implements LogSink {
+
+    private final String[] lines;
+    private final LogSink target;
+
+    /**
+     * Anzahl der insgesamt geschriebenen Zeilen, die nächste Zeile landet bei written % lines.length.
+     */
+    private long written;
+
+    public RingBufferLogSink(int capacity, LogSink target) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Die Kapazität muss positiv sein.");
+        }
+
+        this.lines = new String[capacity];
+        this.target = target;
+    }
+
+    @Override
+    public synchronized void write(String line) {
+        this.lines[(int) (this.written % this.lines.length)] = line;
+        this.written++;
+    }
+
+    /**
+     * @return Die behaltenen Zeilen, älteste zuerst.
+     */
+    public synchronized List<String> getLines() {
+        final int count = (int) Math.min(this.written, this.lines.length);
+        final List<String> result = new ArrayList<>(count);
+
+        for (long i = this.written - count; i < this.written; i++) {
+            result.add(this.lines[(int) (i % this.lines.length)]);
+        }
+
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        final long dropped = this.written - this.lines.length;
+        if (dropped > 0) {
+            this.target.write("... " + dropped + " ältere Zeilen verworfen");
+        }
+
+        for (String line : this.getLines()) {
+            this.target.write(line);
+        }
+
+        this.written = 0;
+        this.target.close();
+    }
+}
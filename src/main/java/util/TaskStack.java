@@ -0,0 +1,37 @@
+package util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Ersetzt Rekursion durch einen expliziten Stack von Arbeitsschritten.
+ * <p>
+ * Ein Schritt, der sonst rekursiv absteigen würde, plant stattdessen seine Teilschritte mit {@link #push(Runnable...)} ein.
+ * Diese laufen vor allen bereits eingeplanten Schritten, die Reihenfolge entspricht also genau der Rekursion.
+ */
+public final class TaskStack {
+
+    private final Deque<Runnable> tasks;
+
+    public TaskStack() {
+        this.tasks = new ArrayDeque<>();
+    }
+
+    /**
+     * Plant die Schritte in der angegebenen Reihenfolge ein, vor allen bereits eingeplanten Schritten.
+     */
+    public void push(Runnable... steps) {
+        for (int i = steps.length - 1; i >= 0; i--) {
+            this.tasks.push(steps[i]);
+        }
+    }
+
+    /**
+     * Führt Schritte aus, bis keine mehr eingeplant sind.
+     */
+    public void run() {
+        while (!this.tasks.isEmpty()) {
+            this.tasks.pop().run();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package codegen;
 
+import codegen.emit.JasminAssembler;
+import codegen.flowgraph.FlowBasicBlock;
 import codegen.flowgraph.FlowGraph;
 import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.FlowInstruction;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
@@ -73,12 +76,11 @@ class FlowGraphGeneratorTest {
 
     private static void compileJasmin(String src) {
         codegenToFile(src);
-        final ProcessBuilder assemble = new ProcessBuilder("java", "-jar", "jasmin.jar", "TestOutput.j");
         try {
-            final Process p = assemble.start();
-            p.waitFor();
-        } catch (IOException | InterruptedException e) {
-            System.out.println("Test konnte nicht von Jasmin übersetzt werden.");
+            final Path classFile = Paths.get(System.getProperty("user.dir") + "/TestOutput.class");
+            Files.write(classFile, JasminAssembler.assemble(src).toByteArray());
+        } catch (IOException e) {
+            System.out.println("Test konnte nicht assembliert werden.");
         }
     }
 
@@ -319,6 +321,38 @@ class FlowGraphGeneratorTest {
         assertThat(executeCompiledProgram()).isEqualTo(result);
     }
 
+    /**
+     * Alle Durchläufe über den Baum müssen ohne größeren Thread-Stack (-Xss) funktionieren.
+     * Das Programm wird nur bis zum Flussgraphen übersetzt, die Methode wäre für eine Classfile zu groß.
+     */
+    @Test
+    void compileDeeplyNestedProgramTest() {
+        final int depth = 100_000;
+        final String program = "class TestOutput {\n\tpublic static void main(String[] args) {\n\t\tint i = 0;\n"
+                               + "if (true) {\n".repeat(depth)
+                               + "i = " + "(".repeat(depth) + "i + 1" + ")".repeat(depth) + ";\n"
+                               + "}\n".repeat(depth)
+                               + "\t\tSystem.out.println(i);\n\t}\n}";
+
+        final Lexer lex = new StupsLexer(CharStreams.fromString(program));
+        final SyntaxTree tree = parser.parseAbstractSyntaxTree(lex.getAllTokens(), lex.getVocabulary());
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
+        final FlowGraph srcProg = gen.generateGraph();
+
+        long jumps = 0;
+        for (FlowBasicBlock block : srcProg) {
+            for (FlowInstruction instruction : block) {
+                if ("ifeq".equals(instruction.getInstruction())) {
+                    jumps++;
+                }
+            }
+        }
+
+        assertThat(tree.size()).isGreaterThan(3L * depth);
+        assertThat(jumps).isEqualTo(depth);
+    }
+
     @Test
     void compileEmptyProgramTest() {
         final String program = readProgram("EmptyFile.stups");
@@ -0,0 +1,107 @@
+package codegen.analysis.dataflow;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.FlowInstruction;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.StupsParser;
+import parser.ast.CompactSyntaxTree;
+import parser.grammar.Grammar;
+import typechecker.TypeChecker;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataFlowGraphTest {
+
+    private static StupsParser parser;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        parser = StupsParser.fromGrammar(Grammar.fromFile(path));
+    }
+
+    private static FlowGraph initFlowGraph(String program) throws URISyntaxException, IOException {
+        final Path path = Paths.get(DataFlowGraphTest.class.getClassLoader().getResource("examplePrograms/" + program).toURI());
+        final Lexer lex = new StupsLexer(CharStreams.fromString(Files.readString(path)));
+
+        final CompactSyntaxTree tree = CompactSyntaxTree.fromSyntaxTree(parser.parseAbstractSyntaxTree(lex.getAllTokens(), lex.getVocabulary()));
+
+        return FlowGraphGenerator.fromAST(tree, TypeChecker.validate(tree), program).generateGraph();
+    }
+
+    private static Set<Integer> ids(Set<?> nodes) {
+        return nodes.stream()
+                    .map(node -> node instanceof DataFlowNode ? ((DataFlowNode) node).getId() : ((FlowInstruction) node).getId())
+                    .collect(Collectors.toSet());
+    }
+
+    /**
+     * Die Kanten müssen denen aus {@link FlowBasicBlock#getInstructionPredecessorSet(FlowInstruction)}
+     * und {@link FlowBasicBlock#getInstructionSuccessorSet(FlowInstruction)} entsprechen.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"CompileAllInOne1.stups", "Factorial.stups", "Fibonacci.stups", "GeneralIfElse.stups",
+                            "GeneralWhile.stups", "Squares.stups"})
+    void testEdgesMatchFlowGraph(String program) throws URISyntaxException, IOException {
+        final FlowGraph flowGraph = initFlowGraph(program);
+        final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(flowGraph);
+
+        final Iterator<DataFlowNode> nodes = dataFlowGraph.iterator();
+        for (FlowBasicBlock block : flowGraph) {
+            for (FlowInstruction instruction : block) {
+                final DataFlowNode node = nodes.next();
+
+                assertThat(node.getId()).isEqualTo(instruction.getId());
+                assertThat(ids(node.getPredecessorSet())).isEqualTo(ids(block.getInstructionPredecessorSet(instruction)));
+                assertThat(ids(node.getSuccessorSet())).isEqualTo(ids(block.getInstructionSuccessorSet(instruction)));
+            }
+        }
+        assertThat(nodes.hasNext()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CompileAllInOne1.stups", "Factorial.stups", "GeneralIfElse.stups", "GeneralWhile.stups"})
+    void testBlocksMatchFlowGraph(String program) throws URISyntaxException, IOException {
+        final FlowGraph flowGraph = initFlowGraph(program);
+        final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(flowGraph);
+
+        int block = 0;
+        for (FlowBasicBlock basicBlock : flowGraph) {
+            if (!basicBlock.iterator().hasNext()) {
+                // Blocks without instructions have no nodes
+                continue;
+            }
+
+            final int start = dataFlowGraph.getBlockStart(block);
+            final int end = dataFlowGraph.getBlockEnd(block);
+
+            int position = start;
+            for (FlowInstruction instruction : basicBlock) {
+                assertThat(dataFlowGraph.get(position).getId()).isEqualTo(instruction.getId());
+                assertThat(dataFlowGraph.getBlockOf(position)).isEqualTo(block);
+                assertThat(dataFlowGraph.indexOf(dataFlowGraph.get(position))).isEqualTo(position);
+                position++;
+            }
+            assertThat(position).isEqualTo(end);
+
+            block++;
+        }
+        assertThat(dataFlowGraph.getBlockCount()).isEqualTo(block);
+    }
+}
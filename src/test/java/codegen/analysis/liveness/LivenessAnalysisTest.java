@@ -1,12 +1,14 @@
 package codegen.analysis.liveness;
 
 import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.liveness.LivenessAnalysis.Granularity;
 import codegen.flowgraph.FlowGraph;
 import codegen.flowgraph.FlowGraphGenerator;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -20,9 +22,13 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -50,13 +56,30 @@ class LivenessAnalysisTest {
     }
 
     private static LivenessAnalysis initLivenessAnalysis(String program) {
+        return initLivenessAnalysis(program, Granularity.BLOCK, null);
+    }
+
+    /**
+     * @param dataGraphs Falls nicht null, wird der analysierte {@link DataFlowGraph} hier abgelegt.
+     */
+    private static LivenessAnalysis initLivenessAnalysis(String program, Granularity granularity, List<DataFlowGraph> dataGraphs) {
         final SyntaxTree tree = lexParseProgram(program);
         final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph graph = gen.generateGraph();
         final DataFlowGraph dataGraph = DataFlowGraph.fromFlowGraph(graph);
 
-        return LivenessAnalysis.fromDataFlowGraph(dataGraph, gen.getVarMap());
+        if (dataGraphs != null) {
+            dataGraphs.add(dataGraph);
+        }
+
+        return LivenessAnalysis.fromDataFlowGraph(dataGraph, gen.getVarMap(), granularity);
+    }
+
+    private static List<String> inOutSets(DataFlowGraph dataGraph) {
+        return dataGraph.stream()
+                        .map(node -> new TreeSet<>(node.getInSet()) + " " + new TreeSet<>(node.getOutSet()))
+                        .collect(Collectors.toList());
     }
 
     private static String buildLivenessProg(String[] expr, String[] use) {
@@ -111,7 +134,30 @@ class LivenessAnalysisTest {
                                              "i = 2 * i + 1;",
                                              "int j = i + 1;",
                                              "System.out.println(j);",
-                                             "i = 5 * i;"}, new String[]{"i"})
+                                             "i = 5 * i;"}, new String[]{"i"}),
+                Arguments.of(2, new String[]{"int i = 5;", // 15
+                                             "int j = 1;",
+                                             "while (i > 0) {",
+                                             "j = j * i;",
+                                             "i = i - 1;",
+                                             "}"}, new String[]{"j"}),
+                Arguments.of(3, new String[]{"int k = 3;",
+                                             "int i = 5;",
+                                             "while (i > 0) {",
+                                             "int j = i;",
+                                             "while (j > 0) {",
+                                             "j = j - 1;",
+                                             "}",
+                                             "i = i - 1;",
+                                             "}"}, new String[]{"k"}),
+                Arguments.of(2, new String[]{"int i = 5;",
+                                             "while (i > 0) {",
+                                             "int j = i;",
+                                             "while (j > 0) {",
+                                             "j = j - 1;",
+                                             "}",
+                                             "i = i - 1;",
+                                             "}"}, new String[]{"i"})
         );
     }
 
@@ -125,4 +171,42 @@ class LivenessAnalysisTest {
 
         assertThat(liveness.doLivenessAnalysis()).isEqualTo(result);
     }
+
+    @ParameterizedTest
+    @MethodSource("compileLivenessProgramsArgs")
+    void compileLivenessProgramsInstructionGranularityTest(int result, String[] prog, String[] use) {
+        final String program = buildLivenessProg(prog, use);
+
+        final LivenessAnalysis liveness = initLivenessAnalysis(program, Granularity.INSTRUCTION, null);
+
+        assertThat(liveness.doLivenessAnalysis()).isEqualTo(result);
+    }
+
+    /**
+     * Alle Variablen sind bis zur Ausgabe gleichzeitig live, jede braucht also ein eigenes Register.
+     */
+    @Test
+    void manySimultaneouslyLiveVariablesTest() {
+        final String[] declarations = IntStream.range(0, 40).mapToObj(i -> "int v" + i + " = " + i + ";").toArray(String[]::new);
+        final String[] uses = IntStream.range(0, 40).mapToObj(i -> "v" + i).toArray(String[]::new);
+
+        final LivenessAnalysis liveness = initLivenessAnalysis(buildLivenessProg(declarations, uses));
+
+        assertThat(liveness.doLivenessAnalysis()).isEqualTo(40);
+    }
+
+    /**
+     * Die In/Out-Mengen der Blockanalyse müssen für jeden Node denen der Analyse pro Instruktion entsprechen.
+     */
+    @ParameterizedTest
+    @MethodSource("compileLivenessProgramsArgs")
+    void blockGranularityMatchesInstructionGranularityTest(int result, String[] prog, String[] use) {
+        final String program = buildLivenessProg(prog, use);
+        final List<DataFlowGraph> dataGraphs = new ArrayList<>();
+
+        initLivenessAnalysis(program, Granularity.INSTRUCTION, dataGraphs);
+        initLivenessAnalysis(program, Granularity.BLOCK, dataGraphs);
+
+        assertThat(inOutSets(dataGraphs.get(1))).isEqualTo(inOutSets(dataGraphs.get(0)));
+    }
 }
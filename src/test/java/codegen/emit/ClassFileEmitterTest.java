@@ -0,0 +1,75 @@
+package codegen.emit;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.StupsParser;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+import parser.grammar.Grammar;
+import typechecker.TypeChecker;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassFileEmitterTest {
+
+    private static StupsParser parser;
+    private static Grammar stupsGrammar;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        stupsGrammar = Grammar.fromFile(path);
+        parser = StupsParser.fromGrammar(stupsGrammar);
+    }
+
+    private static FlowGraph generateGraph(String prog) throws URISyntaxException, IOException {
+        final Path progPath = Paths.get(ClassFileEmitterTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final Lexer lex = new StupsLexer(CharStreams.fromString(Files.readString(progPath)));
+
+        final SyntaxTree tree = parser.parse(lex.getAllTokens(), lex.getVocabulary());
+        final SyntaxTree ast = SyntaxTree.toAbstractSyntaxTree(tree, stupsGrammar);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(ast);
+
+        return FlowGraphGenerator.fromAST(ast, nodeTable, prog).generateGraph();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CompileAllInOne1.stups", "EmptyMain.stups", "Factorial.stups", "Fibonacci.stups",
+                            "GeneralIfElse.stups", "GeneralOperator.stups", "GeneralWhile.stups", "Squares.stups"})
+    void testSameAsJasmin(String prog) throws URISyntaxException, IOException {
+        final FlowGraph graph = generateGraph(prog);
+
+        final byte[] emitted = ClassFileEmitter.fromFlowGraph(graph).toByteArray();
+        final byte[] assembled = JasminAssembler.assemble(graph.toString()).toByteArray();
+
+        assertThat(emitted).isEqualTo(assembled);
+    }
+
+    @Test
+    void testEmitToBuffer() throws URISyntaxException, IOException {
+        final FlowGraph graph = generateGraph("Factorial.stups");
+        final ClassFile classFile = ClassFileEmitter.fromFlowGraph(graph);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(classFile.size() + 4);
+        buffer.putInt(42);
+        ClassFileEmitter.emit(graph, buffer);
+
+        assertThat(buffer.position()).isEqualTo(classFile.size() + 4);
+        assertThat(buffer.getInt(4)).isEqualTo(0xCAFEBABE);
+    }
+}
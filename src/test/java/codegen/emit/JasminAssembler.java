@@ -0,0 +1,215 @@
+package codegen.emit;
+
+import codegen.CodeGenerationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Assembler für die Teilmenge der Jasmin-Syntax, welche von {@link codegen.flowgraph.FlowGraph#toString()}
+ * erzeugt wird: eine Klasse ohne Felder, Methoden mit .limit-Direktiven, Labels und Instruktionen.
+ * Dadurch muss für das Assemblieren keine externe jasmin.jar in einer zweiten JVM gestartet werden.
+ * <p>
+ * Nur für die Tests: Der Compiler erzeugt die Classfile mit dem {@link ClassFileEmitter} direkt,
+ * der Assembler dient als Referenz für dessen Ausgabe und zum Ausführen von Jasmin-Text in den Tests.
+ */
+public final class JasminAssembler {
+
+    private final BufferedReader reader;
+
+    private int lineNumber;
+
+    // Header, bis .class gelesen wurde
+    private int majorVersion = 45;
+    private int minorVersion = 3;
+    private String source;
+
+    private ClassFile classFile;
+    private MethodCode method;
+
+    private JasminAssembler(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    public static ClassFile assemble(String jasmin) {
+        try {
+            return assemble(new StringReader(jasmin));
+        } catch (IOException e) {
+            // StringReader doesn't throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ClassFile assemble(Reader jasmin) throws IOException {
+        return new JasminAssembler(jasmin).assemble();
+    }
+
+    private ClassFile assemble() throws IOException {
+        String line;
+        while ((line = this.reader.readLine()) != null) {
+            this.lineNumber++;
+
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(";")) {
+                continue;
+            }
+
+            if (line.startsWith(".")) {
+                this.directive(line);
+            } else if (line.endsWith(":") && line.indexOf(' ') == -1) {
+                this.currentMethod().label(line.substring(0, line.length() - 1));
+            } else {
+                this.instruction(line);
+            }
+        }
+
+        if (this.method != null) {
+            throw this.error("Missing .end method");
+        }
+
+        return this.currentClass();
+    }
+
+    private void directive(String line) {
+        final String[] split = line.split("\\s+");
+
+        switch (split[0]) {
+            case ".bytecode" -> {
+                // .bytecode 49.0
+                final String[] version = this.expect(split, 2)[1].split("\\.");
+                this.majorVersion = this.parseInt(version[0]);
+                this.minorVersion = version.length > 1 ? this.parseInt(version[1]) : 0;
+            }
+            case ".source" -> this.source = line.substring(".source".length()).trim();
+            case ".class" -> {
+                // .class public TestOutput
+                if (this.classFile != null) {
+                    throw this.error("Only one class per file is supported");
+                }
+
+                this.classFile = new ClassFile(split[split.length - 1]);
+                this.classFile.setAccess(this.parseAccess(split, 1, split.length - 1) | ClassFile.ACC_SUPER);
+                this.classFile.setVersion(this.majorVersion, this.minorVersion);
+                if (this.source != null) {
+                    this.classFile.setSource(this.source);
+                }
+            }
+            case ".super" -> this.currentClass().setSuperName(this.expect(split, 2)[1]);
+            case ".method" -> {
+                // .method public static main([Ljava/lang/String;)V
+                if (this.method != null) {
+                    throw this.error("Nested .method");
+                }
+
+                final String signature = split[split.length - 1];
+                final int descriptor = signature.indexOf('(');
+                if (descriptor <= 0) {
+                    throw this.error("Invalid method signature: " + signature);
+                }
+
+                this.method = this.currentClass().addMethod(this.parseAccess(split, 1, split.length - 1),
+                                                            signature.substring(0, descriptor),
+                                                            signature.substring(descriptor));
+            }
+            case ".limit" -> {
+                // .limit stack 4
+                this.expect(split, 3);
+                switch (split[1]) {
+                    case "stack" -> this.currentMethod().setMaxStack(this.parseInt(split[2]));
+                    case "locals" -> this.currentMethod().setMaxLocals(this.parseInt(split[2]));
+                    default -> throw this.error("Unknown limit: " + split[1]);
+                }
+            }
+            case ".end" -> {
+                // .end method
+                if (!"method".equals(this.expect(split, 2)[1]) || this.method == null) {
+                    throw this.error("Unexpected " + line);
+                }
+
+                this.method = null;
+            }
+            default -> throw this.error("Unsupported directive: " + split[0]);
+        }
+    }
+
+    private void instruction(String line) {
+        final int space = line.indexOf(' ');
+        final String mnemonic = space == -1 ? line : line.substring(0, space);
+        final String rest = space == -1 ? "" : line.substring(space + 1).trim();
+
+        final String[] args;
+        if (rest.isEmpty()) {
+            args = new String[0];
+        } else if (rest.startsWith("\"")) {
+            // String constants may contain whitespace
+            args = new String[]{rest};
+        } else {
+            args = rest.split("\\s+");
+        }
+
+        try {
+            this.currentMethod().instruction(mnemonic, args);
+        } catch (CodeGenerationException e) {
+            throw this.error(e.getMessage().trim());
+        }
+    }
+
+    private int parseAccess(String[] split, int from, int to) {
+        int access = 0;
+
+        for (String flag : Arrays.copyOfRange(split, from, to)) {
+            access |= switch (flag) {
+                case "public" -> ClassFile.ACC_PUBLIC;
+                case "private" -> ClassFile.ACC_PRIVATE;
+                case "protected" -> ClassFile.ACC_PROTECTED;
+                case "static" -> ClassFile.ACC_STATIC;
+                case "final" -> ClassFile.ACC_FINAL;
+                case "super" -> ClassFile.ACC_SUPER;
+                case "abstract" -> ClassFile.ACC_ABSTRACT;
+                default -> throw this.error("Unknown access flag: " + flag);
+            };
+        }
+
+        return access;
+    }
+
+    private int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw this.error("Not a number: " + value);
+        }
+    }
+
+    private String[] expect(String[] split, int count) {
+        if (split.length != count) {
+            throw this.error("Wrong number of arguments for " + split[0]);
+        }
+
+        return split;
+    }
+
+    private ClassFile currentClass() {
+        if (this.classFile == null) {
+            throw this.error("Missing .class directive");
+        }
+
+        return this.classFile;
+    }
+
+    private MethodCode currentMethod() {
+        if (this.method == null) {
+            throw this.error("Instruction outside of a method");
+        }
+
+        return this.method;
+    }
+
+    private CodeGenerationException error(String message) {
+        return new CodeGenerationException("Jasmin line " + this.lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,107 @@
+package codegen.emit;
+
+import codegen.CodeGenerationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JasminAssemblerTest {
+
+    private static final String HEAD = ".bytecode 49.0\n"
+                                       + ".source Test.stups\n"
+                                       + ".class public TestOutput\n"
+                                       + ".super java/lang/Object\n"
+                                       + ".method public static main([Ljava/lang/String;)V\n"
+                                       + "\t.limit stack 3\n"
+                                       + "\t.limit locals 2\n";
+
+    private static final String TAIL = "\t\treturn\n"
+                                       + ".end method\n";
+
+    private static String run(ClassFile classFile) throws Exception {
+        final byte[] bytes = classFile.toByteArray();
+        final Class<?> clazz = new ClassLoader() {
+            Class<?> define() {
+                return this.defineClass(classFile.getClassName(), bytes, 0, bytes.length);
+            }
+        }.define();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PrintStream stdout = System.out;
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            final Method main = clazz.getMethod("main", String[].class);
+            main.invoke(null, (Object) new String[0]);
+        } finally {
+            System.setOut(stdout);
+        }
+
+        return out.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    @Test
+    void testArithmetic() throws Exception {
+        final ClassFile classFile = JasminAssembler.assemble(HEAD
+                                                             + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+                                                             + "\t\tldc 6\n"
+                                                             + "\t\tldc 7\n"
+                                                             + "\t\timul \n"
+                                                             + "\t\tinvokevirtual java/io/PrintStream/println(I)V\n"
+                                                             + TAIL);
+
+        assertThat(classFile.getClassName()).isEqualTo("TestOutput");
+        assertThat(run(classFile)).isEqualTo("42\n");
+    }
+
+    @Test
+    void testLoopWithLabels() throws Exception {
+        final ClassFile classFile = JasminAssembler.assemble(HEAD
+                                                             + "\t\tldc 3\n"
+                                                             + "\t\tistore 1\n"
+                                                             + "LOOPstart1:\n"
+                                                             + "\t\tiload 1\n"
+                                                             + "\t\tifeq LOOPend1\n"
+                                                             + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+                                                             + "\t\tiload 1\n"
+                                                             + "\t\tinvokevirtual java/io/PrintStream/println(I)V\n"
+                                                             + "\t\tiload 1\n"
+                                                             + "\t\tldc 1\n"
+                                                             + "\t\tisub \n"
+                                                             + "\t\tistore 1\n"
+                                                             + "\t\tgoto LOOPstart1\n"
+                                                             + "LOOPend1:\n"
+                                                             + TAIL);
+
+        assertThat(run(classFile)).isEqualTo("3\n2\n1\n");
+    }
+
+    @Test
+    void testStringConstant() throws Exception {
+        final ClassFile classFile = JasminAssembler.assemble(HEAD
+                                                             + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+                                                             + "\t\tldc \"Hallo Welt \\\"!\\\"\"\n"
+                                                             + "\t\tinvokevirtual java/io/PrintStream/println(Ljava/lang/String;)V\n"
+                                                             + TAIL);
+
+        assertThat(run(classFile)).isEqualTo("Hallo Welt \"!\"\n");
+    }
+
+    @Test
+    void testUnsupportedInstruction() {
+        assertThatThrownBy(() -> JasminAssembler.assemble(HEAD + "\t\tinvokedynamic foo\n" + TAIL))
+                .isInstanceOf(CodeGenerationException.class);
+    }
+
+    @Test
+    void testUndefinedLabel() {
+        final ClassFile classFile = JasminAssembler.assemble(HEAD + "\t\tgoto NOWHERE\n" + TAIL);
+
+        assertThatThrownBy(classFile::toByteArray).isInstanceOf(CodeGenerationException.class);
+    }
+}
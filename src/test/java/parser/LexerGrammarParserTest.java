@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.Lexer;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SyntaxTree;
 import parser.grammar.Grammar;
 
 import java.io.IOException;
@@ -21,12 +22,14 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 class LexerGrammarParserTest {
 
     private static StupsParser parser;
+    private static Grammar stupsGrammar;
 
     @BeforeAll
     static void init() throws IOException, URISyntaxException {
         final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
         final Grammar grammar = Grammar.fromFile(path);
         parser = StupsParser.fromGrammar(grammar);
+        stupsGrammar = grammar;
     }
 
     private static StupsLexer getLexer(String program) {
@@ -73,4 +76,40 @@ class LexerGrammarParserTest {
 
         assertThatThrownBy(() -> parser.parse(lex.getAllTokens(), lex.getVocabulary())).isInstanceOf(ParseException.class);
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"EmptyFile.stups",
+                            "EmptyMain.stups",
+                            "GeneralComment.stups",
+                            "MultipleDeclarations.stups",
+                            "DeclarationAssignment.stups",
+                            "Expr.stups",
+                            "GeneralWhile.stups",
+                            "GeneralIfElse.stups",
+                            "GeneralOperator.stups",
+                            "Println.stups",
+                            "CompileAllInOne1.stups",
+                            "Factorial.stups",
+                            "Fibonacci.stups",
+                            "Squares.stups"})
+    void testAbstractSyntaxTreeWhileParsing(String prog) {
+        final Lexer lex = getLexer(prog);
+        final Lexer lexAst = getLexer(prog);
+
+        final SyntaxTree expected = SyntaxTree.toAbstractSyntaxTree(parser.parse(lex.getAllTokens(), lex.getVocabulary()),
+                                                                    stupsGrammar);
+
+        assertThat(parser.parseAbstractSyntaxTree(lexAst.getAllTokens(), lexAst.getVocabulary())).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"FailingSemicolon.stups",
+                            "FailingMissingBrace.stups",
+                            "FailingMissingMain.stups",
+                            "FailingWrongStatement.stups"})
+    void testIncorrectProgramsWhileParsing(String prog) {
+        final Lexer lex = getLexer(prog);
+
+        assertThatThrownBy(() -> parser.parseAbstractSyntaxTree(lex.getAllTokens(), lex.getVocabulary())).isInstanceOf(ParseException.class);
+    }
 }
@@ -0,0 +1,76 @@
+package parser;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import parser.grammar.Grammar;
+import parser.grammar.GrammarAnalyzer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParsingTableCacheTest {
+
+    private static byte[] grammarHash;
+    private static ParsingTable table;
+
+    @BeforeAll
+    static void init() throws IOException {
+        final Path path = Paths.get(System.getProperty("user.dir") + "/stups.grammar");
+        grammarHash = ParsingTableCache.hash(Files.readAllBytes(path));
+        table = GrammarAnalyzer.fromGrammar(Grammar.fromFile(path)).getTable();
+    }
+
+    private static byte[] writeCache(byte[] hash) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParsingTableCache.write(table, hash, out);
+
+        return out.toByteArray();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final Optional<ParsingTable> cached = ParsingTableCache.read(new ByteArrayInputStream(writeCache(grammarHash)),
+                                                                     grammarHash);
+
+        assertThat(cached).isPresent();
+        assertThat(cached.get().getTerminals()).isEqualTo(table.getTerminals());
+        assertThat(cached.get().getNonterminals()).isEqualTo(table.getNonterminals());
+        assertThat(cached.get().getGrammar().getRules()).isEqualTo(table.getGrammar().getRules());
+        assertThat(cached.get()).hasToString(table.toString());
+
+        final Grammar grammar = table.getGrammar();
+        for (int nterm = grammar.getTerminalCount(); nterm < grammar.getSymbolCount(); nterm++) {
+            for (int term = 0; term < grammar.getTerminalCount(); term++) {
+                assertThat(cached.get().getProduction(nterm, term)).isEqualTo(table.getProduction(nterm, term));
+            }
+        }
+    }
+
+    @Test
+    void testDeterministicBytes() throws IOException {
+        assertThat(writeCache(grammarHash)).isEqualTo(writeCache(grammarHash));
+    }
+
+    @Test
+    void testHashMismatch() throws IOException {
+        final byte[] otherHash = ParsingTableCache.hash("S -> a".getBytes());
+
+        assertThat(ParsingTableCache.read(new ByteArrayInputStream(writeCache(otherHash)), grammarHash)).isEmpty();
+    }
+
+    @Test
+    void testTruncatedCache() throws IOException {
+        final byte[] bytes = writeCache(grammarHash);
+        final byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertThat(ParsingTableCache.read(new ByteArrayInputStream(truncated), grammarHash)).isEmpty();
+    }
+}
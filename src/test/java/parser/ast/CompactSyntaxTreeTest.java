@@ -0,0 +1,103 @@
+package parser.ast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactSyntaxTreeTest {
+
+    private static SyntaxTree buildTree() {
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+        final SyntaxTreeNode childA = new SyntaxTreeNode("A", 1);
+        final SyntaxTreeNode childB = new SyntaxTreeNode("B", 2);
+        final SyntaxTreeNode childC = new SyntaxTreeNode("C", 3);
+        childB.setValue("b");
+        childC.setValue("b");
+
+        root.addChild(childA);
+        root.addChild(childB);
+        childA.addChild(childC);
+
+        return new SyntaxTree(root);
+    }
+
+    /**
+     * Ein Programm aus Zuweisungen "i = i + k;", mit eigenen String-Objekten pro Wert wie beim Parsen.
+     */
+    private static SyntaxTree buildProgram(int statements) {
+        final SyntaxTreeNode root = new SyntaxTreeNode("statementlist", 1);
+
+        for (int line = 0; line < statements; line++) {
+            final SyntaxTreeNode assignment = new SyntaxTreeNode("assignment", line);
+            assignment.setValue("i" + line % 10);
+
+            final SyntaxTreeNode expr = new SyntaxTreeNode("expr", line);
+            expr.setValue("ADD");
+
+            final SyntaxTreeNode identifier = new SyntaxTreeNode("IDENTIFIER", line);
+            identifier.setValue("i" + line % 10);
+
+            final SyntaxTreeNode literal = new SyntaxTreeNode("INTEGER_LIT", line);
+            literal.setValue(String.valueOf(line));
+
+            expr.setChildren(identifier, literal);
+            assignment.addChild(expr);
+            root.addChild(assignment);
+        }
+
+        return new SyntaxTree(root);
+    }
+
+    @Test
+    void testIndicesArePreOrder() {
+        final SyntaxTree tree = buildTree();
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(tree);
+
+        assertThat(compact.size()).isEqualTo(4);
+        assertThat(compact.getName(0)).isEqualTo("Wurzel");
+        assertThat(compact.getName(1)).isEqualTo("A");
+        assertThat(compact.getName(2)).isEqualTo("C");
+        assertThat(compact.getName(3)).isEqualTo("B");
+
+        final List<String> names = new ArrayList<>();
+        for (SyntaxTreeNode node : CompactSyntaxTree.nodeOrder(tree)) {
+            names.add(node.getName());
+        }
+        assertThat(names).containsExactly("Wurzel", "A", "C", "B");
+    }
+
+    @Test
+    void testChildren() {
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(buildTree());
+        final int root = compact.getRoot();
+
+        assertThat(compact.getChildCount(root)).isEqualTo(2);
+        assertThat(compact.getFirstChild(root)).isEqualTo(1);
+        assertThat(compact.getNextSibling(1)).isEqualTo(3);
+        assertThat(compact.getNextSibling(3)).isEqualTo(CompactSyntaxTree.NONE);
+        assertThat(compact.getChild(root, 1)).isEqualTo(3);
+        assertThat(compact.isEmpty(3)).isTrue();
+        assertThat(compact.getValue(3)).isEqualTo("b");
+        assertThat(compact.getLine(2)).isEqualTo(3);
+    }
+
+    @Test
+    void testPostOrder() {
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(buildTree());
+
+        final List<String> names = new ArrayList<>();
+        SyntaxTreeTraversal.postOrder(compact, node -> names.add(compact.getName(node)));
+
+        assertThat(names).containsExactly("C", "A", "B", "Wurzel");
+    }
+
+    @Test
+    void testRoundTrip() {
+        final SyntaxTree tree = buildProgram(100);
+
+        assertThat(CompactSyntaxTree.fromSyntaxTree(tree).toSyntaxTree()).isEqualTo(tree);
+    }
+}
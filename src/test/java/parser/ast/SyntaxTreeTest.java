@@ -42,4 +42,26 @@ class SyntaxTreeTest {
 
         assertThat(tree).hasToString("Wurzel\n└── A\n    └── B\n");
     }
+
+    @Test
+    void testDeepCopyIsStructurallyEqual() {
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+        final SyntaxTreeNode childA = new SyntaxTreeNode("A", 1);
+        final SyntaxTreeNode childB = new SyntaxTreeNode("B", 2);
+        childB.setValue("b");
+
+        root.addChild(childA);
+        root.addChild(childB);
+
+        final SyntaxTree tree = new SyntaxTree(root);
+        final SyntaxTree copy = tree.deepCopy();
+
+        assertThat(copy).isEqualTo(tree);
+        assertThat(copy.hashCode()).isEqualTo(tree.hashCode());
+        assertThat(copy.getRoot()).isNotEqualTo(root);
+
+        copy.getRoot().getChildren().get(1).setValue("c");
+
+        assertThat(copy).isNotEqualTo(tree);
+    }
 }
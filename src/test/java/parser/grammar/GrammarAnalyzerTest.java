@@ -179,4 +179,20 @@ class GrammarAnalyzerTest {
         assertThat(table.get("F", "id")).isEqualTo("id");
         assertThat(table.get("F", "(")).isEqualTo("( S )");
     }
+
+    @Test
+    void testCompiledTableGrammar1() {
+        final GrammarAnalyzer analyzer = GrammarAnalyzer.fromGrammar(grammar1);
+        final ParsingTable table = analyzer.getTable();
+
+        final int prod = table.getProduction(grammar1.getSymbolId("T2"), grammar1.getSymbolId("*"));
+
+        assertThat(table.getRule(prod).getRightside()).isEqualTo("* F T2");
+        assertThat(table.getRightsideSymbols(prod)).containsExactly(grammar1.getSymbolId("*"),
+                                                                    grammar1.getSymbolId("F"),
+                                                                    grammar1.getSymbolId("T2"));
+        assertThat(table.getProduction(grammar1.getSymbolId("E2"), Grammar.EOF_ID)).isNotEqualTo(ParsingTable.NO_PRODUCTION);
+        assertThat(table.getProduction(grammar1.getSymbolId("F"), grammar1.getSymbolId("+"))).isEqualTo(ParsingTable.NO_PRODUCTION);
+        assertThat(table.getProduction(grammar1.getSymbolId("id"), grammar1.getSymbolId("id"))).isEqualTo(ParsingTable.NO_PRODUCTION);
+    }
 }
@@ -46,4 +46,30 @@ class GrammarTest {
                                                 new GrammarRule("E2", "+", "T", "E2"),
                                                 new GrammarRule("E2", Grammar.EPSILON_SYMBOL));
     }
+
+    @Test
+    void testActionsBySymbolHandle() throws IOException {
+        final Grammar grammar = Grammar.fromFile(Paths.get(System.getProperty("user.dir") + "/stups.grammar"));
+
+        final int assignment = SymbolTable.lookup("assignment");
+        final int assign = SymbolTable.lookup("ASSIGN");
+        final int identifier = SymbolTable.lookup("IDENTIFIER");
+
+        assertThat(assignment).isEqualTo(SymbolTable.ASSIGNMENT);
+        assertThat(identifier).isEqualTo(SymbolTable.IDENTIFIER);
+        assertThat(grammar.getSymbolHandle(grammar.getSymbolId("ASSIGN"))).isEqualTo(assign);
+
+        assertThat(grammar.canDeleteChild(assignment, assign)).isTrue();
+        assertThat(grammar.canDeleteChild(assignment, identifier)).isFalse();
+        assertThat(grammar.canDeleteChild(assignment, SymbolTable.EPSILON)).isTrue();
+        assertThat(grammar.hasValToVal(assignment, identifier)).isTrue();
+        assertThat(grammar.canMoveNameToVal(SymbolTable.DECLARATION, SymbolTable.INTEGER_TYPE)).isTrue();
+        assertThat(grammar.getNewSymbol(SymbolTable.lookup("expr_2"))).isEqualTo(SymbolTable.EXPR);
+        assertThat(grammar.getNewSymbol(assignment)).isEqualTo(SymbolTable.NONE);
+        assertThat(grammar.canDeleteIfEmpty(SymbolTable.lookup("block_cnt"))).isTrue();
+
+        // Die String-Varianten liefern dasselbe, auch für unbekannte Namen
+        assertThat(grammar.canDeleteChild("assignment", "ASSIGN")).isTrue();
+        assertThat(grammar.canBeRenamed("unbekannt")).isFalse();
+    }
 }
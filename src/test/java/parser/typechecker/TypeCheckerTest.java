@@ -3,22 +3,30 @@ package parser.typechecker;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import parser.ParseException;
 import parser.StupsParser;
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
 import parser.grammar.Grammar;
 import typechecker.AssignmentTypeMismatchException;
 import typechecker.OperatorTypeMismatchException;
 import typechecker.OperatorUsageException;
+import typechecker.SymbolNotDefinedException;
+import typechecker.Type;
 import typechecker.TypeChecker;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 class TypeCheckerTest {
@@ -59,6 +67,14 @@ class TypeCheckerTest {
         assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOf(AssignmentTypeMismatchException.class);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"int a = 1; a = b;",
+                            "b = 2;",
+                            "int a = 1; b = a;"})
+    void testAssignmentUndeclared(String expr) {
+        assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOf(SymbolNotDefinedException.class);
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"int i = +1;",
                             "boolean b = !false;",
@@ -132,4 +148,20 @@ class TypeCheckerTest {
         assertThatThrownBy(() -> TypeChecker.validate(this.getTree(expr))).isInstanceOfAny(OperatorTypeMismatchException.class,
                                                                                            ParseException.class);
     }
+
+    @Test
+    void testNodeTypesByIndex() {
+        final SyntaxTree tree = this.getTree("int i = 1 + 2;\nboolean b = i < 3;\nString s = \"Hi\";");
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(tree);
+
+        final Type[] nodeTypes = TypeChecker.validate(compact);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final List<SyntaxTreeNode> nodes = CompactSyntaxTree.nodeOrder(tree);
+
+        assertThat(nodeTypes).hasSize(compact.size()).contains(Type.INTEGER, Type.BOOLEAN, Type.STRING);
+        for (int node = 0; node < nodeTypes.length; node++) {
+            final String expected = nodeTypes[node] == null ? null : nodeTypes[node].getName();
+            assertThat(nodeTable.get(nodes.get(node))).isEqualTo(expected);
+        }
+    }
 }
@@ -0,0 +1,221 @@
+package util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggerTest {
+
+    @AfterEach
+    void reset() {
+        Logger.setEnabled(false);
+        Logger.setLevel(Logger.Level.INFO);
+        Logger.setPackageEnabled("util", true);
+        Logger.releaseThread();
+        Logger.close();
+    }
+
+    @Test
+    void testSupplierNotCalledWhenDisabled() {
+        final AtomicInteger calls = new AtomicInteger();
+        Logger.setEnabled(false);
+
+        Logger.logInfoSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+
+        assertThat(calls.get()).isEqualTo(0);
+    }
+
+    @Test
+    void testSupplierCalledWhenEnabled() {
+        final AtomicInteger calls = new AtomicInteger();
+        Logger.setEnabled(true);
+
+        Logger.logInfoSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testLevelFilter() {
+        final AtomicInteger calls = new AtomicInteger();
+        Logger.setEnabled(true);
+        Logger.setLevel(Logger.Level.ERROR);
+
+        Logger.logInfoSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+        Logger.logDebugSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+        Logger.logErrorSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(Logger.isEnabled(Logger.Level.DEBUG, LoggerTest.class)).isFalse();
+    }
+
+    @Test
+    void testPackageFilter() {
+        final AtomicInteger calls = new AtomicInteger();
+        Logger.setEnabled(true);
+        Logger.setPackageEnabled("util", false);
+
+        Logger.logErrorSupplier(() -> "Aufruf " + calls.incrementAndGet(), LoggerTest.class);
+
+        assertThat(calls.get()).isEqualTo(0);
+    }
+
+    @Test
+    void testRingBufferKeepsLastLines() {
+        final List<String> target = new ArrayList<>();
+        final RingBufferLogSink ring = new RingBufferLogSink(3, target::add);
+
+        for (int i = 0; i < 5; i++) {
+            ring.write("Zeile " + i);
+        }
+
+        assertThat(ring.getLines()).containsExactly("Zeile 2", "Zeile 3", "Zeile 4");
+        assertThat(target).isEmpty();
+
+        ring.close();
+        assertThat(target).containsExactly("... 2 ältere Zeilen verworfen", "Zeile 2", "Zeile 3", "Zeile 4");
+    }
+
+    @Test
+    void testCaptureThread() throws InterruptedException {
+        final List<String> global = Collections.synchronizedList(new ArrayList<>());
+        final List<String> captured = new ArrayList<>();
+        Logger.setSink(global::add);
+        Logger.setEnabled(true);
+
+        Logger.captureThread(captured::add);
+        Logger.logInfo("Erfasst", LoggerTest.class);
+
+        // Other threads still log to the global sink
+        final Thread other = new Thread(() -> Logger.logInfo("Global", LoggerTest.class));
+        other.start();
+        other.join();
+
+        Logger.releaseThread();
+        Logger.logInfo("Wieder global", LoggerTest.class);
+
+        assertThat(captured).hasSize(1);
+        assertThat(captured.get(0)).startsWith("INFO  - Erfasst");
+        assertThat(global).hasSize(2);
+        assertThat(global.get(1)).startsWith("INFO  - Wieder global");
+    }
+
+    @Test
+    void testAsyncSinkDeliversInOrder() {
+        final List<String> target = Collections.synchronizedList(new ArrayList<>());
+        final AsyncLogSink async = new AsyncLogSink(target::add, 1024);
+
+        for (int i = 0; i < 500; i++) {
+            async.write("Zeile " + i);
+        }
+        async.flush();
+
+        assertThat(target).hasSize(500);
+        assertThat(target.get(0)).isEqualTo("Zeile 0");
+        assertThat(target.get(499)).isEqualTo("Zeile 499");
+        async.close();
+    }
+
+    @Test
+    void testAsyncSinkDropsWhenFull() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> target = Collections.synchronizedList(new ArrayList<>());
+        final AsyncLogSink async = new AsyncLogSink(line -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            target.add(line);
+        }, 2);
+
+        // The worker holds the first line, the queue takes two more
+        async.write("Zeile 0");
+        blocked.await();
+        for (int i = 1; i < 10; i++) {
+            async.write("Zeile " + i);
+        }
+        release.countDown();
+        async.close();
+
+        assertThat(async.getDroppedCount()).isEqualTo(7L);
+        assertThat(target).containsExactly("Zeile 0", "Zeile 1", "Zeile 2",
+                                           "... 7 Zeilen verworfen, die Warteschlange war voll");
+    }
+
+    @Test
+    void testAsyncSinkSurvivesFailingTarget() {
+        final List<String> target = Collections.synchronizedList(new ArrayList<>());
+        final AsyncLogSink async = new AsyncLogSink(line -> {
+            if ("Zeile 1".equals(line)) {
+                throw new UncheckedIOException(new IOException("Kein Platz"));
+            }
+            target.add(line);
+        }, 16);
+
+        for (int i = 0; i < 3; i++) {
+            async.write("Zeile " + i);
+        }
+        async.flush();
+        async.close();
+
+        assertThat(async.getFailedCount()).isEqualTo(1L);
+        assertThat(target).containsExactly("Zeile 0", "Zeile 2", "... 1 Zeilen konnten nicht geschrieben werden");
+    }
+
+    @Test
+    void testAsyncSinkCloseReturnsWhenTargetAlwaysFails() throws InterruptedException {
+        final AsyncLogSink async = new AsyncLogSink(new LogSink() {
+            @Override
+            public void write(String line) {
+                throw new UncheckedIOException(new IOException("Kein Platz"));
+            }
+
+            @Override
+            public void flush() {
+                throw new UncheckedIOException(new IOException("Kein Platz"));
+            }
+        }, 1024);
+
+        for (int i = 0; i < 100; i++) {
+            async.write("Zeile " + i);
+        }
+
+        // close() must not wait for lines the target can't write
+        final Thread closer = new Thread(async::close);
+        closer.start();
+        closer.join(10_000);
+
+        assertThat(closer.isAlive()).isFalse();
+        assertThat(async.getFailedCount()).isEqualTo(100L);
+    }
+
+    @Test
+    void testConfigureSink() {
+        final Map<String, String> settings = Map.of("stups.log", "debug",
+                                                    "stups.log.sink", "ring:2");
+        Logger.configure(settings::get);
+
+        Logger.logInfo("Info", LoggerTest.class);
+        Logger.logDebug("Debug", LoggerTest.class);
+        Logger.logError("Error", LoggerTest.class);
+
+        assertThat(Logger.getSink()).isInstanceOf(RingBufferLogSink.class);
+        final List<String> lines = ((RingBufferLogSink) Logger.getSink()).getLines();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("DEBUG - Debug");
+        assertThat(lines.get(1)).startsWith("ERROR - Error");
+    }
+}
@@ -0,0 +1,69 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhaseStatsTest {
+
+    @Test
+    void testNoRecordingWithoutBegin() {
+        PhaseStats.end();
+
+        try (PhaseStats.Phase ignored = PhaseStats.phase("lex")) {
+            PhaseStats.count("tokens", 5);
+        }
+
+        assertThat(PhaseStats.isRecording()).isFalse();
+    }
+
+    @Test
+    void testPhasesAndCounts() {
+        final PhaseStats stats = PhaseStats.begin();
+        try {
+            for (int i = 0; i < 2; i++) {
+                try (PhaseStats.Phase ignored = PhaseStats.phase("parse")) {
+                    PhaseStats.count("nodes", 10);
+                }
+            }
+        } finally {
+            PhaseStats.end();
+        }
+
+        assertThat(stats.hasPhase("parse")).isTrue();
+        assertThat(stats.hasPhase("lex")).isFalse();
+        assertThat(stats.getCount("nodes")).isEqualTo(20L);
+        assertThat(stats.toJson()).startsWith("{\"phases\": {\"parse\": {\"calls\": 2, \"wallNanos\": ");
+        assertThat(stats.toJson()).endsWith("\"counts\": {\"nodes\": 20}}");
+    }
+
+    @Test
+    void testResumeOnOtherThread() throws InterruptedException {
+        final PhaseStats stats = PhaseStats.begin();
+        try (PhaseStats.Phase ignored = PhaseStats.phase("emit")) {
+            PhaseStats.count("classFileBytes", 100);
+        } finally {
+            PhaseStats.end();
+        }
+
+        final Thread writer = new Thread(() -> {
+            PhaseStats.resume(stats);
+            try (PhaseStats.Phase ignored = PhaseStats.phase("write")) {
+                PhaseStats.count("classFileBytes", 1);
+            } finally {
+                PhaseStats.end();
+            }
+        });
+        writer.start();
+        writer.join();
+
+        assertThat(stats.hasPhase("emit")).isTrue();
+        assertThat(stats.hasPhase("write")).isTrue();
+        assertThat(stats.getCount("classFileBytes")).isEqualTo(101L);
+    }
+
+    @Test
+    void testQuote() {
+        assertThat(PhaseStats.quote("a\"b\\c\n")).isEqualTo("\"a\\\"b\\\\c\\n\"");
+    }
+}